@@ -1,6 +1,8 @@
 package com.anvistudio.boutique.config;
 
 import com.anvistudio.boutique.security.JwtRequestFilter;
+import com.anvistudio.boutique.security.PooledPasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -10,15 +12,15 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 
@@ -28,15 +30,37 @@ public class SecurityConfig {
 
     private final JwtRequestFilter jwtRequestFilter;
     private final UserDetailsService userDetailsService;
+    private final UserDetailsPasswordService userDetailsPasswordService;
 
-    public SecurityConfig(JwtRequestFilter jwtRequestFilter, UserDetailsService userDetailsService) {
+    public SecurityConfig(JwtRequestFilter jwtRequestFilter, UserDetailsService userDetailsService,
+                          UserDetailsPasswordService userDetailsPasswordService) {
         this.jwtRequestFilter = jwtRequestFilter;
         this.userDetailsService = userDetailsService;
+        this.userDetailsPasswordService = userDetailsPasswordService;
     }
 
+    /**
+     * BCrypt on a bounded pool (see PooledPasswordEncoder) with the configured cost. By default the pool
+     * gets half the cores, leaving the rest to catalog traffic during a login burst.
+     * app.security.bcrypt.calibrate=true only measures and logs which cost would take about
+     * app.security.bcrypt.target-ms on this hardware.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PooledPasswordEncoder passwordEncoder(
+            @Value("${app.security.bcrypt.strength:10}") int strength,
+            @Value("${app.security.bcrypt.calibrate:false}") boolean calibrate,
+            @Value("${app.security.bcrypt.target-ms:250}") long targetMs,
+            @Value("${app.security.bcrypt.pool-size:0}") int poolSize,
+            @Value("${app.security.bcrypt.queue-capacity:200}") int queueCapacity,
+            @Value("${app.security.bcrypt.timeout:10s}") Duration timeout) {
+        if (calibrate) {
+            int suggested = PooledPasswordEncoder.calibrateStrength(targetMs);
+            System.out.println("SECURITY INFO: BCrypt cost " + suggested + " takes about " + targetMs
+                    + " ms on this machine; set app.security.bcrypt.strength=" + suggested + " to use it.");
+        }
+        int effectivePoolSize = poolSize > 0 ? poolSize : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        System.out.println("SECURITY INFO: BCrypt cost " + strength + " on " + effectivePoolSize + " hashing threads.");
+        return new PooledPasswordEncoder(strength, effectivePoolSize, queueCapacity, timeout);
     }
 
     @Bean
@@ -45,14 +69,16 @@ public class SecurityConfig {
     }
 
    @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider(passwordEncoder());
+    public DaoAuthenticationProvider authenticationProvider(PooledPasswordEncoder passwordEncoder) {
+        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider(passwordEncoder);
         authProvider.setUserDetailsService(userDetailsService);
+        // Re-hashes passwords stored below the configured cost after a successful login
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService);
         return authProvider;
     }
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, DaoAuthenticationProvider authenticationProvider) throws Exception {
         http
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .csrf(csrf -> csrf.disable())
@@ -64,7 +90,7 @@ public class SecurityConfig {
                 .anyRequest().authenticated()
             );
 
-        http.authenticationProvider(authenticationProvider());
+        http.authenticationProvider(authenticationProvider);
         http.addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
@@ -0,0 +1,48 @@
+package com.anvistudio.boutique.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Adjustments that only apply when spring.threads.virtual.enabled=true, i.e. when Tomcat requests,
+ * the application task executor and @Scheduled jobs run on virtual threads.
+ * <p>
+ * Pinning/ThreadLocal audit of the request paths (Java 21 pins a virtual thread that blocks inside
+ * a synchronized block):
+ * <ul>
+ *     <li>Application code has no synchronized blocks or ThreadLocals; shared state uses
+ *     ReentrantLock / ReadWriteLock (facets, suggestions, MailDispatcher start/stop) and Caffeine,
+ *     which do not pin.</li>
+ *     <li>JDBC: MySQL Connector/J 9.x and HikariCP guard I/O with j.u.c locks, not monitors.
+ *     Virtual threads make the connection pool the concurrency limit, so its size and
+ *     connection-timeout are set explicitly in application.properties.</li>
+ *     <li>BCrypt runs on its own bounded platform pool (PooledPasswordEncoder); virtual request
+ *     threads just park while waiting for it.</li>
+ *     <li>Jackson recycles its encoding buffers per thread by default. Virtual threads are never
+ *     reused, so every response would allocate fresh buffers; a shared pool is configured below.</li>
+ *     <li>Angus Mail's SMTP transport sends inside synchronized methods. Request threads only queue
+ *     mail (MailQueueService); the SMTP round trips happen on MailDispatcher's platform threads.</li>
+ * </ul>
+ * Run with -Djdk.tracePinnedThreads=short to log any pinning that remains.
+ * Whether virtual threads beat the platform pool for this workload has not been measured yet;
+ * VirtualThreadLoadTest runs both modes side by side.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    /**
+     * Jackson buffer recycling shared across threads instead of per-thread.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer sharedJsonBufferRecycling() {
+        return builder -> builder.factory(JsonFactory.builder()
+                .recyclerPool(JsonRecyclerPools.sharedConcurrentDequePool())
+                .build());
+    }
+}
@@ -1,6 +1,9 @@
 package com.anvistudio.boutique.controller;
 
+import com.anvistudio.boutique.dto.AdminReviewDTO;
+import com.anvistudio.boutique.dto.OrderDTO;
 import com.anvistudio.boutique.model.*;
+import com.anvistudio.boutique.security.PooledPasswordEncoder;
 import com.anvistudio.boutique.service.*;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -24,15 +27,22 @@ public class AdminRestController {
     private final ReviewService reviewService;
     private final ContactService contactService;
     private final UserService userService;
+    private final CatalogCache catalogCache;
+    private final PooledPasswordEncoder passwordEncoder;
+    private final MailQueueService mailQueueService;
 
     public AdminRestController(ProductService productService, OrderService orderService, 
                                ReviewService reviewService, ContactService contactService, 
-                               UserService userService) {
+                               UserService userService, CatalogCache catalogCache,
+                               PooledPasswordEncoder passwordEncoder, MailQueueService mailQueueService) {
         this.productService = productService;
         this.orderService = orderService;
         this.reviewService = reviewService;
         this.contactService = contactService;
         this.userService = userService;
+        this.catalogCache = catalogCache;
+        this.passwordEncoder = passwordEncoder;
+        this.mailQueueService = mailQueueService;
     }
 
     // --- PRODUCT MANAGEMENT ---
@@ -59,25 +69,49 @@ public class AdminRestController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * NEW: Hit/miss/eviction statistics of the in-process catalog cache.
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Map<String, Object>>> getCacheStats() {
+        return ResponseEntity.ok(catalogCache.getStats());
+    }
+
+    /**
+     * NEW: BCrypt pool and queueing statistics (cost factor, queue depth, rejections, wait and hash times).
+     */
+    @GetMapping("/security/password-hashing/stats")
+    public ResponseEntity<Map<String, Object>> getPasswordHashingStats() {
+        return ResponseEntity.ok(passwordEncoder.getStats());
+    }
+
+    /**
+     * NEW: Outbound mail queue depth per lane and status, plus send/retry/failure counters.
+     */
+    @GetMapping("/mail/queue/stats")
+    public ResponseEntity<Map<String, Object>> getMailQueueStats() {
+        return ResponseEntity.ok(mailQueueService.getStats());
+    }
+
     // --- ORDER MANAGEMENT ---
 
     @GetMapping("/orders")
-    public ResponseEntity<List<Order>> getAllOrders() {
+    public ResponseEntity<List<OrderDTO>> getAllOrders() {
         return ResponseEntity.ok(orderService.getAllOrders());
     }
 
     @PatchMapping("/orders/{id}/status")
-    public ResponseEntity<Order> updateOrderStatus(@PathVariable Long id, @RequestParam Order.OrderStatus status) {
+    public ResponseEntity<OrderDTO> updateOrderStatus(@PathVariable Long id, @RequestParam Order.OrderStatus status) {
         Order order = orderService.getOrderById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Order not found"));
         order.setStatus(status);
-        return ResponseEntity.ok(orderService.saveOrder(order));
+        return ResponseEntity.ok(OrderDTO.from(orderService.saveOrder(order)));
     }
 
     // --- REVIEW MODERATION ---
 
     @GetMapping("/reviews/unapproved")
-    public ResponseEntity<List<Review>> getUnapprovedReviews() {
+    public ResponseEntity<List<AdminReviewDTO>> getUnapprovedReviews() {
         return ResponseEntity.ok(reviewService.getUnapprovedReviews());
     }
 
@@ -6,6 +6,7 @@ import com.anvistudio.boutique.dto.UserSummaryDTO;
 import com.anvistudio.boutique.model.User;
 // import com.anvistudio.boutique.model.VerificationToken.TokenType;
 import com.anvistudio.boutique.security.JwtUtils;
+import com.anvistudio.boutique.security.PasswordHashingBusyException;
 import com.anvistudio.boutique.service.UserService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -61,9 +62,15 @@ public class AuthRestController {
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
+            // Spring Security may wrap it (e.g. in InternalAuthenticationServiceException)
+            PasswordHashingBusyException busy = PasswordHashingBusyException.in(e);
+            if (busy != null) {
+                throw busy; // answered by PasswordHashingBusyAdvice
+            }
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid credentials"));
         }
     }
+
     // @PostMapping("/login")
     // public ResponseEntity<?> authenticateUser(@RequestBody LoginRequest loginRequest) {
     //     try {
@@ -96,6 +103,8 @@ public class AuthRestController {
         try {
             userService.registerCustomer(registrationDTO);
             return ResponseEntity.ok(Map.of("message", "Registration successful! Please check email."));
+        } catch (PasswordHashingBusyException e) {
+            throw e; // answered by PasswordHashingBusyAdvice
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", e.getMessage()));
         }
@@ -211,6 +220,8 @@ public class AuthRestController {
             // Your resetPassword takes (String, String)
             userService.resetPassword(email, password);
             return ResponseEntity.ok(Map.of("message", "Password reset successfully."));
+        } catch (PasswordHashingBusyException e) {
+            throw e; // answered by PasswordHashingBusyAdvice
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", e.getMessage()));
         }
@@ -1,6 +1,6 @@
 package com.anvistudio.boutique.controller;
 
-import com.anvistudio.boutique.model.CartItem;
+import com.anvistudio.boutique.dto.CartSummaryDTO;
 import com.anvistudio.boutique.model.User;
 import com.anvistudio.boutique.service.CartService;
 import com.anvistudio.boutique.service.UserService;
@@ -8,10 +8,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
 /**
  * REST Controller for Shopping Cart operations.
  * Handles adding, updating, and removing items for the React frontend.
@@ -35,19 +31,12 @@ public class CartRestController {
      * Retrieves the current user's shopping cart items and total price.
      */
     @GetMapping
-    public ResponseEntity<?> getCart(Authentication auth) {
+    public ResponseEntity<CartSummaryDTO> getCart(Authentication auth) {
         User user = userService.findUserByUsername(auth.getName())
                 .orElseThrow(() -> new IllegalArgumentException("User not found: " + auth.getName()));
 
-        List<CartItem> items = cartService.getCartItems(user.getId());
-        double total = cartService.getCartTotal(user.getId());
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("items", items);
-        response.put("total", total);
-        response.put("itemCount", items.size());
-
-        return ResponseEntity.ok(response);
+        // Items, total and itemCount from one load of the cart
+        return ResponseEntity.ok(cartService.getCartSummary(user.getId()));
     }
 
     /**
@@ -1,8 +1,12 @@
 package com.anvistudio.boutique.controller;
 
+import com.anvistudio.boutique.dto.CartSummaryDTO;
+import com.anvistudio.boutique.dto.OrderDTO;
 import com.anvistudio.boutique.dto.RegistrationDTO;
+import com.anvistudio.boutique.dto.WishlistItemDTO;
 import com.anvistudio.boutique.model.*;
 import com.anvistudio.boutique.service.*;
+import com.anvistudio.boutique.security.PasswordHashingBusyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -67,6 +71,8 @@ public class CustomerRestController {
                     passwords.get("confirmPassword")
             );
             return ResponseEntity.ok(Map.of("message", "Password updated successfully"));
+        } catch (PasswordHashingBusyException e) {
+            throw e; // answered by PasswordHashingBusyAdvice
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
@@ -75,7 +81,7 @@ public class CustomerRestController {
     // --- ORDER HISTORY ---
 
     @GetMapping("/orders")
-    public ResponseEntity<List<Order>> getMyOrders(Authentication auth) {
+    public ResponseEntity<List<OrderDTO>> getMyOrders(Authentication auth) {
         return ResponseEntity.ok(orderService.getOrdersByUsername(auth.getName()));
     }
 
@@ -117,12 +123,9 @@ public class CustomerRestController {
     // --- CART & WISHLIST ---
 
     @GetMapping("/cart")
-    public ResponseEntity<Map<String, Object>> getCart(Authentication auth) {
+    public ResponseEntity<CartSummaryDTO> getCart(Authentication auth) {
         User user = userService.findUserByUsername(auth.getName()).orElseThrow();
-        List<CartItem> items = cartService.getCartItems(user.getId());
-        double total = cartService.getCartTotal(user.getId());
-        
-        return ResponseEntity.ok(Map.of("items", items, "total", total));
+        return ResponseEntity.ok(cartService.getCartSummary(user.getId()));
     }
 
     @PostMapping("/cart/add/{productId}")
@@ -132,9 +135,9 @@ public class CustomerRestController {
     }
 
     @GetMapping("/wishlist")
-    public ResponseEntity<List<Wishlist>> getWishlist(Authentication auth) {
+    public ResponseEntity<List<WishlistItemDTO>> getWishlist(Authentication auth) {
         User user = userService.findUserByUsername(auth.getName()).orElseThrow();
-        return ResponseEntity.ok(wishlistService.getWishlistItems(user.getId()));
+        return ResponseEntity.ok(wishlistService.getWishlistView(user.getId()));
     }
 
     @PostMapping("/wishlist/add/{productId}")
@@ -0,0 +1,26 @@
+package com.anvistudio.boutique.controller;
+
+import com.anvistudio.boutique.security.PasswordHashingBusyException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+
+/**
+ * NEW: The password hashing pool is saturated (see PooledPasswordEncoder): whichever endpoint was
+ * hashing, the client should retry later, not fix its input, so every controller answers
+ * 503 Service Unavailable with Retry-After.
+ */
+@RestControllerAdvice
+public class PasswordHashingBusyAdvice {
+
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<Map<String, String>> passwordHashingBusy(PasswordHashingBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of("error", e.getMessage()));
+    }
+}
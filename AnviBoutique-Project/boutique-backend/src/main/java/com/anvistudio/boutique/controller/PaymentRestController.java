@@ -108,14 +108,6 @@ public class PaymentRestController {
     @GetMapping("/summary")
     public ResponseEntity<?> getCheckoutSummary(Authentication auth) {
         User user = userService.findUserByUsername(auth.getName()).orElseThrow();
-        List<CartItem> items = cartService.getCartItems(user.getId());
-        double total = cartService.getCartTotal(user.getId());
-
-        Map<String, Object> summary = new HashMap<>();
-        summary.put("items", items);
-        summary.put("total", total);
-        summary.put("itemCount", items.size());
-
-        return ResponseEntity.ok(summary);
+        return ResponseEntity.ok(cartService.getCartSummary(user.getId()));
     }
 }
\ No newline at end of file
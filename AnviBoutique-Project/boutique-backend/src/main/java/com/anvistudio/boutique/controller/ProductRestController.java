@@ -1,16 +1,30 @@
 package com.anvistudio.boutique.controller;
 
-import com.anvistudio.boutique.model.Product;
-import com.anvistudio.boutique.model.Review;
+import com.anvistudio.boutique.dto.FacetedProductsDTO;
+import com.anvistudio.boutique.dto.ProductDetailDTO;
+import com.anvistudio.boutique.dto.ProductPage;
+import com.anvistudio.boutique.dto.ProductSummaryDTO;
+import com.anvistudio.boutique.dto.ReviewPage;
+import com.anvistudio.boutique.dto.SuggestionDTO;
+import com.anvistudio.boutique.model.CatalogRevision;
+import com.anvistudio.boutique.service.CatalogFacetService;
+import com.anvistudio.boutique.service.CatalogVersionService;
+import com.anvistudio.boutique.service.ProductDetailService;
 import com.anvistudio.boutique.service.ProductService;
+import com.anvistudio.boutique.service.ProductSuggestService;
 import com.anvistudio.boutique.service.ReviewService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.HashMap;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * REST Controller for the Product catalog.
@@ -23,10 +37,57 @@ public class ProductRestController {
 
     private final ProductService productService;
     private final ReviewService reviewService;
+    private final ProductSuggestService productSuggestService;
+    private final CatalogFacetService catalogFacetService;
+    private final ProductDetailService productDetailService;
+    private final CatalogVersionService catalogVersionService;
 
-    public ProductRestController(ProductService productService, ReviewService reviewService) {
+    @Value("${app.http.catalog-max-age:60s}")
+    private Duration catalogMaxAge;
+
+    @Value("${app.http.categories-max-age:1d}")
+    private Duration categoriesMaxAge;
+
+    @Value("${app.catalog.max-page-size:100}")
+    private int maxPageSize;
+
+    public ProductRestController(ProductService productService, ReviewService reviewService,
+                                 ProductSuggestService productSuggestService, CatalogFacetService catalogFacetService,
+                                 ProductDetailService productDetailService, CatalogVersionService catalogVersionService) {
         this.productService = productService;
         this.reviewService = reviewService;
+        this.productSuggestService = productSuggestService;
+        this.catalogFacetService = catalogFacetService;
+        this.productDetailService = productDetailService;
+        this.catalogVersionService = catalogVersionService;
+    }
+
+    /**
+     * NEW: Conditional GET for responses that depend only on the catalog. The ETag is the catalog
+     * version (plus a per-endpoint tag) and Last-Modified its timestamp; both are checked against
+     * If-None-Match / If-Modified-Since before the body is built, so a revalidation loads no entities.
+     * checkNotModified also writes the ETag and Last-Modified response headers. Error responses (404, 400)
+     * are marked no-store so no cache keeps them.
+     */
+    private <T> ResponseEntity<T> catalogConditional(WebRequest request, String tag, Supplier<ResponseEntity<T>> response) {
+        Optional<CatalogRevision> revision = catalogVersionService.getCurrent();
+        if (revision.isEmpty()) {
+            return response.get();
+        }
+        String etag = tag + "-v" + revision.get().getVersion();
+        if (request.checkNotModified(etag, revision.get().getUpdatedAt().getTime())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(catalogCacheControl()).build();
+        }
+        ResponseEntity<T> built = response.get();
+        if (!built.getStatusCode().is2xxSuccessful()) {
+            return ResponseEntity.status(built.getStatusCode()).cacheControl(CacheControl.noStore()).body(built.getBody());
+        }
+        return ResponseEntity.status(built.getStatusCode()).cacheControl(catalogCacheControl()).body(built.getBody());
+    }
+
+    // Shared caches may keep catalog responses briefly, then must revalidate with the ETag
+    private CacheControl catalogCacheControl() {
+        return CacheControl.maxAge(catalogMaxAge).cachePublic().mustRevalidate();
     }
 
     /**
@@ -34,19 +95,68 @@ public class ProductRestController {
      * Returns a filtered and sorted list of products.
      */
     @GetMapping
-    public ResponseEntity<List<Product>> getFilteredProducts(
+    public ResponseEntity<List<ProductSummaryDTO>> getFilteredProducts(
             @RequestParam(required = false) String category,
             @RequestParam(defaultValue = "latest") String sortBy,
             @RequestParam(required = false) Double minPrice,
             @RequestParam(required = false) Double maxPrice,
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String color,
-            @RequestParam(required = false) String keyword) {
+            @RequestParam(required = false) String keyword,
+            WebRequest request) {
 
-        List<Product> products = productService.getFilteredProducts(
-                category, sortBy, minPrice, maxPrice, status, color, keyword);
-        
-        return ResponseEntity.ok(products);
+        return catalogConditional(request, "products", () -> ResponseEntity.ok(productService.getFilteredProducts(
+                category, sortBy, minPrice, maxPrice, status, color, keyword)));
+    }
+
+    /**
+     * GET /api/products/page
+     * Cursor-paginated version of GET /api/products. Accepts the same filters plus
+     * 'cursor' (the nextCursor of the previous page) and 'size'.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<?> getFilteredProductsPage(
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "latest") String sortBy,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String color,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            WebRequest request) {
+        return catalogConditional(request, "page", () -> {
+            try {
+                ProductPage page = productService.getFilteredProductsPage(
+                        category, sortBy, minPrice, maxPrice, status, color, keyword, cursor, size);
+                return ResponseEntity.<Object>ok(page);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.<Object>badRequest().body(Map.of("error", e.getMessage()));
+            }
+        });
+    }
+
+    /**
+     * GET /api/products/facets
+     * Returns one page of filtered products together with the sidebar counts per
+     * category, color, stock status and price bucket, computed in a single pass.
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<FacetedProductsDTO> getFacetedProducts(
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "latest") String sortBy,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String color,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "24") int size,
+            WebRequest request) {
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        return catalogConditional(request, "facets", () -> ResponseEntity.ok(catalogFacetService.getFacetedProducts(
+                category, sortBy, minPrice, maxPrice, status, color, keyword, page, pageSize)));
     }
 
     /**
@@ -54,8 +164,8 @@ public class ProductRestController {
      * Returns the top 8 latest products for the homepage.
      */
     @GetMapping("/featured")
-    public ResponseEntity<List<Product>> getFeaturedProducts() {
-        return ResponseEntity.ok(productService.getDisplayableProducts());
+    public ResponseEntity<List<ProductSummaryDTO>> getFeaturedProducts(WebRequest request) {
+        return catalogConditional(request, "featured", () -> ResponseEntity.ok(productService.getDisplayableProducts()));
     }
 
     /**
@@ -63,31 +173,38 @@ public class ProductRestController {
      * Returns individual product details including reviews and average ratings.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<?> getProductDetail(@PathVariable Long id) {
-        Optional<Product> productOptional = productService.getProductById(id);
-
-        if (productOptional.isEmpty() || !productOptional.get().getIsAvailable()) {
-            return ResponseEntity.notFound().build();
-        }
-
-        Product product = productOptional.get();
-        List<Review> reviews = reviewService.getApprovedReviewsForProduct(id);
-        double averageRating = reviewService.getAverageRating(id);
-        long reviewCount = reviewService.getReviewCount(id);
-
-        // Build a combined response object for React
-        Map<String, Object> response = new HashMap<>();
-        response.put("product", product);
-        response.put("reviews", reviews);
-        response.put("averageRating", averageRating);
-        response.put("reviewCount", reviewCount);
-
-        // Fetch related products (Category-based)
-        List<Product> related = productService.getProductsByCategoryOrAll(product.getCategory());
-        related.removeIf(p -> p.getId().equals(id));
-        response.put("relatedProducts", related.subList(0, Math.min(related.size(), 4)));
+    public ResponseEntity<ProductDetailDTO> getProductDetail(@PathVariable Long id, WebRequest request) {
+        return catalogConditional(request, "product-" + id, () -> {
+            // Product (with rating aggregates) first; reviews and related products only for a visible product
+            Optional<ProductDetailDTO> detail = productDetailService.getProductDetail(id);
+            if (detail.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(detail.get());
+        });
+    }
 
-        return ResponseEntity.ok(response);
+    /**
+     * GET /api/products/{id}/reviews
+     * Cursor-paginated approved reviews of a product. 'sort' is newest (default), highest or lowest;
+     * pass the previous page's nextCursor (or the detail response's reviewsNextCursor) as 'cursor'.
+     */
+    @GetMapping("/{id}/reviews")
+    public ResponseEntity<?> getProductReviews(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "newest") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            WebRequest request) {
+        // Approving, editing or deleting an approved review bumps the catalog version too
+        return catalogConditional(request, "reviews-" + id, () -> {
+            try {
+                ReviewPage page = reviewService.getApprovedReviewsPage(id, sort, cursor, size);
+                return ResponseEntity.<Object>ok(page);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.<Object>badRequest().body(Map.of("error", e.getMessage()));
+            }
+        });
     }
 
     /**
@@ -95,11 +212,24 @@ public class ProductRestController {
      * Utility endpoint to get the list of available categories for filters.
      */
     @GetMapping("/categories")
-    public ResponseEntity<String[]> getCategories() {
-        return ResponseEntity.ok(new String[]{
-                "Sarees", "Lehengas", "Kurtis", "Long Frocks", "Mom & Me", "Crop Top – Skirts",
-                "Handlooms", "Casual Frocks", "Ready To Wear", "Dupattas", "Kids wear",
-                "Dress Material", "Blouses", "Fabrics"
-        });
+    public ResponseEntity<String[]> getCategories(WebRequest request) {
+        // The list is fixed at build time, so its hash is a stable ETag
+        String etag = "categories-" + Integer.toHexString(ProductService.CATEGORIES.hashCode());
+        CacheControl cacheControl = CacheControl.maxAge(categoriesMaxAge).cachePublic();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().cacheControl(cacheControl).body(ProductService.CATEGORIES.toArray(new String[0]));
+    }
+
+    /**
+     * GET /api/products/suggest?q=
+     * Typeahead completions (product names, tags and categories) for the search box,
+     * served from memory and ranked by popularity.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDTO>> suggest(@RequestParam(name = "q", defaultValue = "") String query,
+                                                       @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(productSuggestService.suggest(query, limit));
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,7 @@
 package com.anvistudio.boutique.controller;
 
+import com.anvistudio.boutique.dto.WishlistItemDTO;
 import com.anvistudio.boutique.model.User;
-import com.anvistudio.boutique.model.Wishlist;
 import com.anvistudio.boutique.service.UserService;
 import com.anvistudio.boutique.service.WishlistService;
 import org.springframework.http.ResponseEntity;
@@ -32,11 +32,11 @@ public class WishlistRestController {
      * Retrieves all items in the authenticated user's wishlist.
      */
     @GetMapping
-    public ResponseEntity<List<Wishlist>> getWishlist(Authentication auth) {
+    public ResponseEntity<List<WishlistItemDTO>> getWishlist(Authentication auth) {
         User user = userService.findUserByUsername(auth.getName())
                 .orElseThrow(() -> new IllegalArgumentException("User not found: " + auth.getName()));
         
-        return ResponseEntity.ok(wishlistService.getWishlistItems(user.getId()));
+        return ResponseEntity.ok(wishlistService.getWishlistView(user.getId()));
     }
 
     /**
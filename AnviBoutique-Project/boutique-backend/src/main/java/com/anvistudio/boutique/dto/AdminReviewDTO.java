@@ -0,0 +1,51 @@
+package com.anvistudio.boutique.dto;
+
+import java.util.Date;
+
+/**
+ * A review awaiting moderation, with the product and author it belongs to flattened in
+ * (one joined query instead of loading the LAZY user/product per review).
+ */
+public class AdminReviewDTO {
+
+    private Long id;
+    private Integer rating;
+    private String comment;
+    private Date datePosted;
+    private Long productId;
+    private String productName;
+    private String username;
+
+    public AdminReviewDTO(Long id, Integer rating, String comment, Date datePosted,
+                          Long productId, String productName, String username) {
+        this.id = id;
+        this.rating = rating;
+        this.comment = comment;
+        this.datePosted = datePosted;
+        this.productId = productId;
+        this.productName = productName;
+        this.username = username;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Integer getRating() { return rating; }
+    public void setRating(Integer rating) { this.rating = rating; }
+
+    public String getComment() { return comment; }
+    public void setComment(String comment) { this.comment = comment; }
+
+    public Date getDatePosted() { return datePosted; }
+    public void setDatePosted(Date datePosted) { this.datePosted = datePosted; }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public String getProductName() { return productName; }
+    public void setProductName(String productName) { this.productName = productName; }
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+}
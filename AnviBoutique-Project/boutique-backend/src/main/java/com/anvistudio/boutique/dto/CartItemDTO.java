@@ -0,0 +1,46 @@
+package com.anvistudio.boutique.dto;
+
+import com.anvistudio.boutique.model.CartItem;
+
+import java.util.Date;
+
+/**
+ * One cart line for the React cart page: the product card plus quantity and line total.
+ */
+public class CartItemDTO {
+
+    private Long id;
+    private Integer quantity;
+    private Date dateAdded;
+    private double totalPrice;
+    private ProductSummaryDTO product;
+
+    public CartItemDTO(Long id, Integer quantity, Date dateAdded, double totalPrice, ProductSummaryDTO product) {
+        this.id = id;
+        this.quantity = quantity;
+        this.dateAdded = dateAdded;
+        this.totalPrice = totalPrice;
+        this.product = product;
+    }
+
+    public static CartItemDTO from(CartItem item) {
+        return new CartItemDTO(item.getId(), item.getQuantity(), item.getDateAdded(), item.getTotalPrice(),
+                ProductSummaryDTO.from(item.getProduct()));
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+
+    public Date getDateAdded() { return dateAdded; }
+    public void setDateAdded(Date dateAdded) { this.dateAdded = dateAdded; }
+
+    public double getTotalPrice() { return totalPrice; }
+    public void setTotalPrice(double totalPrice) { this.totalPrice = totalPrice; }
+
+    public ProductSummaryDTO getProduct() { return product; }
+    public void setProduct(ProductSummaryDTO product) { this.product = product; }
+}
@@ -0,0 +1,30 @@
+package com.anvistudio.boutique.dto;
+
+import java.util.List;
+
+/**
+ * The cart as returned by GET /api/cart, GET /api/customer/cart and GET /api/payment/summary.
+ * Items, total and item count all come from the same single load of the cart.
+ */
+public class CartSummaryDTO {
+
+    private List<CartItemDTO> items;
+    private double total;
+    private int itemCount;
+
+    public CartSummaryDTO(List<CartItemDTO> items, double total) {
+        this.items = items;
+        this.total = total;
+        this.itemCount = items.size();
+    }
+
+    // Getters and Setters
+    public List<CartItemDTO> getItems() { return items; }
+    public void setItems(List<CartItemDTO> items) { this.items = items; }
+
+    public double getTotal() { return total; }
+    public void setTotal(double total) { this.total = total; }
+
+    public int getItemCount() { return itemCount; }
+    public void setItemCount(int itemCount) { this.itemCount = itemCount; }
+}
@@ -0,0 +1,93 @@
+package com.anvistudio.boutique.dto;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Keyset position inside the paginated product catalog.
+ * Holds the sort key value (dateCreated or discounted price) and id of the last product on a page,
+ * and is serialized to an opaque URL-safe string for the React frontend.
+ */
+public class CatalogCursor {
+
+    public static final String LATEST = "latest";
+    public static final String OLDEST = "oldest";
+    public static final String PRICE_ASC = "priceAsc";
+    public static final String PRICE_DESC = "priceDesc";
+
+    private final String sortBy;
+    private final Date dateCreated;
+    private final BigDecimal price;
+    private final Long id;
+
+    private CatalogCursor(String sortBy, Date dateCreated, BigDecimal price, Long id) {
+        this.sortBy = sortBy;
+        this.dateCreated = dateCreated;
+        this.price = price;
+        this.id = id;
+    }
+
+    /**
+     * Maps a requested sort key onto one of the four keyset orders (unknown/empty keys mean "latest").
+     */
+    public static String normalizeSort(String sortBy) {
+        if (OLDEST.equals(sortBy) || PRICE_ASC.equals(sortBy) || PRICE_DESC.equals(sortBy)) {
+            return sortBy;
+        }
+        return LATEST;
+    }
+
+    /**
+     * Builds the cursor pointing just past the given product in the given sort order.
+     */
+    public static CatalogCursor after(String sortBy, ProductSummaryDTO product) {
+        String sortKey = normalizeSort(sortBy);
+        if (isPriceSort(sortKey)) {
+            return new CatalogCursor(sortKey, null, product.getDiscountedPrice(), product.getId());
+        }
+        return new CatalogCursor(sortKey, product.getDateCreated(), null, product.getId());
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode()}.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    public static CatalogCursor decode(String encoded) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid page cursor.");
+            }
+            String sortKey = normalizeSort(parts[0]);
+            Long id = Long.valueOf(parts[2]);
+            if (isPriceSort(sortKey)) {
+                return new CatalogCursor(sortKey, null, new BigDecimal(parts[1]), id);
+            }
+            return new CatalogCursor(sortKey, new Date(Long.parseLong(parts[1])), null, id);
+        } catch (IllegalArgumentException e) { // also covers NumberFormatException
+            throw new IllegalArgumentException("Invalid page cursor.", e);
+        }
+    }
+
+    /**
+     * Serializes the cursor as base64url("sortBy|key|id").
+     */
+    public String encode() {
+        String key = isPriceSort(sortBy) ? price.toPlainString() : String.valueOf(dateCreated.getTime());
+        String raw = sortBy + "|" + key + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static boolean isPriceSort(String sortBy) {
+        return PRICE_ASC.equals(sortBy) || PRICE_DESC.equals(sortBy);
+    }
+
+    // Getters
+    public String getSortBy() { return sortBy; }
+    public Date getDateCreated() { return dateCreated; }
+    public BigDecimal getPrice() { return price; }
+    public Long getId() { return id; }
+}
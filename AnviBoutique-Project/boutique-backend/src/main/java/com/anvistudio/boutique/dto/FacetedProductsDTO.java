@@ -0,0 +1,48 @@
+package com.anvistudio.boutique.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of catalog results together with the counts shown next to each filter option.
+ * Each facet is counted with every other active filter applied but its own ignored,
+ * so the sidebar shows how many results selecting that option would give.
+ */
+public class FacetedProductsDTO {
+
+    private List<ProductSummaryDTO> items;
+    private long total;
+    private Map<String, Long> categories;
+    private Map<String, Long> colors;
+    private Map<String, Long> statuses;
+    private Map<String, Long> priceBuckets;
+
+    public FacetedProductsDTO(List<ProductSummaryDTO> items, long total, Map<String, Long> categories,
+                              Map<String, Long> colors, Map<String, Long> statuses, Map<String, Long> priceBuckets) {
+        this.items = items;
+        this.total = total;
+        this.categories = categories;
+        this.colors = colors;
+        this.statuses = statuses;
+        this.priceBuckets = priceBuckets;
+    }
+
+    // Getters and Setters
+    public List<ProductSummaryDTO> getItems() { return items; }
+    public void setItems(List<ProductSummaryDTO> items) { this.items = items; }
+
+    public long getTotal() { return total; }
+    public void setTotal(long total) { this.total = total; }
+
+    public Map<String, Long> getCategories() { return categories; }
+    public void setCategories(Map<String, Long> categories) { this.categories = categories; }
+
+    public Map<String, Long> getColors() { return colors; }
+    public void setColors(Map<String, Long> colors) { this.colors = colors; }
+
+    public Map<String, Long> getStatuses() { return statuses; }
+    public void setStatuses(Map<String, Long> statuses) { this.statuses = statuses; }
+
+    public Map<String, Long> getPriceBuckets() { return priceBuckets; }
+    public void setPriceBuckets(Map<String, Long> priceBuckets) { this.priceBuckets = priceBuckets; }
+}
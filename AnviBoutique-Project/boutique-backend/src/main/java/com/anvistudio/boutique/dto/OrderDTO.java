@@ -0,0 +1,54 @@
+package com.anvistudio.boutique.dto;
+
+import com.anvistudio.boutique.model.Order;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Order as returned to the customer order history and the admin dashboard.
+ * Leaves out the LAZY user association, which Jackson would otherwise load (or fail on) per order.
+ */
+public class OrderDTO {
+
+    private Long id;
+    private Date orderDate;
+    private BigDecimal totalAmount;
+    private Order.OrderStatus status;
+    private String shippingAddressSnapshot;
+    private String orderItemsSnapshot;
+
+    public OrderDTO(Long id, Date orderDate, BigDecimal totalAmount, Order.OrderStatus status,
+                    String shippingAddressSnapshot, String orderItemsSnapshot) {
+        this.id = id;
+        this.orderDate = orderDate;
+        this.totalAmount = totalAmount;
+        this.status = status;
+        this.shippingAddressSnapshot = shippingAddressSnapshot;
+        this.orderItemsSnapshot = orderItemsSnapshot;
+    }
+
+    public static OrderDTO from(Order order) {
+        return new OrderDTO(order.getId(), order.getOrderDate(), order.getTotalAmount(), order.getStatus(),
+                order.getShippingAddressSnapshot(), order.getOrderItemsSnapshot());
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Date getOrderDate() { return orderDate; }
+    public void setOrderDate(Date orderDate) { this.orderDate = orderDate; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+
+    public Order.OrderStatus getStatus() { return status; }
+    public void setStatus(Order.OrderStatus status) { this.status = status; }
+
+    public String getShippingAddressSnapshot() { return shippingAddressSnapshot; }
+    public void setShippingAddressSnapshot(String shippingAddressSnapshot) { this.shippingAddressSnapshot = shippingAddressSnapshot; }
+
+    public String getOrderItemsSnapshot() { return orderItemsSnapshot; }
+    public void setOrderItemsSnapshot(String orderItemsSnapshot) { this.orderItemsSnapshot = orderItemsSnapshot; }
+}
@@ -0,0 +1,50 @@
+package com.anvistudio.boutique.dto;
+
+import com.anvistudio.boutique.model.Product;
+
+import java.util.List;
+
+/**
+ * Read model for the product detail page (GET /api/products/{id}).
+ * Serializes to the same JSON shape the React ProductDetailPage already consumes; 'reviews' holds only
+ * the first page of approved reviews (newest first), the rest is loaded from GET /api/products/{id}/reviews
+ * starting at reviewsNextCursor.
+ */
+public class ProductDetailDTO {
+
+    private Product product;
+    private List<ReviewDTO> reviews;
+    private String reviewsNextCursor;
+    private double averageRating;
+    private long reviewCount;
+    private List<ProductSummaryDTO> relatedProducts;
+
+    public ProductDetailDTO(Product product, ReviewPage firstReviews, double averageRating, long reviewCount,
+                            List<ProductSummaryDTO> relatedProducts) {
+        this.product = product;
+        this.reviews = firstReviews.getItems();
+        this.reviewsNextCursor = firstReviews.getNextCursor();
+        this.averageRating = averageRating;
+        this.reviewCount = reviewCount;
+        this.relatedProducts = relatedProducts;
+    }
+
+    // Getters and Setters
+    public Product getProduct() { return product; }
+    public void setProduct(Product product) { this.product = product; }
+
+    public List<ReviewDTO> getReviews() { return reviews; }
+    public void setReviews(List<ReviewDTO> reviews) { this.reviews = reviews; }
+
+    public String getReviewsNextCursor() { return reviewsNextCursor; }
+    public void setReviewsNextCursor(String reviewsNextCursor) { this.reviewsNextCursor = reviewsNextCursor; }
+
+    public double getAverageRating() { return averageRating; }
+    public void setAverageRating(double averageRating) { this.averageRating = averageRating; }
+
+    public long getReviewCount() { return reviewCount; }
+    public void setReviewCount(long reviewCount) { this.reviewCount = reviewCount; }
+
+    public List<ProductSummaryDTO> getRelatedProducts() { return relatedProducts; }
+    public void setRelatedProducts(List<ProductSummaryDTO> relatedProducts) { this.relatedProducts = relatedProducts; }
+}
@@ -0,0 +1,30 @@
+package com.anvistudio.boutique.dto;
+
+import java.util.List;
+
+/**
+ * One page of the cursor-paginated product catalog.
+ * Pass nextCursor back as the 'cursor' parameter to fetch the following page; it is null on the last page.
+ */
+public class ProductPage {
+
+    private List<ProductSummaryDTO> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public ProductPage(List<ProductSummaryDTO> items, String nextCursor, boolean hasMore) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    // Getters and Setters
+    public List<ProductSummaryDTO> getItems() { return items; }
+    public void setItems(List<ProductSummaryDTO> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
@@ -0,0 +1,124 @@
+package com.anvistudio.boutique.dto;
+
+import com.anvistudio.boutique.model.Product;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Card view of a product for catalog lists, related products, the cart and the wishlist.
+ * Built directly by projection queries (see ProductRepository.SUMMARY_SELECT), so list pages never
+ * read the TEXT columns (description, delivery policy, additional information).
+ * JSON property names match the Product entity, so the React cards work with either.
+ */
+public class ProductSummaryDTO {
+
+    private Long id;
+    private String name;
+    private String category;
+    private String imageUrl;
+    private String productColor;
+    private BigDecimal price;
+    private Integer discountPercent;
+    private BigDecimal discountedPrice;
+    private Integer stockQuantity;
+    private Boolean isAvailable;
+    private Date dateCreated;
+    private Long ratingSum;
+    private Integer ratingCount;
+
+    public ProductSummaryDTO(Long id, String name, String category, String imageUrl, String productColor,
+                             BigDecimal price, Integer discountPercent, BigDecimal discountedPrice,
+                             Integer stockQuantity, Boolean isAvailable, Date dateCreated,
+                             Long ratingSum, Integer ratingCount) {
+        this.id = id;
+        this.name = name;
+        this.category = category;
+        this.imageUrl = imageUrl;
+        this.productColor = productColor;
+        this.price = price;
+        this.discountPercent = discountPercent;
+        this.discountedPrice = discountedPrice;
+        this.stockQuantity = stockQuantity;
+        this.isAvailable = isAvailable;
+        this.dateCreated = dateCreated;
+        this.ratingSum = ratingSum;
+        this.ratingCount = ratingCount;
+    }
+
+    /**
+     * Maps an already loaded entity (e.g. the product of a cart line).
+     */
+    public static ProductSummaryDTO from(Product product) {
+        return new ProductSummaryDTO(product.getId(), product.getName(), product.getCategory(), product.getImageUrl(),
+                product.getProductColor(), product.getPrice(), product.getDiscountPercent(),
+                product.getDiscountedPrice(), product.getStockQuantity(), product.getIsAvailable(),
+                product.getDateCreated(), product.getRatingSum(), product.getRatingCount());
+    }
+
+    /**
+     * An independent copy, e.g. of a cached summary before handing it to a caller.
+     */
+    public ProductSummaryDTO copy() {
+        return new ProductSummaryDTO(id, name, category, imageUrl, productColor, price, discountPercent,
+                discountedPrice, stockQuantity, isAvailable, dateCreated == null ? null : new Date(dateCreated.getTime()),
+                ratingSum, ratingCount);
+    }
+
+    /**
+     * Average approved rating, 0.0 when the product has no approved reviews.
+     */
+    public double getAverageRating() {
+        if (ratingCount == null || ratingCount == 0 || ratingSum == null) {
+            return 0.0;
+        }
+        return (double) ratingSum / ratingCount;
+    }
+
+    /**
+     * Clearance Sale item (50% discount or more), as Product.isClearance().
+     */
+    public boolean isClearance() {
+        return discountPercent != null && discountPercent >= 50;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public String getImageUrl() { return imageUrl; }
+    public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+
+    public String getProductColor() { return productColor; }
+    public void setProductColor(String productColor) { this.productColor = productColor; }
+
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
+
+    public Integer getDiscountPercent() { return discountPercent; }
+    public void setDiscountPercent(Integer discountPercent) { this.discountPercent = discountPercent; }
+
+    public BigDecimal getDiscountedPrice() { return discountedPrice; }
+    public void setDiscountedPrice(BigDecimal discountedPrice) { this.discountedPrice = discountedPrice; }
+
+    public Integer getStockQuantity() { return stockQuantity; }
+    public void setStockQuantity(Integer stockQuantity) { this.stockQuantity = stockQuantity; }
+
+    public Boolean getIsAvailable() { return isAvailable; }
+    public void setIsAvailable(Boolean isAvailable) { this.isAvailable = isAvailable; }
+
+    public Date getDateCreated() { return dateCreated; }
+    public void setDateCreated(Date dateCreated) { this.dateCreated = dateCreated; }
+
+    public Long getRatingSum() { return ratingSum; }
+    public void setRatingSum(Long ratingSum) { this.ratingSum = ratingSum; }
+
+    public Integer getRatingCount() { return ratingCount; }
+    public void setRatingCount(Integer ratingCount) { this.ratingCount = ratingCount; }
+}
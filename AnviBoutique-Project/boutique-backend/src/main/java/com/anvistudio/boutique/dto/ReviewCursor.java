@@ -0,0 +1,75 @@
+package com.anvistudio.boutique.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position inside a product's review list: the sort key (datePosted millis or rating) and id
+ * of the last review on a page, serialized to an opaque URL-safe string.
+ * Every order breaks ties by id descending.
+ */
+public class ReviewCursor {
+
+    public static final String NEWEST = "newest";
+    public static final String HIGHEST = "highest";
+    public static final String LOWEST = "lowest";
+
+    private final String sort;
+    private final long key;
+    private final Long id;
+
+    private ReviewCursor(String sort, long key, Long id) {
+        this.sort = sort;
+        this.key = key;
+        this.id = id;
+    }
+
+    /**
+     * Maps a requested sort onto one of the three review orders (unknown/empty means "newest").
+     */
+    public static String normalizeSort(String sort) {
+        if (HIGHEST.equals(sort) || LOWEST.equals(sort)) {
+            return sort;
+        }
+        return NEWEST;
+    }
+
+    /**
+     * Builds the cursor pointing just past the given review in the given sort order.
+     */
+    public static ReviewCursor after(String sort, ReviewDTO review) {
+        String sortKey = normalizeSort(sort);
+        long key = NEWEST.equals(sortKey) ? review.getDatePosted().getTime() : review.getRating();
+        return new ReviewCursor(sortKey, key, review.getId());
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode()}.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    public static ReviewCursor decode(String encoded) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid review cursor.");
+            }
+            return new ReviewCursor(normalizeSort(parts[0]), Long.parseLong(parts[1]), Long.valueOf(parts[2]));
+        } catch (IllegalArgumentException e) { // also covers NumberFormatException
+            throw new IllegalArgumentException("Invalid review cursor.", e);
+        }
+    }
+
+    /**
+     * Serializes the cursor as base64url("sort|key|id").
+     */
+    public String encode() {
+        String raw = sort + "|" + key + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Getters
+    public String getSort() { return sort; }
+    public long getKey() { return key; }
+    public Long getId() { return id; }
+}
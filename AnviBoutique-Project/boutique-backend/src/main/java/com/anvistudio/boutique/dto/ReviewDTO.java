@@ -0,0 +1,35 @@
+package com.anvistudio.boutique.dto;
+
+import java.util.Date;
+
+/**
+ * Public view of an approved review, as listed on the product detail page.
+ * Carries only what the storefront renders (no user or product entity graph).
+ */
+public class ReviewDTO {
+
+    private Long id;
+    private Integer rating;
+    private String comment;
+    private Date datePosted;
+
+    public ReviewDTO(Long id, Integer rating, String comment, Date datePosted) {
+        this.id = id;
+        this.rating = rating;
+        this.comment = comment;
+        this.datePosted = datePosted;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Integer getRating() { return rating; }
+    public void setRating(Integer rating) { this.rating = rating; }
+
+    public String getComment() { return comment; }
+    public void setComment(String comment) { this.comment = comment; }
+
+    public Date getDatePosted() { return datePosted; }
+    public void setDatePosted(Date datePosted) { this.datePosted = datePosted; }
+}
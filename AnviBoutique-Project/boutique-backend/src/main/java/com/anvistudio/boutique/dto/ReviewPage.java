@@ -0,0 +1,30 @@
+package com.anvistudio.boutique.dto;
+
+import java.util.List;
+
+/**
+ * One page of a product's approved reviews.
+ * Pass nextCursor back as the 'cursor' parameter to fetch the following page; it is null on the last page.
+ */
+public class ReviewPage {
+
+    private List<ReviewDTO> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public ReviewPage(List<ReviewDTO> items, String nextCursor, boolean hasMore) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    // Getters and Setters
+    public List<ReviewDTO> getItems() { return items; }
+    public void setItems(List<ReviewDTO> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
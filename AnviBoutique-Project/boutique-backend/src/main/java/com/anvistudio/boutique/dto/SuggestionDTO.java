@@ -0,0 +1,23 @@
+package com.anvistudio.boutique.dto;
+
+/**
+ * A single typeahead completion for the storefront search box.
+ * Type is "product", "tag" or "category" so React can render it differently.
+ */
+public class SuggestionDTO {
+
+    private String text;
+    private String type;
+
+    public SuggestionDTO(String text, String type) {
+        this.text = text;
+        this.type = type;
+    }
+
+    // Getters and Setters
+    public String getText() { return text; }
+    public void setText(String text) { this.text = text; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+}
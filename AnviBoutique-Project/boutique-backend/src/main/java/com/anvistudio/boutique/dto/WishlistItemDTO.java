@@ -0,0 +1,35 @@
+package com.anvistudio.boutique.dto;
+
+import com.anvistudio.boutique.model.Wishlist;
+
+import java.util.Date;
+
+/**
+ * One wishlist entry for the React wishlist page.
+ */
+public class WishlistItemDTO {
+
+    private Long id;
+    private Date dateAdded;
+    private ProductSummaryDTO product;
+
+    public WishlistItemDTO(Long id, Date dateAdded, ProductSummaryDTO product) {
+        this.id = id;
+        this.dateAdded = dateAdded;
+        this.product = product;
+    }
+
+    public static WishlistItemDTO from(Wishlist item) {
+        return new WishlistItemDTO(item.getId(), item.getDateAdded(), ProductSummaryDTO.from(item.getProduct()));
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Date getDateAdded() { return dateAdded; }
+    public void setDateAdded(Date dateAdded) { this.dateAdded = dateAdded; }
+
+    public ProductSummaryDTO getProduct() { return product; }
+    public void setProduct(ProductSummaryDTO product) { this.product = product; }
+}
@@ -0,0 +1,34 @@
+package com.anvistudio.boutique.event;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Handler registry shared by the InvalidationBus implementations.
+ */
+abstract class AbstractInvalidationBus implements InvalidationBus {
+
+    private final Map<String, List<Consumer<String>>> handlers = new ConcurrentHashMap<>();
+
+    @Override
+    public void subscribe(String region, Consumer<String> handler) {
+        handlers.computeIfAbsent(region, r -> new CopyOnWriteArrayList<>()).add(handler);
+    }
+
+    /**
+     * Hands a message received from another node to this node's handlers.
+     * A failing handler is logged and does not stop the others.
+     */
+    protected void dispatch(String region, String key) {
+        for (Consumer<String> handler : handlers.getOrDefault(region, List.of())) {
+            try {
+                handler.accept(key);
+            } catch (RuntimeException e) {
+                System.err.println("CACHE ERROR: Invalidation handler for " + region + ":" + key + " failed: " + e.getMessage());
+            }
+        }
+    }
+}
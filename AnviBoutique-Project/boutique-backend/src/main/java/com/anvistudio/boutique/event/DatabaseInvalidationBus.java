@@ -0,0 +1,108 @@
+package com.anvistudio.boutique.event;
+
+import com.anvistudio.boutique.model.CacheInvalidation;
+import com.anvistudio.boutique.repository.CacheInvalidationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Default InvalidationBus: messages are rows in the cache_invalidations outbox table, written in the
+ * publisher's transaction (so a rolled-back change is never broadcast) and polled by every node.
+ * Works for any number of instances sharing the MySQL database, on one host or across a LAN.
+ *
+ * Polling follows the auto-increment id, never the createdAt stamp (set by the publisher's clock when the
+ * row is built, possibly long before it commits). IDENTITY values can commit out of order, so an id missing
+ * below the highest one seen is a gap: it is either still in flight or was rolled back. Every poll re-reads
+ * from the lowest open gap; a gap still empty after app.cache.bus.gap-timeout-ms is given up. Rows older
+ * than the retention period are purged.
+ */
+@Service
+@ConditionalOnProperty(name = "app.cache.bus.type", havingValue = "database", matchIfMissing = true)
+public class DatabaseInvalidationBus extends AbstractInvalidationBus {
+
+    private final CacheInvalidationRepository invalidationRepository;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // Poll state, only touched by the (single) polling thread
+    private long watermark = -1;                                // every id <= watermark is handled or given up
+    private long highestSeen = -1;
+    private final Set<Long> handledIds = new HashSet<>();        // handled ids above the watermark
+    private final TreeMap<Long, Long> openGaps = new TreeMap<>(); // missing id -> when it was first missed
+
+    @Value("${app.cache.bus.gap-timeout-ms:60000}")
+    private long gapTimeoutMs;
+
+    @Value("${app.cache.bus.retention-ms:3600000}")
+    private long retentionMs;
+
+    private long lastPurge = System.currentTimeMillis();
+
+    public DatabaseInvalidationBus(CacheInvalidationRepository invalidationRepository) {
+        this.invalidationRepository = invalidationRepository;
+    }
+
+    @Override
+    public void publish(String region, String key) {
+        // Joins the caller's transaction when there is one
+        invalidationRepository.save(new CacheInvalidation(region, key, nodeId));
+    }
+
+    /**
+     * Delivers messages published by other nodes since the previous poll, including ones whose
+     * transaction committed after higher ids were already seen.
+     */
+    @Scheduled(fixedDelayString = "${app.cache.bus.poll-interval-ms:1000}")
+    public void poll() {
+        long pollStarted = System.currentTimeMillis();
+        try {
+            if (watermark < 0) {
+                // Messages from before startup are irrelevant
+                watermark = invalidationRepository.findMaxId();
+                highestSeen = watermark;
+            }
+
+            for (CacheInvalidation message : invalidationRepository.findByIdGreaterThanOrderByIdAsc(watermark)) {
+                long id = message.getId();
+                if (!handledIds.add(id)) {
+                    continue;
+                }
+                openGaps.remove(id);
+                for (long missing = highestSeen + 1; missing < id; missing++) {
+                    openGaps.put(missing, pollStarted);
+                }
+                highestSeen = Math.max(highestSeen, id);
+                if (!nodeId.equals(message.getOriginNode())) {
+                    dispatch(message.getRegion(), message.getCacheKey());
+                }
+            }
+
+            // Long enough for any publishing transaction to commit: the id was rolled back
+            for (Iterator<Map.Entry<Long, Long>> gaps = openGaps.entrySet().iterator(); gaps.hasNext(); ) {
+                Map.Entry<Long, Long> gap = gaps.next();
+                if (pollStarted - gap.getValue() > gapTimeoutMs) {
+                    gaps.remove();
+                }
+            }
+            watermark = openGaps.isEmpty() ? highestSeen : openGaps.firstKey() - 1;
+            handledIds.removeIf(id -> id <= watermark);
+
+            if (pollStarted - lastPurge > 60_000) {
+                invalidationRepository.deleteCreatedBefore(new Date(pollStarted - retentionMs));
+                lastPurge = pollStarted;
+            }
+        } catch (RuntimeException e) {
+            // Keep the watermark: the next poll retries the same messages
+            System.err.println("CACHE ERROR: Polling cache invalidations failed: " + e.getMessage());
+        }
+    }
+}
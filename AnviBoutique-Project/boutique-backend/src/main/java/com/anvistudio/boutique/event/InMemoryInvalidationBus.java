@@ -0,0 +1,59 @@
+package com.anvistudio.boutique.event;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * InvalidationBus that connects "nodes" living in the same JVM. With a single node (the Spring bean)
+ * messages reach nobody; tests create more nodes on the same bus with {@link #joinNode()}.
+ * Delivery is synchronous.
+ */
+@Service
+@ConditionalOnProperty(name = "app.cache.bus.type", havingValue = "memory")
+public class InMemoryInvalidationBus extends AbstractInvalidationBus {
+
+    private final List<InMemoryInvalidationBus> nodes;
+
+    public InMemoryInvalidationBus() {
+        this(new CopyOnWriteArrayList<>());
+    }
+
+    private InMemoryInvalidationBus(List<InMemoryInvalidationBus> nodes) {
+        this.nodes = nodes;
+        nodes.add(this);
+    }
+
+    /**
+     * Creates another node connected to this bus, e.g. to simulate a second application instance.
+     */
+    public InMemoryInvalidationBus joinNode() {
+        return new InMemoryInvalidationBus(nodes);
+    }
+
+    @Override
+    public void publish(String region, String key) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deliver(region, key);
+                }
+            });
+        } else {
+            deliver(region, key);
+        }
+    }
+
+    private void deliver(String region, String key) {
+        for (InMemoryInvalidationBus node : nodes) {
+            if (node != this) {
+                node.dispatch(region, key);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.anvistudio.boutique.event;
+
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts cache invalidations to the other application instances behind the load balancer,
+ * so each node can keep hot entities in local caches without serving stale data.
+ * Local caches on the publishing node are invalidated by the publisher itself (e.g. via
+ * ProductChangedEvent); handlers only receive messages that originated on another node.
+ * Selected with app.cache.bus.type: 'database' (default, outbox table polled by every node)
+ * or 'memory' (single JVM, for tests).
+ */
+public interface InvalidationBus {
+
+    // Key: product id
+    String REGION_PRODUCT = "product";
+    // Key: username (email); published for the old and the new username when it changes
+    String REGION_USER = "user";
+
+    /**
+     * Broadcasts that the entry identified by key in region changed. Inside a transaction the
+     * message is only delivered if the transaction commits.
+     */
+    void publish(String region, String key);
+
+    /**
+     * Registers a handler for invalidations of a region published by other nodes.
+     */
+    void subscribe(String region, Consumer<String> handler);
+}
@@ -0,0 +1,35 @@
+package com.anvistudio.boutique.event;
+
+import com.anvistudio.boutique.model.Product;
+
+/**
+ * Published by ProductService whenever an admin saves or deletes a product.
+ * Listeners that maintain derived catalog state (search index, caches, ...) should use
+ * {@code @TransactionalEventListener} so they only react once the change is committed.
+ */
+public class ProductChangedEvent {
+
+    private final Long productId;
+    private final Product product; // null when the product was deleted
+
+    private ProductChangedEvent(Long productId, Product product) {
+        this.productId = productId;
+        this.product = product;
+    }
+
+    public static ProductChangedEvent saved(Product product) {
+        return new ProductChangedEvent(product.getId(), product);
+    }
+
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(productId, null);
+    }
+
+    public boolean isDeleted() {
+        return product == null;
+    }
+
+    // Getters
+    public Long getProductId() { return productId; }
+    public Product getProduct() { return product; }
+}
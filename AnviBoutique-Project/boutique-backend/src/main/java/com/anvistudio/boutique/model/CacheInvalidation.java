@@ -0,0 +1,44 @@
+package com.anvistudio.boutique.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * A cache invalidation broadcast to the other application instances (see DatabaseInvalidationBus).
+ */
+@Entity
+@Table(name = "cache_invalidations", indexes = {
+        @Index(name = "idx_cache_invalidations_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+public class CacheInvalidation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String region;
+
+    // 'key' is a reserved word in MySQL
+    @Column(name = "cache_key", nullable = false)
+    private String cacheKey;
+
+    // The publishing node, which does not handle its own messages
+    @Column(nullable = false, length = 64)
+    private String originNode;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date createdAt = new Date();
+
+    public CacheInvalidation(String region, String cacheKey, String originNode) {
+        this.region = region;
+        this.cacheKey = cacheKey;
+        this.originNode = originNode;
+    }
+}
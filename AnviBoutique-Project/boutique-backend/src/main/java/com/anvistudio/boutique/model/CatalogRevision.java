@@ -0,0 +1,33 @@
+package com.anvistudio.boutique.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * Single-row catalog version counter, bumped in the same transaction as every change that alters
+ * what the public catalog endpoints return (product save/delete, approved review changes).
+ * Drives the ETag and Last-Modified headers of those endpoints on every instance.
+ */
+@Entity
+@Table(name = "catalog_revision")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogRevision {
+
+    public static final Long SINGLETON_ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date updatedAt;
+}
@@ -25,7 +25,8 @@ public class Customer {
     private String lastName;
 
     // --- NEW REQUIRED FIELD ---
-    @Column(nullable = false)
+    // Unique: phone numbers double as login identifiers (the unique index also serves phone lookups)
+    @Column(nullable = false, unique = true)
     private String phoneNumber;
 
     // --- NEW OPTIONAL/PROGRESSIVE PROFILING FIELDS ---
@@ -0,0 +1,94 @@
+package com.anvistudio.boutique.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * An email waiting in (or processed by) the durable outbound mail queue (see MailQueueService).
+ * Rows are written in the caller's transaction, so mail for a rolled-back change is never sent.
+ */
+@Entity
+@Table(name = "outbound_mail", indexes = {
+        @Index(name = "idx_outbound_mail_due", columnList = "status, lane, next_attempt_at"),
+        @Index(name = "idx_outbound_mail_claim", columnList = "claim_token")
+})
+@Data
+@NoArgsConstructor
+public class OutboundMail {
+
+    /**
+     * PRIORITY (OTPs) and BULK (newsletters, offers) are dispatched by separate workers,
+     * so an OTP is never queued behind a newsletter blast.
+     */
+    public enum Lane {
+        PRIORITY, BULK
+    }
+
+    public enum Status {
+        PENDING, SENDING, SENT, FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Lane lane;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    private String sender;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String body;
+
+    // Optional HTML alternative of the plain-text body
+    @Column(columnDefinition = "MEDIUMTEXT")
+    private String htmlBody;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date nextAttemptAt = new Date();
+
+    // Batch that currently owns the row (status SENDING), and since when
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date claimedAt;
+
+    @Column(length = 1024)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date createdAt = new Date();
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date sentAt;
+
+    public OutboundMail(Lane lane, String sender, String recipient, String subject, String body, String htmlBody) {
+        this.lane = lane;
+        this.sender = sender;
+        this.recipient = recipient;
+        this.subject = subject;
+        this.body = body;
+        this.htmlBody = htmlBody;
+    }
+}
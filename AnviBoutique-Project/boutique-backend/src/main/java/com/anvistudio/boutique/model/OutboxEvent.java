@@ -0,0 +1,73 @@
+package com.anvistudio.boutique.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * A domain event recorded in the transaction that caused it and published by OutboxRelay once that
+ * transaction has committed. Slow side effects (e.g. a sale notification to every subscriber) thus
+ * run outside the admin request, and never happen for a change that was rolled back.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_events_due", columnList = "status, next_attempt_at")
+})
+@Data
+@NoArgsConstructor
+public class OutboxEvent {
+
+    public enum Type {
+        PRODUCT_DISCOUNTED // aggregateId: product id
+    }
+
+    public enum Status {
+        PENDING, PROCESSING, PUBLISHED, FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private Type eventType;
+
+    @Column(nullable = false)
+    private Long aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date nextAttemptAt = new Date();
+
+    // Relay run that currently owns the event (status PROCESSING), and since when
+    @Column(length = 36)
+    private String claimToken;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date claimedAt;
+
+    @Column(length = 1024)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date createdAt = new Date();
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date publishedAt;
+
+    public OutboxEvent(Type eventType, Long aggregateId) {
+        this.eventType = eventType;
+        this.aggregateId = aggregateId;
+    }
+}
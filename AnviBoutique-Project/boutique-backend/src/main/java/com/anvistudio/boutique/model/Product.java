@@ -8,7 +8,9 @@ import java.math.BigDecimal;
 import java.util.Date;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_discounted_price", columnList = "discounted_price")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -34,6 +36,13 @@ public class Product {
     @Column(nullable = false)
     private Integer discountPercent = 0; // Default to 0% discount
 
+    /**
+     * NEW: Persisted copy of getDiscountedPrice() so catalog price filters and sorts can use an index.
+     * Maintained by refreshDiscountedPrice() on every insert/update; never set it directly.
+     */
+    @Column(name = "discounted_price", precision = 38, scale = 2)
+    private BigDecimal discountedPrice;
+
     /**
      * Helper method to calculate the final price after discount.
      * @return The discounted price, or the original price if no discount is applied.
@@ -52,6 +61,15 @@ public class Product {
         // Use setScale to ensure consistent rounding for currency
         return price.multiply(discountFactor).setScale(2, BigDecimal.ROUND_HALF_UP);
     }
+
+    /**
+     * NEW: Keeps the persisted discounted_price column in sync with price and discountPercent.
+     */
+    @PrePersist
+    @PreUpdate
+    public void refreshDiscountedPrice() {
+        this.discountedPrice = getDiscountedPrice();
+    }
     // ****************************************
 
     /**
@@ -113,4 +131,42 @@ public class Product {
     @Column(nullable = false)
     private Boolean isAvailable = true; // Default: visible
 
+    // ===================================
+    // === NEW: DENORMALIZED RATING AGGREGATES (approved reviews only) ===
+    // ===================================
+    // Maintained by ReviewService with atomic UPDATEs (ProductRepository.adjustRatingAggregates)
+    // and re-derived by its reconciliation job. Not updatable through the entity, so an admin save
+    // (whose form does not carry them) never writes them back, stale or not.
+
+    @Column(nullable = false, updatable = false)
+    private Long ratingSum = 0L;
+
+    @Column(nullable = false, updatable = false)
+    private Integer ratingCount = 0;
+
+    // Star histogram: number of approved reviews per rating value
+    @Column(nullable = false, updatable = false)
+    private Integer oneStarCount = 0;
+
+    @Column(nullable = false, updatable = false)
+    private Integer twoStarCount = 0;
+
+    @Column(nullable = false, updatable = false)
+    private Integer threeStarCount = 0;
+
+    @Column(nullable = false, updatable = false)
+    private Integer fourStarCount = 0;
+
+    @Column(nullable = false, updatable = false)
+    private Integer fiveStarCount = 0;
+
+    /**
+     * NEW: Average approved rating, 0.0 when the product has no approved reviews.
+     */
+    public double getAverageRating() {
+        if (ratingCount == null || ratingCount == 0 || ratingSum == null) {
+            return 0.0;
+        }
+        return (double) ratingSum / ratingCount;
+    }
 }
\ No newline at end of file
@@ -10,7 +10,11 @@ import java.util.Date;
  * Entity representing a customer's review and rating for a specific product.
  */
 @Entity
-@Table(name = "product_reviews")
+@Table(name = "product_reviews", indexes = {
+        // NEW: Keyset pagination of a product's approved reviews (see ReviewRepository)
+        @Index(name = "idx_reviews_product_approved_posted", columnList = "product_id, is_approved, date_posted"),
+        @Index(name = "idx_reviews_product_approved_rating", columnList = "product_id, is_approved, rating")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,40 @@
+package com.anvistudio.boutique.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * One sale digest queued for one recipient, remembered so the next digests can skip products the
+ * recipient has already been told about and respect the per-recipient minimum interval.
+ */
+@Entity
+@Table(name = "sale_digest_deliveries", indexes = {
+        @Index(name = "idx_sale_digest_recipient_sent", columnList = "recipient, sent_at")
+})
+@Data
+@NoArgsConstructor
+public class SaleDigestDelivery {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    // Comma-separated ids of the products listed in the digest
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String productIds;
+
+    @Column(name = "sent_at", nullable = false, updatable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date sentAt = new Date();
+
+    public SaleDigestDelivery(String recipient, String productIds) {
+        this.recipient = recipient;
+        this.productIds = productIds;
+    }
+}
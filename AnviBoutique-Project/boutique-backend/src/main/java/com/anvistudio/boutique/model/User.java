@@ -6,7 +6,9 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
 @Entity
-@Table(name = "users") // Use 'users' to avoid potential conflicts with 'user' reserved word
+@Table(name = "users", indexes = { // Use 'users' to avoid potential conflicts with 'user' reserved word
+        @Index(name = "idx_users_recovery_phone", columnList = "recovery_phone_number", unique = true)
+})
 @Data // Lombok for getters, setters, toString, equals, hashCode
 @NoArgsConstructor
 @AllArgsConstructor
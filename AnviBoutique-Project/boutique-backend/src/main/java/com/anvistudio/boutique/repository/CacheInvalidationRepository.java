@@ -0,0 +1,37 @@
+package com.anvistudio.boutique.repository;
+
+import com.anvistudio.boutique.model.CacheInvalidation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Repository for the cache invalidation outbox polled by DatabaseInvalidationBus.
+ */
+public interface CacheInvalidationRepository extends JpaRepository<CacheInvalidation, Long> {
+
+    /**
+     * Messages with an id above the given one, in id order.
+     */
+    List<CacheInvalidation> findByIdGreaterThanOrderByIdAsc(Long id);
+
+    /**
+     * The highest message id, 0 when the table is empty.
+     */
+    @Query("SELECT COALESCE(MAX(c.id), 0) FROM CacheInvalidation c")
+    long findMaxId();
+
+    /**
+     * Purges messages older than the cutoff in one statement.
+     * @return The number of rows deleted.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CacheInvalidation c WHERE c.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") Date cutoff);
+}
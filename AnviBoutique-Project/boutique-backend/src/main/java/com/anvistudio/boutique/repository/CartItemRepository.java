@@ -3,6 +3,8 @@ package com.anvistudio.boutique.repository;
 import com.anvistudio.boutique.model.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying; // NEW
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional; // NEW
 import java.util.List;
 import java.util.Optional;
@@ -14,6 +16,13 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
      */
     List<CartItem> findByUserId(Long userId);
 
+    /**
+     * NEW: Cart items of a user with their products fetched in the same query (oldest line first),
+     * so computing prices or mapping to DTOs does not load each LAZY product separately.
+     */
+    @Query("SELECT c FROM CartItem c JOIN FETCH c.product WHERE c.user.id = :userId ORDER BY c.dateAdded ASC, c.id ASC")
+    List<CartItem> findWithProductByUserId(@Param("userId") Long userId);
+
     /**
      * Finds a specific item in the cart by user ID and product ID.
      */
@@ -0,0 +1,21 @@
+package com.anvistudio.boutique.repository;
+
+import com.anvistudio.boutique.model.CatalogRevision;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+/**
+ * Repository for the single-row catalog version counter.
+ */
+public interface CatalogRevisionRepository extends JpaRepository<CatalogRevision, Long> {
+
+    /**
+     * Increments the catalog version atomically; must run inside the transaction making the change.
+     * @return The number of rows updated (0 before the row has been created).
+     */
+    @Modifying
+    @Query("UPDATE CatalogRevision c SET c.version = c.version + 1, c.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE c.id = 1")
+    int bump();
+}
@@ -15,4 +15,9 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
      * NEW: Finds a customer by their unique phone number.
      */
     Optional<Customer> findByPhoneNumber(String phoneNumber);
+
+    /**
+     * NEW: Duplicate check for registration (index-only, loads no entity).
+     */
+    boolean existsByPhoneNumber(String phoneNumber);
 }
\ No newline at end of file
@@ -2,6 +2,9 @@ package com.anvistudio.boutique.repository;
 
 import com.anvistudio.boutique.model.NewsletterSubscription;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import java.util.List;
 import java.util.Optional;
 
@@ -16,4 +19,19 @@ public interface NewsletterSubscriptionRepository extends JpaRepository<Newslett
      * Finds all active subscribers for batch mailing.
      */
     List<NewsletterSubscription> findByIsActiveTrue();
+
+    /**
+     * NEW: The next page of distinct newsletter recipients, in address order after 'after' (keyset paging):
+     * registered customers who opted in plus active footer subscribers. Each branch reads at most 'limit'
+     * rows from its index, so a page costs the same wherever it starts; pass "" for the first page and the
+     * last address of a page for the next one. Plain queries, so no server-side cursor stays open between pages.
+     */
+    @Query(value = "(SELECT u.username AS email FROM customer_details c JOIN users u ON u.id = c.user_id " +
+            "WHERE c.newsletter_opt_in = TRUE AND u.username > :after ORDER BY u.username LIMIT :limit) " +
+            "UNION " +
+            "(SELECT s.email FROM newsletter_subscriptions s " +
+            "WHERE s.is_active = TRUE AND s.email > :after ORDER BY s.email LIMIT :limit) " +
+            "ORDER BY email LIMIT :limit",
+            nativeQuery = true)
+    List<String> findRecipientEmailsAfter(@Param("after") String after, @Param("limit") int limit);
 }
\ No newline at end of file
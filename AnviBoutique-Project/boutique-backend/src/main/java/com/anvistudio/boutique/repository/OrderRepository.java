@@ -1,7 +1,10 @@
 package com.anvistudio.boutique.repository;
 
+import com.anvistudio.boutique.dto.OrderDTO;
 import com.anvistudio.boutique.model.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
@@ -9,4 +12,22 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
      * Finds all orders placed by a specific user.
      */
     List<Order> findByUserIdOrderByOrderDateDesc(Long userId);
+
+    /**
+     * NEW: Select clause for OrderDTO projections (the user association is never loaded).
+     */
+    String ORDER_DTO_SELECT = "SELECT new com.anvistudio.boutique.dto.OrderDTO(o.id, o.orderDate, o.totalAmount, " +
+            "o.status, o.shippingAddressSnapshot, o.orderItemsSnapshot) ";
+
+    /**
+     * NEW: Order history of a user as DTOs, newest first.
+     */
+    @Query(ORDER_DTO_SELECT + "FROM Order o WHERE o.user.id = :userId ORDER BY o.orderDate DESC")
+    List<OrderDTO> findDtosByUserId(@Param("userId") Long userId);
+
+    /**
+     * NEW: Every order as DTOs, newest first (admin dashboard).
+     */
+    @Query(ORDER_DTO_SELECT + "FROM Order o ORDER BY o.orderDate DESC")
+    List<OrderDTO> findAllDtos();
 }
\ No newline at end of file
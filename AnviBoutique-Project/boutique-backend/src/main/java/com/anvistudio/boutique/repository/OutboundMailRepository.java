@@ -0,0 +1,91 @@
+package com.anvistudio.boutique.repository;
+
+import com.anvistudio.boutique.model.OutboundMail;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Repository for the durable outbound mail queue drained by MailDispatcher.
+ */
+public interface OutboundMailRepository extends JpaRepository<OutboundMail, Long> {
+
+    /**
+     * Ids of pending mails of a lane that are due, oldest first. Pass PageRequest.of(0, n) to LIMIT.
+     */
+    @Query("SELECT m.id FROM OutboundMail m WHERE m.status = com.anvistudio.boutique.model.OutboundMail.Status.PENDING " +
+            "AND m.lane = :lane AND m.nextAttemptAt <= :now ORDER BY m.nextAttemptAt ASC, m.id ASC")
+    List<Long> findDueIds(@Param("lane") OutboundMail.Lane lane, @Param("now") Date now, Pageable pageable);
+
+    /**
+     * Atomically takes ownership of the given mails for one batch. Rows another worker (or node)
+     * claimed first are skipped, so a mail belongs to one batch at a time (a batch that outlives its
+     * lease can lose it; see releaseStaleClaims).
+     * @return The number of rows claimed.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboundMail m SET m.status = com.anvistudio.boutique.model.OutboundMail.Status.SENDING, " +
+            "m.claimToken = :token, m.claimedAt = :now WHERE m.id IN :ids " +
+            "AND m.status = com.anvistudio.boutique.model.OutboundMail.Status.PENDING")
+    int claim(@Param("ids") List<Long> ids, @Param("token") String token, @Param("now") Date now);
+
+    List<OutboundMail> findByClaimToken(String claimToken);
+
+    /**
+     * Marks the sent mails of a batch, but only those the batch still owns (same claim token).
+     * @return The number of rows updated; fewer than ids.size() when some claims had expired.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboundMail m SET m.status = com.anvistudio.boutique.model.OutboundMail.Status.SENT, " +
+            "m.sentAt = :sentAt, m.attempts = m.attempts + 1, m.lastError = NULL, m.claimToken = NULL " +
+            "WHERE m.id IN :ids AND m.claimToken = :token")
+    int completeSent(@Param("ids") List<Long> ids, @Param("token") String token, @Param("sentAt") Date sentAt);
+
+    /**
+     * Records a failed attempt (rescheduled as PENDING, or FAILED for good) if the batch still owns the mail.
+     * @return 1 if updated, 0 if the claim had expired.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboundMail m SET m.status = :status, m.attempts = :attempts, m.nextAttemptAt = :nextAttemptAt, " +
+            "m.lastError = :lastError, m.claimToken = NULL WHERE m.id = :id AND m.claimToken = :token")
+    int completeFailed(@Param("id") Long id, @Param("token") String token, @Param("status") OutboundMail.Status status,
+                       @Param("attempts") int attempts, @Param("nextAttemptAt") Date nextAttemptAt,
+                       @Param("lastError") String lastError);
+
+    /**
+     * Returns mails whose batch never finished (e.g. the node stopped mid-send) to the queue.
+     * @return The number of rows released.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboundMail m SET m.status = com.anvistudio.boutique.model.OutboundMail.Status.PENDING, " +
+            "m.claimToken = NULL WHERE m.status = com.anvistudio.boutique.model.OutboundMail.Status.SENDING " +
+            "AND m.claimedAt < :cutoff")
+    int releaseStaleClaims(@Param("cutoff") Date cutoff);
+
+    /**
+     * Purges sent mails older than the cutoff in one statement.
+     * @return The number of rows deleted.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboundMail m WHERE m.status = com.anvistudio.boutique.model.OutboundMail.Status.SENT " +
+            "AND m.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") Date cutoff);
+
+    /**
+     * Queue depth per lane and status, for monitoring.
+     * @return Rows of [lane, status, count].
+     */
+    @Query("SELECT m.lane, m.status, COUNT(m) FROM OutboundMail m GROUP BY m.lane, m.status")
+    List<Object[]> countByLaneAndStatus();
+}
@@ -0,0 +1,104 @@
+package com.anvistudio.boutique.repository;
+
+import com.anvistudio.boutique.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Repository for the domain event outbox published by OutboxRelay.
+ */
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Types that have pending events due now.
+     */
+    @Query("SELECT DISTINCT e.eventType FROM OutboxEvent e " +
+            "WHERE e.status = com.anvistudio.boutique.model.OutboxEvent.Status.PENDING AND e.nextAttemptAt <= :now")
+    List<OutboxEvent.Type> findDueTypes(@Param("now") Date now);
+
+    /**
+     * End of the coalescing window open for a type: the due time of pending events of the type recorded
+     * since windowStart that are due within the coming window. Null if no window is open.
+     */
+    @Query("SELECT MIN(e.nextAttemptAt) FROM OutboxEvent e WHERE e.eventType = :type " +
+            "AND e.status = com.anvistudio.boutique.model.OutboxEvent.Status.PENDING AND e.createdAt > :windowStart " +
+            "AND e.nextAttemptAt > :now AND e.nextAttemptAt <= :windowEnd")
+    Date findOpenWindowEnd(@Param("type") OutboxEvent.Type type, @Param("windowStart") Date windowStart,
+                           @Param("now") Date now, @Param("windowEnd") Date windowEnd);
+
+    /**
+     * Atomically takes ownership of every pending event of a type that is due, so events of one coalescing
+     * window (which share their due time) are handled together, by one relay on any node. Retries and
+     * follow-ups scheduled later are left until they are due.
+     * @return The number of events claimed.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEvent e SET e.status = com.anvistudio.boutique.model.OutboxEvent.Status.PROCESSING, " +
+            "e.claimToken = :token, e.claimedAt = :now WHERE e.eventType = :type AND e.nextAttemptAt <= :now " +
+            "AND e.status = com.anvistudio.boutique.model.OutboxEvent.Status.PENDING")
+    int claimPending(@Param("type") OutboxEvent.Type type, @Param("token") String token, @Param("now") Date now);
+
+    List<OutboxEvent> findByClaimToken(String claimToken);
+
+    /**
+     * Confirms the relay run still owns its events and restarts their lease. Run first in every fan-out
+     * chunk's transaction, so the row locks also keep a relay that took the events over from interleaving.
+     * @return The number of events still owned (0 once the claim was released and taken over).
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEvent e SET e.claimedAt = :now WHERE e.claimToken = :token " +
+            "AND e.status = com.anvistudio.boutique.model.OutboxEvent.Status.PROCESSING")
+    int renewClaim(@Param("token") String token, @Param("now") Date now);
+
+    /**
+     * Marks the events of a relay run PUBLISHED, only while the run still owns them.
+     * @return The number of events published (0 if another relay took them over).
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEvent e SET e.status = com.anvistudio.boutique.model.OutboxEvent.Status.PUBLISHED, " +
+            "e.publishedAt = :now, e.attempts = e.attempts + 1, e.claimToken = NULL, e.lastError = NULL " +
+            "WHERE e.claimToken = :token AND e.status = com.anvistudio.boutique.model.OutboxEvent.Status.PROCESSING")
+    int markPublished(@Param("token") String token, @Param("now") Date now);
+
+    /**
+     * Records a failed attempt (PENDING for a retry, or FAILED), only while the relay run still owns the event.
+     * @return 1 if recorded, 0 if another relay took the event over.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEvent e SET e.status = :status, e.attempts = :attempts, e.nextAttemptAt = :nextAttemptAt, " +
+            "e.lastError = :lastError, e.claimToken = NULL WHERE e.id = :id AND e.claimToken = :token")
+    int completeFailed(@Param("id") Long id, @Param("token") String token, @Param("status") OutboxEvent.Status status,
+                       @Param("attempts") int attempts, @Param("nextAttemptAt") Date nextAttemptAt,
+                       @Param("lastError") String lastError);
+
+    /**
+     * Returns events whose relay never finished (e.g. the node stopped) to the queue.
+     * @return The number of events released.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEvent e SET e.status = com.anvistudio.boutique.model.OutboxEvent.Status.PENDING, " +
+            "e.claimToken = NULL WHERE e.status = com.anvistudio.boutique.model.OutboxEvent.Status.PROCESSING " +
+            "AND e.claimedAt < :cutoff")
+    int releaseStaleClaims(@Param("cutoff") Date cutoff);
+
+    /**
+     * Purges published events older than the cutoff in one statement.
+     * @return The number of rows deleted.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = com.anvistudio.boutique.model.OutboxEvent.Status.PUBLISHED " +
+            "AND e.publishedAt < :cutoff")
+    int deletePublishedBefore(@Param("cutoff") Date cutoff);
+}
@@ -1,12 +1,26 @@
 package com.anvistudio.boutique.repository;
 
+import com.anvistudio.boutique.dto.ProductSummaryDTO;
 import com.anvistudio.boutique.model.Product;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query; // NEW
 import org.springframework.data.repository.query.Param; // NEW
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>,
+        ProductSummaryQueries {
+
+    /**
+     * NEW: Select clause for ProductSummaryDTO projections (no TEXT columns).
+     * Must stay in line with ProductSummaryQueriesImpl.
+     */
+    String SUMMARY_SELECT = "SELECT new com.anvistudio.boutique.dto.ProductSummaryDTO(p.id, p.name, p.category, " +
+            "p.imageUrl, p.productColor, p.price, p.discountPercent, COALESCE(p.discountedPrice, p.price), " +
+            "p.stockQuantity, p.isAvailable, p.dateCreated, p.ratingSum, p.ratingCount) ";
 
     /**
      * Finds products by category (useful for filtering the customer view).
@@ -14,18 +28,95 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByCategory(String category);
 
     /**
-     * Finds the latest products, useful for the New Arrivals section.
-     * This method now resolves correctly against the updated Product entity.
+     * NEW: Backfills the persisted discounted_price column for rows written before it existed.
+     * Uses the same rounding as Product.getDiscountedPrice().
+     * @return The number of rows updated.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET p.discountedPrice = " +
+            "CASE WHEN p.discountPercent > 0 THEN ROUND(p.price * (100 - p.discountPercent) / 100, 2) ELSE p.price END " +
+            "WHERE p.discountedPrice IS NULL")
+    int backfillDiscountedPrices();
+
+    /**
+     * NEW: Compact projection of the available catalog for the facet snapshot (no TEXT columns).
+     * @return Rows of [id, category, productColor, discountedPrice, stockQuantity, discountPercent, dateCreated].
+     */
+    @Query("SELECT p.id, p.category, p.productColor, COALESCE(p.discountedPrice, p.price), " +
+            "p.stockQuantity, p.discountPercent, p.dateCreated FROM Product p WHERE p.isAvailable = true")
+    List<Object[]> findFacetColumns();
+
+    /**
+     * NEW: Related products for the detail page: same category as the given product, excluding the product
+     * itself and unavailable items, newest first. Pass PageRequest.of(0, n) to LIMIT the result.
+     */
+    @Query(SUMMARY_SELECT + "FROM Product p WHERE p.category = :category " +
+            "AND p.id <> :productId AND p.isAvailable = true ORDER BY p.dateCreated DESC, p.id ASC")
+    List<ProductSummaryDTO> findRelatedProducts(@Param("category") String category, @Param("productId") Long productId,
+                                                Pageable pageable);
+
+    /**
+     * NEW: Latest available products as summaries, for the homepage. Pass PageRequest.of(0, n) to LIMIT the result.
+     */
+    @Query(SUMMARY_SELECT + "FROM Product p WHERE p.isAvailable = true ORDER BY p.dateCreated DESC, p.id ASC")
+    List<ProductSummaryDTO> findLatestAvailableSummaries(Pageable pageable);
+
+    /**
+     * NEW: Summaries of the given products, in no particular order (callers reorder them).
+     */
+    @Query(SUMMARY_SELECT + "FROM Product p WHERE p.id IN :ids")
+    List<ProductSummaryDTO> findSummariesByIdIn(@Param("ids") List<Long> ids);
+
+    /**
+     * NEW: Atomically applies one approved review entering (delta = 1) or leaving (delta = -1) the
+     * rating aggregates of a product. Running as a single UPDATE avoids lost updates between
+     * concurrent moderation actions.
+     * @return The number of rows updated.
+     */
+    @Modifying
+    @Query(value = "UPDATE products SET rating_sum = rating_sum + :delta * :rating, " +
+            "rating_count = rating_count + :delta, " +
+            "one_star_count = one_star_count + CASE WHEN :rating = 1 THEN :delta ELSE 0 END, " +
+            "two_star_count = two_star_count + CASE WHEN :rating = 2 THEN :delta ELSE 0 END, " +
+            "three_star_count = three_star_count + CASE WHEN :rating = 3 THEN :delta ELSE 0 END, " +
+            "four_star_count = four_star_count + CASE WHEN :rating = 4 THEN :delta ELSE 0 END, " +
+            "five_star_count = five_star_count + CASE WHEN :rating = 5 THEN :delta ELSE 0 END " +
+            "WHERE id = :productId", nativeQuery = true)
+    int adjustRatingAggregates(@Param("productId") Long productId, @Param("rating") int rating,
+                               @Param("delta") int delta);
+
+    // --- NEW: Rating aggregates recomputed from the approved reviews (correlated on products p) ---
+    // Native SQL: the aggregate columns are not updatable through the entity.
+    String APPROVED_REVIEWS = "FROM product_reviews r WHERE r.product_id = p.id AND r.is_approved = true";
+    String EXPECTED_SUM = "(SELECT COALESCE(SUM(r.rating), 0) " + APPROVED_REVIEWS + ")";
+    String EXPECTED_COUNT = "(SELECT COUNT(*) " + APPROVED_REVIEWS + ")";
+    String EXPECTED_ONE = "(SELECT COUNT(*) " + APPROVED_REVIEWS + " AND r.rating = 1)";
+    String EXPECTED_TWO = "(SELECT COUNT(*) " + APPROVED_REVIEWS + " AND r.rating = 2)";
+    String EXPECTED_THREE = "(SELECT COUNT(*) " + APPROVED_REVIEWS + " AND r.rating = 3)";
+    String EXPECTED_FOUR = "(SELECT COUNT(*) " + APPROVED_REVIEWS + " AND r.rating = 4)";
+    String EXPECTED_FIVE = "(SELECT COUNT(*) " + APPROVED_REVIEWS + " AND r.rating = 5)";
+    String RATINGS_DRIFTED = "p.rating_sum <> " + EXPECTED_SUM + " OR p.rating_count <> " + EXPECTED_COUNT +
+            " OR p.one_star_count <> " + EXPECTED_ONE + " OR p.two_star_count <> " + EXPECTED_TWO +
+            " OR p.three_star_count <> " + EXPECTED_THREE + " OR p.four_star_count <> " + EXPECTED_FOUR +
+            " OR p.five_star_count <> " + EXPECTED_FIVE;
+
+    /**
+     * NEW: Ids of the products whose stored rating aggregates differ from their approved reviews.
      */
-    List<Product> findTop8ByOrderByDateCreatedDesc();
+    @Query(value = "SELECT p.id FROM products p WHERE " + RATINGS_DRIFTED, nativeQuery = true)
+    List<Long> findIdsWithDriftedRatings();
 
     /**
-     * NEW: Finds products matching a keyword across name, category, SKU, and color.
+     * NEW: Overwrites the drifted rating aggregates with values recomputed from the approved reviews.
+     * The recompute runs inside the UPDATE, so a review moderated while it runs cannot be overwritten
+     * by a value read before it.
+     * @return The number of products corrected.
      */
-    @Query("SELECT p FROM Product p WHERE " +
-            "LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(p.category) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(p.sku) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(p.productColor) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    List<Product> searchByKeyword(@Param("keyword") String keyword); //
+    @Modifying
+    @Query(value = "UPDATE products p SET rating_sum = " + EXPECTED_SUM + ", rating_count = " + EXPECTED_COUNT +
+            ", one_star_count = " + EXPECTED_ONE + ", two_star_count = " + EXPECTED_TWO +
+            ", three_star_count = " + EXPECTED_THREE + ", four_star_count = " + EXPECTED_FOUR +
+            ", five_star_count = " + EXPECTED_FIVE + " WHERE " + RATINGS_DRIFTED, nativeQuery = true)
+    int recomputeDriftedRatings();
 }
\ No newline at end of file
@@ -0,0 +1,222 @@
+package com.anvistudio.boutique.repository;
+
+import com.anvistudio.boutique.dto.CatalogCursor;
+import com.anvistudio.boutique.model.Product;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Composable JPA Specifications for the customer-facing product catalog.
+ * Every filter and sort key offered by GET /api/products is translated into SQL predicates
+ * and ORDER BY clauses, so the database does the work instead of the JVM.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    /**
+     * Builds the full catalog query used by ProductService.getFilteredProducts.
+     * Keywords are resolved by the full-text index (ProductSearchService) and added with idIn.
+     */
+    public static Specification<Product> forCatalog(String category, String sortBy, Double minPrice, Double maxPrice,
+                                                    String status, String color) {
+        Specification<Product> spec = Specification.where(isAvailable());
+
+        if (category != null && !category.trim().isEmpty()) {
+            spec = spec.and(inCategory(category.trim()));
+        }
+
+        return spec.and(discountedPriceBetween(minPrice, maxPrice))
+                .and(colorContains(color))
+                .and(hasStatus(status))
+                .and(orderedBy(sortBy));
+    }
+
+    /**
+     * Only products marked as visible to customers.
+     */
+    public static Specification<Product> isAvailable() {
+        return (root, query, cb) -> cb.isTrue(root.get("isAvailable"));
+    }
+
+    /**
+     * Exact category match.
+     */
+    public static Specification<Product> inCategory(String category) {
+        return (root, query, cb) -> cb.equal(root.get("category"), category);
+    }
+
+    /**
+     * Restricts the result to the given product IDs (e.g. hits from the full-text search index).
+     */
+    public static Specification<Product> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    /**
+     * Inclusive range filter on the discounted (customer-facing) price. Either bound may be null.
+     */
+    public static Specification<Product> discountedPriceBetween(Double minPrice, Double maxPrice) {
+        return (root, query, cb) -> {
+            if (minPrice == null && maxPrice == null) {
+                return null;
+            }
+            Expression<BigDecimal> price = discountedPrice(root, cb);
+            List<Predicate> predicates = new ArrayList<>();
+            if (minPrice != null) {
+                predicates.add(cb.greaterThanOrEqualTo(price, BigDecimal.valueOf(minPrice)));
+            }
+            if (maxPrice != null) {
+                predicates.add(cb.lessThanOrEqualTo(price, BigDecimal.valueOf(maxPrice)));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Case-insensitive "contains" match on the product color. Wildcards in the input are matched literally.
+     */
+    public static Specification<Product> colorContains(String color) {
+        return (root, query, cb) -> {
+            if (color == null || color.trim().isEmpty()) {
+                return null;
+            }
+            String pattern = "%" + escapeLike(color.trim().toLowerCase()) + "%";
+            return cb.and(
+                    cb.isNotNull(root.get("productColor")),
+                    cb.like(cb.lower(root.get("productColor")), pattern, '\\')
+            );
+        };
+    }
+
+    /**
+     * Stock/discount status filter: inStock, lowStock (1-5 units), onSale or clearance (50%+ off).
+     * Unknown values do not filter anything.
+     */
+    public static Specification<Product> hasStatus(String status) {
+        return (root, query, cb) -> {
+            if (status == null || status.isEmpty()) {
+                return null;
+            }
+            Expression<Integer> stock = root.get("stockQuantity");
+            Expression<Integer> discount = root.get("discountPercent");
+            switch (status) {
+                case "inStock":
+                    return cb.and(cb.gt(stock, 0), cb.isTrue(root.get("isAvailable")));
+                case "lowStock":
+                    return cb.and(cb.gt(stock, 0), cb.le(stock, 5), cb.isTrue(root.get("isAvailable")));
+                case "onSale":
+                    return cb.gt(discount, 0);
+                case "clearance":
+                    return cb.ge(discount, 50);
+                default:
+                    return null;
+            }
+        };
+    }
+
+    /**
+     * Applies the catalog sort key as an ORDER BY clause. Ties are broken by id so paging is stable.
+     * An empty sort key orders by id (insertion order), the order unsorted results always had; without it
+     * the database may return rows in the order of whichever index it scans (e.g. discounted_price).
+     */
+    public static Specification<Product> orderedBy(String sortBy) {
+        return (root, query, cb) -> {
+            // Count queries (e.g. for pagination) must not carry an ORDER BY
+            if (Long.class.equals(query.getResultType())) {
+                return null;
+            }
+            if (sortBy == null || sortBy.isEmpty()) {
+                query.orderBy(cb.asc(root.get("id")));
+                return null;
+            }
+            List<Order> orders = new ArrayList<>();
+            switch (sortBy) {
+                case "priceAsc":
+                    orders.add(cb.asc(discountedPrice(root, cb)));
+                    break;
+                case "priceDesc":
+                    orders.add(cb.desc(discountedPrice(root, cb)));
+                    break;
+                case "oldest":
+                    orders.add(cb.asc(root.get("dateCreated")));
+                    break;
+                case "topRated": {
+                    // Stored aggregates: no join or GROUP BY over product_reviews
+                    Expression<Integer> count = root.get("ratingCount");
+                    Expression<Number> average = cb.<Number>selectCase()
+                            .when(cb.gt(count, 0), cb.quot(root.<Long>get("ratingSum").as(Double.class), count))
+                            .otherwise(0.0);
+                    orders.add(cb.desc(average));
+                    orders.add(cb.desc(count));
+                    break;
+                }
+                case "latest":
+                default:
+                    orders.add(cb.desc(root.get("dateCreated")));
+                    break;
+            }
+            orders.add(cb.asc(root.get("id")));
+            query.orderBy(orders);
+            return null;
+        };
+    }
+
+    /**
+     * Keyset predicate: only rows strictly after the cursor position in the cursor's sort order
+     * (sort key, then id ascending). A null cursor means "first page".
+     */
+    public static Specification<Product> after(CatalogCursor cursor) {
+        return (root, query, cb) -> {
+            if (cursor == null) {
+                return null;
+            }
+            Expression<Long> id = root.get("id");
+            Predicate sameKeyLaterId;
+            switch (cursor.getSortBy()) {
+                case CatalogCursor.PRICE_ASC: {
+                    Expression<BigDecimal> price = discountedPrice(root, cb);
+                    sameKeyLaterId = cb.and(cb.equal(price, cursor.getPrice()), cb.greaterThan(id, cursor.getId()));
+                    return cb.or(cb.greaterThan(price, cursor.getPrice()), sameKeyLaterId);
+                }
+                case CatalogCursor.PRICE_DESC: {
+                    Expression<BigDecimal> price = discountedPrice(root, cb);
+                    sameKeyLaterId = cb.and(cb.equal(price, cursor.getPrice()), cb.greaterThan(id, cursor.getId()));
+                    return cb.or(cb.lessThan(price, cursor.getPrice()), sameKeyLaterId);
+                }
+                case CatalogCursor.OLDEST: {
+                    Expression<Date> created = root.get("dateCreated");
+                    sameKeyLaterId = cb.and(cb.equal(created, cursor.getDateCreated()), cb.greaterThan(id, cursor.getId()));
+                    return cb.or(cb.greaterThan(created, cursor.getDateCreated()), sameKeyLaterId);
+                }
+                default: {
+                    Expression<Date> created = root.get("dateCreated");
+                    sameKeyLaterId = cb.and(cb.equal(created, cursor.getDateCreated()), cb.greaterThan(id, cursor.getId()));
+                    return cb.or(cb.lessThan(created, cursor.getDateCreated()), sameKeyLaterId);
+                }
+            }
+        };
+    }
+
+    /**
+     * The persisted, indexed discounted_price column (see Product.refreshDiscountedPrice()).
+     */
+    public static Expression<BigDecimal> discountedPrice(Root<Product> root, CriteriaBuilder cb) {
+        return root.get("discountedPrice");
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,19 @@
+package com.anvistudio.boutique.repository;
+
+import com.anvistudio.boutique.dto.ProductSummaryDTO;
+import com.anvistudio.boutique.model.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Custom ProductRepository fragment: runs a catalog Specification (filters and ORDER BY from
+ * ProductSpecifications) but selects only the ProductSummaryDTO columns.
+ */
+public interface ProductSummaryQueries {
+
+    /**
+     * @param limit Maximum rows to return; 0 or less for no limit.
+     */
+    List<ProductSummaryDTO> findSummaries(Specification<Product> spec, int limit);
+}
@@ -0,0 +1,51 @@
+package com.anvistudio.boutique.repository;
+
+import com.anvistudio.boutique.dto.ProductSummaryDTO;
+import com.anvistudio.boutique.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Criteria implementation of ProductSummaryQueries (picked up by Spring Data through the Impl suffix).
+ * The selected columns must stay in line with ProductRepository.SUMMARY_SELECT.
+ */
+class ProductSummaryQueriesImpl implements ProductSummaryQueries {
+
+    private final EntityManager entityManager;
+
+    ProductSummaryQueriesImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<ProductSummaryDTO> findSummaries(Specification<Product> spec, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductSummaryDTO> query = cb.createQuery(ProductSummaryDTO.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(cb.construct(ProductSummaryDTO.class,
+                root.get("id"), root.get("name"), root.get("category"), root.get("imageUrl"),
+                root.get("productColor"), root.get("price"), root.get("discountPercent"),
+                cb.coalesce(root.<BigDecimal>get("discountedPrice"), root.<BigDecimal>get("price")),
+                root.get("stockQuantity"), root.get("isAvailable"),
+                root.get("dateCreated"), root.get("ratingSum"), root.get("ratingCount")));
+
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        TypedQuery<ProductSummaryDTO> typedQuery = entityManager.createQuery(query);
+        if (limit > 0) {
+            typedQuery.setMaxResults(limit);
+        }
+        return typedQuery.getResultList();
+    }
+}
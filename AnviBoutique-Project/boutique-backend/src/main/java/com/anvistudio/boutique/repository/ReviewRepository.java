@@ -1,10 +1,16 @@
 package com.anvistudio.boutique.repository;
 
+import com.anvistudio.boutique.dto.AdminReviewDTO;
+import com.anvistudio.boutique.dto.ReviewDTO;
 import com.anvistudio.boutique.model.Review;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -38,4 +44,72 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
      * Finds all unapproved reviews (for admin moderation).
      */
     List<Review> findByIsApprovedFalseOrderByDatePostedAsc();
-}
\ No newline at end of file
+
+    /**
+     * NEW: Moderation queue as DTOs, oldest first, with product name and author joined in one query.
+     */
+    @Query("SELECT new com.anvistudio.boutique.dto.AdminReviewDTO(r.id, r.rating, r.comment, r.datePosted, " +
+            "p.id, p.name, u.username) FROM Review r JOIN r.product p JOIN r.user u " +
+            "WHERE r.isApproved = false ORDER BY r.datePosted ASC, r.id ASC")
+    List<AdminReviewDTO> findUnapprovedDtos();
+
+    // --- NEW: Conditional moderation writes: the affected row count tells the caller whether the review
+    // entered or left the approved set, so the rating aggregates are adjusted exactly once ---
+
+    /**
+     * Approves a review that is still pending.
+     * @return 1 if this call approved it, 0 if it was already approved (or does not exist).
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Review r SET r.isApproved = true WHERE r.id = :id AND r.isApproved = false")
+    int approveIfPending(@Param("id") Long id);
+
+    /**
+     * Takes an approved review back to pending (e.g. when its author edits it).
+     * @return 1 if this call withdrew the approval, 0 if the review was not approved.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Review r SET r.isApproved = false WHERE r.id = :id AND r.isApproved = true")
+    int withdrawApproval(@Param("id") Long id);
+
+    /**
+     * Deletes a review only if it is still in the approval state and rating the caller read.
+     * @return 1 if deleted, 0 if the review changed or was deleted meanwhile.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Review r WHERE r.id = :id AND r.isApproved = :approved AND r.rating = :rating")
+    int deleteIfUnchanged(@Param("id") Long id, @Param("approved") boolean approved, @Param("rating") int rating);
+
+    // --- NEW: Keyset-paginated approved reviews (pass PageRequest.of(0, n) as LIMIT) ---
+    // Newest uses idx_reviews_product_approved_posted, highest/lowest use idx_reviews_product_approved_rating.
+
+    String REVIEW_DTO = "SELECT new com.anvistudio.boutique.dto.ReviewDTO(r.id, r.rating, r.comment, r.datePosted) " +
+            "FROM Review r WHERE r.product.id = :productId AND r.isApproved = true ";
+
+    @Query(REVIEW_DTO + "ORDER BY r.datePosted DESC, r.id DESC")
+    List<ReviewDTO> findNewestApproved(@Param("productId") Long productId, Pageable pageable);
+
+    @Query(REVIEW_DTO + "AND (r.datePosted < :datePosted OR (r.datePosted = :datePosted AND r.id < :id)) " +
+            "ORDER BY r.datePosted DESC, r.id DESC")
+    List<ReviewDTO> findNewestApprovedAfter(@Param("productId") Long productId, @Param("datePosted") Date datePosted,
+                                            @Param("id") Long id, Pageable pageable);
+
+    @Query(REVIEW_DTO + "ORDER BY r.rating DESC, r.id DESC")
+    List<ReviewDTO> findHighestApproved(@Param("productId") Long productId, Pageable pageable);
+
+    @Query(REVIEW_DTO + "AND (r.rating < :rating OR (r.rating = :rating AND r.id < :id)) " +
+            "ORDER BY r.rating DESC, r.id DESC")
+    List<ReviewDTO> findHighestApprovedAfter(@Param("productId") Long productId, @Param("rating") Integer rating,
+                                             @Param("id") Long id, Pageable pageable);
+
+    @Query(REVIEW_DTO + "ORDER BY r.rating ASC, r.id DESC")
+    List<ReviewDTO> findLowestApproved(@Param("productId") Long productId, Pageable pageable);
+
+    @Query(REVIEW_DTO + "AND (r.rating > :rating OR (r.rating = :rating AND r.id < :id)) " +
+            "ORDER BY r.rating ASC, r.id DESC")
+    List<ReviewDTO> findLowestApprovedAfter(@Param("productId") Long productId, @Param("rating") Integer rating,
+                                            @Param("id") Long id, Pageable pageable);
+}
@@ -0,0 +1,17 @@
+package com.anvistudio.boutique.repository;
+
+import com.anvistudio.boutique.model.SaleDigestDelivery;
+
+import java.util.List;
+
+/**
+ * Custom SaleDigestDeliveryRepository fragment: inserts a chunk of digest history rows with multi-row
+ * INSERT statements, since IDENTITY keys keep Hibernate from batching saveAll.
+ */
+public interface SaleDigestDeliveryInserts {
+
+    /**
+     * @return The number of rows inserted.
+     */
+    int insertAll(List<SaleDigestDelivery> deliveries);
+}
@@ -0,0 +1,50 @@
+package com.anvistudio.boutique.repository;
+
+import com.anvistudio.boutique.model.SaleDigestDelivery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Native implementation of SaleDigestDeliveryInserts (picked up by Spring Data through the Impl suffix).
+ * The column list must stay in line with the SaleDigestDelivery mapping.
+ */
+class SaleDigestDeliveryInsertsImpl implements SaleDigestDeliveryInserts {
+
+    // Keeps each statement's bind parameters (three per row) far below the driver limit
+    private static final int ROWS_PER_STATEMENT = 500;
+
+    private final EntityManager entityManager;
+
+    SaleDigestDeliveryInsertsImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public int insertAll(List<SaleDigestDelivery> deliveries) {
+        int inserted = 0;
+        for (int from = 0; from < deliveries.size(); from += ROWS_PER_STATEMENT) {
+            List<SaleDigestDelivery> rows = deliveries.subList(from, Math.min(from + ROWS_PER_STATEMENT, deliveries.size()));
+            StringBuilder sql = new StringBuilder("INSERT INTO sale_digest_deliveries (recipient, product_ids, sent_at) VALUES ");
+            for (int i = 0; i < rows.size(); i++) {
+                int position = i * 3;
+                sql.append(i == 0 ? "" : ", ")
+                        .append("(?").append(position + 1).append(", ?").append(position + 2)
+                        .append(", ?").append(position + 3).append(')');
+            }
+            Query insert = entityManager.createNativeQuery(sql.toString());
+            for (int i = 0; i < rows.size(); i++) {
+                SaleDigestDelivery delivery = rows.get(i);
+                insert.setParameter(i * 3 + 1, delivery.getRecipient());
+                insert.setParameter(i * 3 + 2, delivery.getProductIds());
+                insert.setParameter(i * 3 + 3, new Timestamp(delivery.getSentAt().getTime()));
+            }
+            inserted += insert.executeUpdate();
+        }
+        return inserted;
+    }
+}
@@ -0,0 +1,32 @@
+package com.anvistudio.boutique.repository;
+
+import com.anvistudio.boutique.model.SaleDigestDelivery;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Repository for the per-recipient sale digest history (dedup and throttling).
+ */
+public interface SaleDigestDeliveryRepository extends JpaRepository<SaleDigestDelivery, Long>, SaleDigestDeliveryInserts {
+
+    /**
+     * Digests sent to any of the recipients since the given time (one query per recipient chunk).
+     */
+    List<SaleDigestDelivery> findByRecipientInAndSentAtAfter(Collection<String> recipients, Date since);
+
+    /**
+     * Purges history older than the cutoff in one statement.
+     * @return The number of rows deleted.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SaleDigestDelivery d WHERE d.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") Date cutoff);
+}
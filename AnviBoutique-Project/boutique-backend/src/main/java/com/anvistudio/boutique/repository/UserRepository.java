@@ -2,6 +2,8 @@ package com.anvistudio.boutique.repository;
 
 import com.anvistudio.boutique.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -12,4 +14,24 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return An Optional containing the User if found.
      */
     Optional<User> findByUsername(String username);
-}
\ No newline at end of file
+
+    /**
+     * NEW: Resolves a login identifier in one statement: three point lookups joined with UNION ALL,
+     * each served by its own index (users.username, customer_details.phone_number,
+     * idx_users_recovery_phone), ranked by precedence (username, customer phone, admin recovery
+     * phone); the best-ranked user wins.
+     */
+    String FIND_BY_LOGIN_IDENTIFIER = "SELECT u.* FROM users u JOIN (" +
+            "SELECT id, 1 AS precedence FROM users WHERE username = :identifier " +
+            "UNION ALL SELECT user_id, 2 FROM customer_details WHERE phone_number = :identifier " +
+            "UNION ALL SELECT id, 3 FROM users WHERE role = 'ADMIN' AND recovery_phone_number = :identifier" +
+            ") m ON m.id = u.id ORDER BY m.precedence LIMIT 1";
+
+    @Query(value = FIND_BY_LOGIN_IDENTIFIER, nativeQuery = true)
+    Optional<User> findByLoginIdentifier(@Param("identifier") String identifier);
+
+    /**
+     * NEW: Whether another user already holds this recovery phone (idx_users_recovery_phone is unique).
+     */
+    boolean existsByRecoveryPhoneNumberAndIdNot(String recoveryPhoneNumber, Long id);
+}
@@ -3,6 +3,8 @@ package com.anvistudio.boutique.repository;
 import com.anvistudio.boutique.model.Wishlist;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying; // NEW
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional; // NEW
 import java.util.List;
 import java.util.Optional;
@@ -14,6 +16,12 @@ public interface WishlistRepository extends JpaRepository<Wishlist, Long> {
      */
     List<Wishlist> findByUserId(Long userId);
 
+    /**
+     * NEW: Wishlist items of a user with their products fetched in the same query (newest first).
+     */
+    @Query("SELECT w FROM Wishlist w JOIN FETCH w.product WHERE w.user.id = :userId ORDER BY w.dateAdded DESC, w.id DESC")
+    List<Wishlist> findWithProductByUserId(@Param("userId") Long userId);
+
     /**
      * Finds a specific wishlist item by user ID and product ID (used for checking if an item is already wished).
      */
@@ -31,4 +39,16 @@ public interface WishlistRepository extends JpaRepository<Wishlist, Long> {
     @Modifying
     @Transactional
     void deleteByProductId(Long productId);
-}
\ No newline at end of file
+
+    /**
+     * NEW: Number of wishlist saves per product, used as the popularity signal for search suggestions.
+     * @return Rows of [productId (Long), count (Long)].
+     */
+    @Query("SELECT w.product.id, COUNT(w) FROM Wishlist w GROUP BY w.product.id")
+    List<Object[]> countGroupedByProduct();
+
+    /**
+     * NEW: Number of wishlist saves of one product (popularity of a product that just changed).
+     */
+    long countByProductId(Long productId);
+}
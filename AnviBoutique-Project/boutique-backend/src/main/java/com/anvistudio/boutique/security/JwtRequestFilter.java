@@ -30,15 +30,19 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     @Lazy
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            // One parse and signature check per token (repeat tokens are answered from JwtUtils' cache)
+            String username = jwt != null ? jwtUtils.verifyAndGetSubject(jwt).orElse(null) : null;
+            if (username != null) {
+                // Served from memory; the users table is only read on a miss
+                UserDetails userDetails = principalCache.get(username, userDetailsService::loadUserByUsername);
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -1,12 +1,26 @@
 package com.anvistudio.boutique.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.impl.TextCodec;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Utility class for generating, validating, and parsing JSON Web Tokens.
@@ -20,6 +34,63 @@ public class JwtUtils {
     @Value("${app.jwt.expiration-ms}")
     private int jwtExpirationMs;
 
+    @Value("${app.jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheMaxSize;
+
+    @Value("${app.jwt.verified-cache.max-ttl:5m}")
+    private Duration verifiedCacheMaxTtl;
+
+    // Derived once from app.jwt.secret
+    private Key signingKey;
+
+    // Configured once and never mutated afterwards; parsing keeps all its state local, so it is shared
+    private JwtParser parser;
+
+    // SHA-256 of a recently verified token -> its subject and expiry
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    private static final class VerifiedToken {
+        final String subject;
+        final long expiresAtMillis; // Long.MAX_VALUE when the token has no expiry
+
+        VerifiedToken(String subject, long expiresAtMillis) {
+            this.subject = subject;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        // Same bytes jjwt derives when given the secret string (it treats the string as base64),
+        // so tokens issued before this change still verify
+        signingKey = new SecretKeySpec(TextCodec.BASE64.decode(jwtSecret), SignatureAlgorithm.HS512.getJcaName());
+        parser = Jwts.parser().setSigningKey(signingKey);
+
+        long maxTtlNanos = verifiedCacheMaxTtl.toNanos();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                        // Never outlive the token itself
+                        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(
+                                Math.max(0, token.expiresAtMillis - System.currentTimeMillis()));
+                        return Math.min(remainingNanos, maxTtlNanos);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
     /**
      * Generates a token for a successfully authenticated user.
      */
@@ -30,27 +101,60 @@ public class JwtUtils {
                 .setSubject((userPrincipal.getUsername()))
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(SignatureAlgorithm.HS512, jwtSecret)
+                .signWith(SignatureAlgorithm.HS512, signingKey)
                 .compact();
     }
 
+    /**
+     * NEW: Verifies the signature and expiry of a token and returns its subject (the username),
+     * or empty if the token is invalid. Each token is parsed once; tokens verified recently are
+     * answered from a bounded cache until they expire.
+     */
+    public Optional<String> verifyAndGetSubject(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+        String key = sha256(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(key);
+        if (cached != null && cached.expiresAtMillis > System.currentTimeMillis()) {
+            return Optional.of(cached.subject);
+        }
+
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            Date expiration = claims.getExpiration();
+            VerifiedToken verified = new VerifiedToken(claims.getSubject(),
+                    expiration != null ? expiration.getTime() : Long.MAX_VALUE);
+            verifiedTokens.put(key, verified);
+            return Optional.ofNullable(verified.subject);
+        } catch (SignatureException | MalformedJwtException | ExpiredJwtException | UnsupportedJwtException | IllegalArgumentException e) {
+            // Log error in production
+        }
+        return Optional.empty();
+    }
+
     /**
      * Extracts the username from a valid token.
      */
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody().getSubject();
+        return verifyAndGetSubject(token)
+                .orElseThrow(() -> new MalformedJwtException("Invalid JWT token."));
     }
 
     /**
      * Validates that a token is not expired and has a valid signature.
      */
     public boolean validateJwtToken(String authToken) {
+        return verifyAndGetSubject(authToken).isPresent();
+    }
+
+    // Only the digest is kept in memory, never the bearer token itself
+    private static String sha256(String token) {
         try {
-            Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-            return true;
-        } catch (SignatureException | MalformedJwtException | ExpiredJwtException | UnsupportedJwtException | IllegalArgumentException e) {
-            // Log error in production
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
         }
-        return false;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+package com.anvistudio.boutique.security;
+
+/**
+ * NEW: Thrown by PooledPasswordEncoder when a password operation is turned away because the hashing
+ * pool is saturated (queue full or wait timed out). The request was not wrong, so controllers answer
+ * 503 Service Unavailable with a Retry-After header instead of a client or credentials error.
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingBusyException(String message, long retryAfterSeconds, Throwable cause) {
+        super(message, cause);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    /**
+     * Finds the exception in a cause chain, e.g. wrapped by Spring Security in an
+     * InternalAuthenticationServiceException.
+     * @return The exception, or null if the failure has another cause.
+     */
+    public static PasswordHashingBusyException in(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PasswordHashingBusyException) {
+                return (PasswordHashingBusyException) cause;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,174 @@
+package com.anvistudio.boutique.security;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BCrypt encoder whose hashing and verification run on a dedicated, size-bounded pool, so a burst of
+ * logins, registrations or password changes can use at most poolSize cores and cannot starve catalog
+ * requests of CPU. Callers wait for their result; when the queue is full (or the wait times out) the
+ * operation is rejected with a PasswordHashingBusyException instead of piling up more work.
+ * upgradeEncoding reports hashes below the configured cost, so DaoAuthenticationProvider re-hashes
+ * them on the next successful login (see UserService.updatePassword).
+ */
+public class PooledPasswordEncoder implements PasswordEncoder {
+
+    private static final int MIN_STRENGTH = 10;
+    private static final int MAX_STRENGTH = 16;
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong totalWorkNanos = new AtomicLong();
+    private final AtomicLong operations = new AtomicLong();
+
+    public PooledPasswordEncoder(int strength, int poolSize, int queueCapacity, Duration timeout) {
+        this.strength = strength;
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.timeout = timeout;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Picks the BCrypt cost whose hash time on this machine is closest to targetMs
+     * (each extra cost step doubles the time), clamped to [10, 16]. A sizing aid only
+     * (app.security.bcrypt.calibrate): the cost in use is always the configured one, so every node
+     * hashes and upgrades passwords alike.
+     */
+    public static int calibrateStrength(long targetMs) {
+        String sample = "calibration-Password1!";
+        new BCryptPasswordEncoder(MIN_STRENGTH).encode(sample); // warm-up
+        for (int candidate = MIN_STRENGTH; candidate < MAX_STRENGTH; candidate++) {
+            long start = System.nanoTime();
+            new BCryptPasswordEncoder(candidate).encode(sample);
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (elapsedMs >= targetMs) {
+                return candidate;
+            }
+            // The next step would take about twice as long; stop if that overshoots more than this undershoots
+            if (elapsedMs * 2 - targetMs > targetMs - elapsedMs) {
+                return candidate;
+            }
+        }
+        return MAX_STRENGTH;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    /**
+     * Pool and queueing metrics, for sizing the pool against login bursts.
+     */
+    public Map<String, Object> getStats() {
+        long count = operations.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("strength", strength);
+        stats.put("poolSize", executor.getMaximumPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("queueCapacity", executor.getQueue().size() + executor.getQueue().remainingCapacity());
+        stats.put("completed", count);
+        stats.put("rejected", rejected.get());
+        stats.put("timedOut", timedOut.get());
+        stats.put("averageQueueWaitMs", count == 0 ? 0.0 : totalWaitNanos.get() / 1_000_000.0 / count);
+        stats.put("averageHashMs", count == 0 ? 0.0 : totalWorkNanos.get() / 1_000_000.0 / count);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // Roughly how long the current queue takes to drain, at least one second
+    private long retryAfterSeconds() {
+        long count = operations.get();
+        double averageHashMs = count == 0 ? 250.0 : totalWorkNanos.get() / 1_000_000.0 / count;
+        double drainMs = (executor.getQueue().size() + executor.getActiveCount()) * averageHashMs
+                / executor.getMaximumPoolSize();
+        return Math.max(1, (long) Math.ceil(drainMs / 1000));
+    }
+
+    private <T> T run(Callable<T> work) {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long started = System.nanoTime();
+                try {
+                    return work.call();
+                } finally {
+                    totalWaitNanos.addAndGet(started - submitted);
+                    totalWorkNanos.addAndGet(System.nanoTime() - started);
+                    operations.incrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new PasswordHashingBusyException("Too many concurrent password operations. Please try again.",
+                    retryAfterSeconds(), e);
+        }
+
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOut.incrementAndGet();
+            throw new PasswordHashingBusyException("Password operation timed out. Please try again.",
+                    retryAfterSeconds(), e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Password operation interrupted.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
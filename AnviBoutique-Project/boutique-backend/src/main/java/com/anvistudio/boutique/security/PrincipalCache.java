@@ -0,0 +1,75 @@
+package com.anvistudio.boutique.security;
+
+import com.anvistudio.boutique.event.InvalidationBus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded, short-TTL cache of the principals JwtRequestFilter resolves from token subjects, so an
+ * authenticated request does not query the users table before reaching the controller.
+ * Entries are evicted when UserService changes a user's password, email, role or verification
+ * (here on commit, on the other nodes through InvalidationBus.REGION_USER); the TTL bounds
+ * staleness for changes made outside the application.
+ */
+@Component
+public class PrincipalCache {
+
+    private final Cache<String, UserDetails> principals;
+
+    public PrincipalCache(InvalidationBus invalidationBus,
+                          @Value("${app.security.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${app.security.principal-cache.ttl:60s}") Duration ttl) {
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        invalidationBus.subscribe(InvalidationBus.REGION_USER, principals::invalidate);
+    }
+
+    /**
+     * Returns the cached principal for a token subject, loading it on a miss.
+     * Load failures (unknown or disabled user) propagate and are not cached.
+     * The cached copy carries no password hash.
+     */
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        return principals.get(username, key -> withoutPassword(loader.apply(key)));
+    }
+
+    /**
+     * Drops the principals of these usernames once the surrounding transaction commits
+     * (immediately when no transaction is active).
+     */
+    public void evictAfterCommit(String... usernames) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(usernames);
+                }
+            });
+        } else {
+            evict(usernames);
+        }
+    }
+
+    private void evict(String... usernames) {
+        for (String username : usernames) {
+            principals.invalidate(username);
+        }
+    }
+
+    // Request authentication never needs the hash, so it is not kept in memory
+    private static UserDetails withoutPassword(UserDetails details) {
+        return new User(details.getUsername(), "", details.isEnabled(), details.isAccountNonExpired(),
+                details.isCredentialsNonExpired(), details.isAccountNonLocked(), details.getAuthorities());
+    }
+}
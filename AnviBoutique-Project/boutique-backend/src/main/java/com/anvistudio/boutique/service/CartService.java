@@ -1,5 +1,7 @@
 package com.anvistudio.boutique.service;
 
+import com.anvistudio.boutique.dto.CartItemDTO;
+import com.anvistudio.boutique.dto.CartSummaryDTO;
 import com.anvistudio.boutique.model.CartItem;
 import com.anvistudio.boutique.model.Product;
 import com.anvistudio.boutique.model.User;
@@ -10,6 +12,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 public class CartService {
@@ -80,10 +83,23 @@ public class CartService {
     }
 
     /**
-     * Retrieves all cart items for a specific user.
+     * Retrieves all cart items for a specific user, with their products loaded in the same query.
      */
     public List<CartItem> getCartItems(Long userId) {
-        return cartItemRepository.findByUserId(userId);
+        return cartItemRepository.findWithProductByUserId(userId);
+    }
+
+    /**
+     * NEW: Items, total and item count for the cart endpoints, computed from a single load of the cart
+     * and mapped to DTOs inside the transaction (no entity graph reaches Jackson).
+     */
+    @Transactional(readOnly = true)
+    public CartSummaryDTO getCartSummary(Long userId) {
+        List<CartItem> items = getCartItems(userId);
+        List<CartItemDTO> dtos = items.stream()
+                .map(CartItemDTO::from)
+                .collect(Collectors.toList());
+        return new CartSummaryDTO(dtos, calculateTotal(items));
     }
 
     /**
@@ -91,7 +107,14 @@ public class CartService {
      * This method automatically uses the updated CartItem.getTotalPrice() calculation.
      */
     public double getCartTotal(Long userId) {
-        return getCartItems(userId).stream()
+        return calculateTotal(getCartItems(userId));
+    }
+
+    /**
+     * NEW: Total of cart items the caller has already loaded (avoids reading the cart a second time).
+     */
+    public double calculateTotal(List<CartItem> items) {
+        return items.stream()
                 .mapToDouble(CartItem::getTotalPrice)
                 .sum();
     }
@@ -0,0 +1,145 @@
+package com.anvistudio.boutique.service;
+
+import com.anvistudio.boutique.dto.ProductSummaryDTO;
+import com.anvistudio.boutique.event.ProductChangedEvent;
+import com.anvistudio.boutique.model.Product;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded, TTL-evicting read-through cache for the anonymous catalog reads in ProductService
+ * (single products and the featured list).
+ * Entries are invalidated precisely once a product change commits; the TTL only bounds staleness
+ * for changes made outside the application.
+ * Cached values are private snapshots: every caller gets its own copy, so a caller mutating (or a
+ * persistence context still managing) what it received cannot change what other requests see.
+ */
+@Service
+public class CatalogCache {
+
+    private static final String FEATURED_KEY = "featured";
+
+    private final Cache<Long, Optional<Product>> products;
+    private final Cache<String, List<ProductSummaryDTO>> productLists;
+
+    public CatalogCache(@Value("${app.cache.catalog.max-products:2000}") long maxProducts,
+                        @Value("${app.cache.catalog.max-lists:64}") long maxLists,
+                        @Value("${app.cache.catalog.ttl:10m}") Duration ttl) {
+        this.products = Caffeine.newBuilder()
+                .maximumSize(maxProducts)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.productLists = Caffeine.newBuilder()
+                .maximumSize(maxLists)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns a copy of the cached product (or cached absence), loading it on a miss.
+     */
+    public Optional<Product> getProduct(Long id, Function<Long, Optional<Product>> loader) {
+        // The loaded entity is copied before caching, so the loader's persistence context does not own the snapshot
+        return products.get(id, key -> loader.apply(key).map(CatalogCache::copy)).map(CatalogCache::copy);
+    }
+
+    /**
+     * Returns a copy of the cached featured list, loading it on a miss.
+     */
+    public List<ProductSummaryDTO> getFeatured(Supplier<List<ProductSummaryDTO>> loader) {
+        // Copies of the list and of its elements: callers may filter or edit what they receive
+        return productLists.get(FEATURED_KEY, key -> List.copyOf(loader.get())).stream()
+                .map(ProductSummaryDTO::copy)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Admin save/delete: drops the product, every list that contained it and the featured list
+     * (a new product may belong on it).
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidateProduct(event.getProductId());
+        productLists.invalidate(FEATURED_KEY);
+    }
+
+    /**
+     * Drops a product whose stored state changed without a ProductChangedEvent (e.g. rating aggregates),
+     * together with every cached list containing it. Deferred until commit when a transaction is active.
+     */
+    public void evictProductAfterCommit(Long productId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateProduct(productId);
+                }
+            });
+        } else {
+            invalidateProduct(productId);
+        }
+    }
+
+    /**
+     * Drops every entry (e.g. after an out-of-band bulk change).
+     */
+    public void invalidateAll() {
+        products.invalidateAll();
+        productLists.invalidateAll();
+    }
+
+    /**
+     * Hit/miss/eviction statistics per cache, for sizing against the heap.
+     */
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        stats.put("products", describe(products.stats(), products.estimatedSize()));
+        stats.put("productLists", describe(productLists.stats(), productLists.estimatedSize()));
+        return stats;
+    }
+
+    private void invalidateProduct(Long productId) {
+        products.invalidate(productId);
+        productLists.asMap().values().removeIf(list -> list.stream().anyMatch(p -> productId.equals(p.getId())));
+    }
+
+    private static Product copy(Product product) {
+        Product copy = new Product();
+        BeanUtils.copyProperties(product, copy);
+        // Every other property is immutable (String, BigDecimal, boxed numbers)
+        if (product.getDateCreated() != null) {
+            copy.setDateCreated(new Date(product.getDateCreated().getTime()));
+        }
+        return copy;
+    }
+
+    private static Map<String, Object> describe(CacheStats stats, long size) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("size", size);
+        values.put("hitCount", stats.hitCount());
+        values.put("missCount", stats.missCount());
+        values.put("hitRate", stats.hitRate());
+        values.put("evictionCount", stats.evictionCount());
+        values.put("averageLoadPenaltyMs", stats.averageLoadPenalty() / 1_000_000.0);
+        return values;
+    }
+}
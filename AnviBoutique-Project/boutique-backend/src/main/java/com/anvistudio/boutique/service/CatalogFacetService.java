@@ -0,0 +1,305 @@
+package com.anvistudio.boutique.service;
+
+import com.anvistudio.boutique.dto.FacetedProductsDTO;
+import com.anvistudio.boutique.dto.ProductSummaryDTO;
+import com.anvistudio.boutique.event.ProductChangedEvent;
+import com.anvistudio.boutique.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Computes the catalog filter sidebar counts (category, color, stock status and price bucket)
+ * together with the matching page of products in a single pass over a compact, column-oriented
+ * snapshot of the available catalog. The snapshot is loaded with one projection query and
+ * reloaded lazily after any committed product change.
+ * As in CatalogVersionService, a snapshot is only valid for the generation it was loaded in, so a
+ * load racing with a change cannot re-install the old catalog.
+ */
+@Service
+public class CatalogFacetService {
+
+    private static final String[] STATUSES = {"inStock", "lowStock", "onSale", "clearance"};
+
+    private final ProductRepository productRepository;
+    private final ProductSearchService productSearchService;
+    private final long[] bucketEdgesCents;
+    private final String[] bucketLabels;
+
+    // Bumped on every committed product change
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot snapshot;
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    public CatalogFacetService(ProductRepository productRepository, ProductSearchService productSearchService,
+                               @Value("${app.catalog.price-buckets:500,1000,2000,5000}") long[] priceBucketEdges) {
+        this.productRepository = productRepository;
+        this.productSearchService = productSearchService;
+        this.bucketEdgesCents = Arrays.stream(priceBucketEdges).sorted().map(edge -> edge * 100).toArray();
+        this.bucketLabels = buildBucketLabels(Arrays.stream(priceBucketEdges).sorted().toArray());
+    }
+
+    /**
+     * Column-per-attribute copy of the available catalog. Strings are dictionary-encoded.
+     */
+    private static final class Snapshot {
+        final long generation;     // CatalogFacetService.generation when the rows were read
+        final int size;
+        final long[] ids;
+        final int[] category;      // index into categoryNames
+        final int[] color;         // index into colorNames, -1 when no color
+        final long[] priceCents;   // discounted price
+        final int[] stock;
+        final int[] discount;
+        final long[] created;
+        final String[] categoryNames;
+        final String[] colorNames;
+
+        Snapshot(long generation, List<Object[]> rows) {
+            this.generation = generation;
+            size = rows.size();
+            ids = new long[size];
+            category = new int[size];
+            color = new int[size];
+            priceCents = new long[size];
+            stock = new int[size];
+            discount = new int[size];
+            created = new long[size];
+
+            Map<String, Integer> categoryIndex = new LinkedHashMap<>();
+            Map<String, Integer> colorIndex = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) {
+                Object[] row = rows.get(i);
+                ids[i] = (Long) row[0];
+                category[i] = categoryIndex.computeIfAbsent((String) row[1], key -> categoryIndex.size());
+                String colorValue = (String) row[2];
+                color[i] = colorValue == null || colorValue.isBlank()
+                        ? -1
+                        : colorIndex.computeIfAbsent(colorValue.trim(), key -> colorIndex.size());
+                priceCents[i] = ((BigDecimal) row[3]).movePointRight(2).longValue();
+                stock[i] = (Integer) row[4];
+                discount[i] = (Integer) row[5];
+                created[i] = ((Date) row[6]).getTime();
+            }
+            categoryNames = categoryIndex.keySet().toArray(new String[0]);
+            colorNames = colorIndex.keySet().toArray(new String[0]);
+        }
+    }
+
+    /**
+     * Any committed product change invalidates the snapshot; the next request reloads it.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Returns one page of matching products plus all facet counts.
+     * Filter semantics are the same as ProductService.getFilteredProducts.
+     * @param page Zero-based page index.
+     */
+    public FacetedProductsDTO getFacetedProducts(String category, String sortBy, Double minPrice, Double maxPrice,
+                                                 String status, String color, String keyword, int page, int size) {
+        Snapshot data = currentSnapshot();
+
+        // 1. Resolve each filter once into a cheap per-row test
+        Set<Long> keywordIds = null;
+        List<Long> rankedIds = null;
+        boolean hasKeyword = keyword != null && !keyword.trim().isEmpty();
+        if (hasKeyword) {
+            rankedIds = productSearchService.search(keyword.trim());
+            keywordIds = new HashSet<>(rankedIds);
+        }
+
+        int categoryFilter = -1; // -1: no filter, -2: category that has no products
+        if (!hasKeyword && category != null && !category.trim().isEmpty()) {
+            categoryFilter = Arrays.asList(data.categoryNames).indexOf(category.trim());
+            if (categoryFilter < 0) {
+                categoryFilter = -2;
+            }
+        }
+
+        boolean[] colorMatches = null;
+        if (color != null && !color.trim().isEmpty()) {
+            String needle = color.trim().toLowerCase();
+            colorMatches = new boolean[data.colorNames.length];
+            for (int c = 0; c < colorMatches.length; c++) {
+                colorMatches[c] = data.colorNames[c].toLowerCase().contains(needle);
+            }
+        }
+
+        long minCents = minPrice != null
+                ? BigDecimal.valueOf(minPrice).movePointRight(2).setScale(0, RoundingMode.CEILING).longValue()
+                : Long.MIN_VALUE;
+        long maxCents = maxPrice != null
+                ? BigDecimal.valueOf(maxPrice).movePointRight(2).setScale(0, RoundingMode.FLOOR).longValue()
+                : Long.MAX_VALUE;
+
+        // 2. Single pass: a row that passes every filter counts in every facet; a row that fails
+        //    exactly one filter still counts in that filter's own facet
+        long[] categoryCounts = new long[data.categoryNames.length];
+        long[] colorCounts = new long[data.colorNames.length];
+        long[] statusCounts = new long[STATUSES.length];
+        long[] bucketCounts = new long[bucketLabels.length];
+        List<Integer> matched = new ArrayList<>();
+
+        for (int i = 0; i < data.size; i++) {
+            if (keywordIds != null && !keywordIds.contains(data.ids[i])) {
+                continue;
+            }
+            boolean categoryOk = categoryFilter == -1 || data.category[i] == categoryFilter;
+            boolean colorOk = colorMatches == null || (data.color[i] >= 0 && colorMatches[data.color[i]]);
+            boolean statusOk = status == null || status.isEmpty() || hasStatus(data, i, status);
+            boolean priceOk = data.priceCents[i] >= minCents && data.priceCents[i] <= maxCents;
+
+            int failures = (categoryOk ? 0 : 1) + (colorOk ? 0 : 1) + (statusOk ? 0 : 1) + (priceOk ? 0 : 1);
+            if (failures > 1) {
+                continue;
+            }
+            if (failures == 0) {
+                matched.add(i);
+            }
+            if (colorOk && statusOk && priceOk) {
+                categoryCounts[data.category[i]]++;
+            }
+            if (categoryOk && statusOk && priceOk && data.color[i] >= 0) {
+                colorCounts[data.color[i]]++;
+            }
+            if (categoryOk && colorOk && priceOk) {
+                for (int s = 0; s < STATUSES.length; s++) {
+                    if (hasStatus(data, i, STATUSES[s])) {
+                        statusCounts[s]++;
+                    }
+                }
+            }
+            if (categoryOk && colorOk && statusOk) {
+                bucketCounts[bucketOf(data.priceCents[i])]++;
+            }
+        }
+
+        // 3. Sort the matches and load only the requested page (summary columns only)
+        sortMatches(data, matched, sortBy, rankedIds);
+        int from = Math.min(Math.max(page, 0) * size, matched.size());
+        int to = Math.min(from + size, matched.size());
+        List<Long> pageIds = matched.subList(from, to).stream().map(i -> data.ids[i]).collect(Collectors.toList());
+
+        Map<Long, ProductSummaryDTO> loaded = pageIds.isEmpty() ? Map.of()
+                : productRepository.findSummariesByIdIn(pageIds).stream()
+                        .collect(Collectors.toMap(ProductSummaryDTO::getId, Function.identity()));
+        List<ProductSummaryDTO> items = new ArrayList<>(pageIds.size());
+        for (Long id : pageIds) {
+            ProductSummaryDTO product = loaded.get(id);
+            if (product != null) {
+                items.add(product);
+            }
+        }
+
+        return new FacetedProductsDTO(items, matched.size(),
+                toMap(data.categoryNames, categoryCounts),
+                toMap(data.colorNames, colorCounts),
+                toMap(STATUSES, statusCounts),
+                toMap(bucketLabels, bucketCounts));
+    }
+
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null && current.generation == generation.get()) {
+            return current;
+        }
+        reloadLock.lock();
+        try {
+            // Read the generation before the rows: a change committed during the load leaves the
+            // new snapshot one generation behind, so the next request reloads again
+            long loadedIn = generation.get();
+            current = snapshot;
+            if (current == null || current.generation != loadedIn) {
+                current = new Snapshot(loadedIn, productRepository.findFacetColumns());
+                snapshot = current;
+            }
+            return current;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private static boolean hasStatus(Snapshot data, int i, String status) {
+        switch (status) {
+            case "inStock":
+                return data.stock[i] > 0;
+            case "lowStock":
+                return data.stock[i] > 0 && data.stock[i] <= 5;
+            case "onSale":
+                return data.discount[i] > 0;
+            case "clearance":
+                return data.discount[i] >= 50;
+            default:
+                return true; // unknown status values do not filter
+        }
+    }
+
+    private void sortMatches(Snapshot data, List<Integer> matched, String sortBy, List<Long> rankedIds) {
+        Comparator<Integer> byId = Comparator.comparingLong(i -> data.ids[i]);
+        Comparator<Integer> order;
+        if (ProductService.SORT_RELEVANCE.equals(sortBy) && rankedIds != null) {
+            Map<Long, Integer> rank = new HashMap<>();
+            for (int r = 0; r < rankedIds.size(); r++) {
+                rank.put(rankedIds.get(r), r);
+            }
+            order = Comparator.comparingInt(i -> rank.get(data.ids[i]));
+        } else if ("priceAsc".equals(sortBy)) {
+            order = Comparator.<Integer>comparingLong(i -> data.priceCents[i]).thenComparing(byId);
+        } else if ("priceDesc".equals(sortBy)) {
+            order = Comparator.<Integer>comparingLong(i -> -data.priceCents[i]).thenComparing(byId);
+        } else if ("oldest".equals(sortBy)) {
+            order = Comparator.<Integer>comparingLong(i -> data.created[i]).thenComparing(byId);
+        } else {
+            order = Comparator.<Integer>comparingLong(i -> -data.created[i]).thenComparing(byId);
+        }
+        matched.sort(order);
+    }
+
+    private int bucketOf(long priceCents) {
+        int bucket = 0;
+        while (bucket < bucketEdgesCents.length && priceCents >= bucketEdgesCents[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private static String[] buildBucketLabels(long[] edges) {
+        String[] labels = new String[edges.length + 1];
+        long lower = 0;
+        for (int b = 0; b < edges.length; b++) {
+            labels[b] = lower + "-" + edges[b];
+            lower = edges[b];
+        }
+        labels[edges.length] = lower + "+";
+        return labels;
+    }
+
+    private static Map<String, Long> toMap(String[] keys, long[] counts) {
+        Map<String, Long> map = new LinkedHashMap<>();
+        for (int k = 0; k < keys.length; k++) {
+            map.put(keys[k], counts[k]);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,97 @@
+package com.anvistudio.boutique.service;
+
+import com.anvistudio.boutique.event.ProductChangedEvent;
+import com.anvistudio.boutique.model.CatalogRevision;
+import com.anvistudio.boutique.repository.CatalogRevisionRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Current catalog version, used for HTTP conditional GETs on the public catalog endpoints.
+ * The version lives in the database (CatalogRevision), so every instance hands out the same ETag;
+ * this service keeps a copy in memory so a revalidation request costs no query at all.
+ * The copy is dropped after a local bump commits and on every ProductChangedEvent, which other
+ * instances' changes also raise (via the InvalidationBus).
+ */
+@Service
+public class CatalogVersionService {
+
+    private final CatalogRevisionRepository catalogRevisionRepository;
+    // Bumped on every reset; a cached copy is only valid for the generation it was loaded in,
+    // so a load racing with a change cannot re-install the old version
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Cached cached;
+
+    private record Cached(long generation, CatalogRevision revision) {
+    }
+
+    public CatalogVersionService(CatalogRevisionRepository catalogRevisionRepository) {
+        this.catalogRevisionRepository = catalogRevisionRepository;
+    }
+
+    /**
+     * Creates the counter row on first startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureRevisionRow() {
+        if (catalogRevisionRepository.existsById(CatalogRevision.SINGLETON_ID)) {
+            return;
+        }
+        try {
+            catalogRevisionRepository.save(new CatalogRevision(CatalogRevision.SINGLETON_ID, 1L, new Date()));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created it concurrently
+        }
+    }
+
+    /**
+     * Increments the version in the caller's transaction.
+     */
+    public void bump() {
+        catalogRevisionRepository.bump();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reset();
+                }
+            });
+        } else {
+            reset();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        reset();
+    }
+
+    /**
+     * The current version and its timestamp; empty until the counter row exists.
+     */
+    public Optional<CatalogRevision> getCurrent() {
+        Cached copy = cached;
+        if (copy != null && copy.generation() == generation.get()) {
+            return Optional.of(copy.revision());
+        }
+        long loadedIn = generation.get();
+        CatalogRevision revision = catalogRevisionRepository.findById(CatalogRevision.SINGLETON_ID).orElse(null);
+        if (revision != null) {
+            cached = new Cached(loadedIn, revision);
+        }
+        return Optional.ofNullable(revision);
+    }
+
+    private void reset() {
+        generation.incrementAndGet();
+    }
+}
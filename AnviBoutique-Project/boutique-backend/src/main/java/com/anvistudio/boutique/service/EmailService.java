@@ -1,69 +1,72 @@
 package com.anvistudio.boutique.service;
 
+import com.anvistudio.boutique.model.OutboundMail;
 import com.anvistudio.boutique.model.User;
 import com.anvistudio.boutique.model.VerificationToken;
 import com.anvistudio.boutique.model.VerificationToken.TokenType;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
- * Service for sending live emails using the configured SMTP server.
+ * Service for sending account emails (OTPs) through the outbound mail queue.
  */
 @Service
 public class EmailService {
 
-    private final JavaMailSender javaMailSender;
+    private static final String FROM = "Anvi Studio Support <bharath161099@gmail.com>";
+    private static final int OTP_EXPIRY_MINUTES = 5;
+
+    private final MailQueueService mailQueueService;
+    private final MailTemplateService mailTemplateService;
+
+    // OTP body per token type, rendered once; only the code and the email address are merged per message
+    private final Map<TokenType, MailMerge> otpBodies = new ConcurrentHashMap<>();
 
-    public EmailService(JavaMailSender javaMailSender) {
-        this.javaMailSender = javaMailSender;
+    public EmailService(MailQueueService mailQueueService, MailTemplateService mailTemplateService) {
+        this.mailQueueService = mailQueueService;
+        this.mailTemplateService = mailTemplateService;
     }
 
     /**
      * Sends the OTP to the user's email address.
      * MODIFIED: Content changes based on TokenType.
+     * NEW: Queued on the PRIORITY lane (sent after the caller's transaction commits, ahead of any bulk mail).
      * @param user The user object containing the target email in the username field.
      * @param token The token object containing the 6-digit OTP and type.
      */
     public void sendOtpEmail(User user, VerificationToken token) {
-
-        SimpleMailMessage mailMessage = new SimpleMailMessage();
         String subject;
-        String action;
 
-        // Customize subject and action based on the purpose of the OTP
+        // Customize subject based on the purpose of the OTP
         if (token.getTokenType() == TokenType.PASSWORD_RESET) {
             subject = "Anvi Studio: Password Reset Code (OTP)";
-            action = "reset your password";
         } else if (token.getTokenType() == TokenType.NEW_EMAIL_VERIFICATION) { // NEW TYPE
             subject = "Anvi Studio: Verify Your New Email Address (OTP)";
-            action = "change your login email to " + user.getUsername();
         } else { // REGISTRATION
             subject = "Anvi Studio: Your One-Time Password (OTP) for Registration";
-            action = "activate your account";
         }
 
-        mailMessage.setFrom("Anvi Studio Support <bharath161099@gmail.com>");
-        // CRITICAL: Set the recipient to the User's username (which is the target email)
-        mailMessage.setTo(user.getUsername());
-        mailMessage.setSubject(subject);
-
-        String emailContent = String.format(
-                "Dear Customer,\n\n" +
-                        "Your One-Time Password (OTP) to %s is:\n\n" +
-                        "--- %s ---\n\n" +
-                        "This OTP expires in %d minutes.\n\n" +
-                        "If you did not request this, please ignore this email.",
-                action, token.getToken(), 5);
+        MailMerge body = otpBodies.computeIfAbsent(token.getTokenType(), this::prepareOtpBody);
 
-        mailMessage.setText(emailContent);
+        // CRITICAL: The recipient is the User's username (which is the target email)
+        mailQueueService.enqueue(OutboundMail.Lane.PRIORITY, FROM, user.getUsername(), subject,
+                body.merge(token.getToken(), user.getUsername()));
+        System.out.println("SMTP: Queued OTP email for " + token.getTokenType() + " to " + user.getUsername());
+    }
 
-        try {
-            javaMailSender.send(mailMessage);
-            System.out.println("SMTP: Successfully sent OTP email for " + token.getTokenType() + " to " + user.getUsername());
-        } catch (Exception e) {
-            System.err.println("SMTP ERROR: Failed to send OTP email for " + token.getTokenType() + " to " + user.getUsername());
-            e.printStackTrace();
+    private MailMerge prepareOtpBody(TokenType tokenType) {
+        // Customize the action based on the purpose of the OTP
+        String action;
+        if (tokenType == TokenType.PASSWORD_RESET) {
+            action = "reset your password";
+        } else if (tokenType == TokenType.NEW_EMAIL_VERIFICATION) {
+            action = "change your login email to " + mailTemplateService.field("email");
+        } else {
+            action = "activate your account";
         }
+        return mailTemplateService.prepare(MailTemplateService.OTP,
+                Map.of("action", action, "expiryMinutes", OTP_EXPIRY_MINUTES), "otp", "email");
     }
 }
\ No newline at end of file
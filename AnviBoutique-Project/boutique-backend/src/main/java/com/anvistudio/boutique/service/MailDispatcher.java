@@ -0,0 +1,331 @@
+package com.anvistudio.boutique.service;
+
+import com.anvistudio.boutique.model.OutboundMail;
+import com.anvistudio.boutique.model.OutboundMail.Lane;
+import com.anvistudio.boutique.repository.OutboundMailRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Drains the outbound_mail queue. Each lane has its own worker threads, so OTPs are never stuck
+ * behind a newsletter blast. A worker claims up to batch-size due mails and sends them with one
+ * multi-message send, which reuses a single SMTP connection for the whole batch.
+ * Failed mails are retried with exponential backoff and marked FAILED after max-attempts.
+ * <p>
+ * Rate-limit permits are taken before the claim, so the lease only covers the send itself. Results are
+ * written with the batch's claim token as a condition: if the lease expired and the mails were handed to
+ * another worker meanwhile, this worker's results are discarded rather than overwriting the new owner's.
+ * The rate limit (see MailRateLimiter) is enforced per node.
+ * <p>
+ * Workers are platform threads: Angus Mail's SMTP transport blocks inside synchronized methods,
+ * which would pin a virtual thread's carrier for every round trip.
+ */
+@Service
+public class MailDispatcher {
+
+    private final OutboundMailRepository mailRepository;
+    private final JavaMailSender javaMailSender;
+    private final MailRateLimiter rateLimiter;
+    private final String provider;
+
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration backoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+    private final Duration retention;
+    private final long pollIntervalMs;
+    private final Map<Lane, Integer> workerCounts = new EnumMap<>(Lane.class);
+
+    private final Map<Lane, Semaphore> signals = new EnumMap<>(Lane.class);
+    private final List<Thread> workers = new ArrayList<>();
+    // Guards start/stop; a j.u.c lock rather than synchronized, so a virtual caller does not pin
+    private final ReentrantLock lifecycleLock = new ReentrantLock();
+    private volatile boolean running;
+
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public MailDispatcher(OutboundMailRepository mailRepository, JavaMailSender javaMailSender,
+                          @Value("${app.mail.queue.batch-size:50}") int batchSize,
+                          @Value("${app.mail.queue.priority-workers:1}") int priorityWorkers,
+                          @Value("${app.mail.queue.bulk-workers:2}") int bulkWorkers,
+                          @Value("${app.mail.queue.poll-interval-ms:2000}") long pollIntervalMs,
+                          @Value("${app.mail.queue.max-attempts:5}") int maxAttempts,
+                          @Value("${app.mail.queue.backoff:30s}") Duration backoff,
+                          @Value("${app.mail.queue.max-backoff:30m}") Duration maxBackoff,
+                          @Value("${app.mail.queue.lease:5m}") Duration lease,
+                          @Value("${app.mail.queue.retention:7d}") Duration retention,
+                          @Value("${app.mail.rate.per-second:5}") double permitsPerSecond,
+                          @Value("${app.mail.rate.burst:20}") int burst) {
+        this.mailRepository = mailRepository;
+        this.javaMailSender = javaMailSender;
+        this.batchSize = Math.max(1, batchSize);
+        this.pollIntervalMs = pollIntervalMs;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoff = backoff;
+        this.maxBackoff = maxBackoff;
+        this.lease = lease;
+        this.retention = retention;
+        this.rateLimiter = new MailRateLimiter(permitsPerSecond, burst);
+        this.provider = javaMailSender instanceof JavaMailSenderImpl impl && impl.getHost() != null
+                ? impl.getHost() : "default";
+        workerCounts.put(Lane.PRIORITY, Math.max(1, priorityWorkers));
+        workerCounts.put(Lane.BULK, Math.max(1, bulkWorkers));
+        for (Lane lane : Lane.values()) {
+            signals.put(lane, new Semaphore(0));
+        }
+    }
+
+    /**
+     * Starts the lane workers once the application is up; mails claimed by a node that stopped
+     * mid-batch are returned to the queue first.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        lifecycleLock.lock();
+        try {
+            if (running) {
+                return;
+            }
+            releaseStaleClaims();
+            running = true;
+            for (Lane lane : Lane.values()) {
+                for (int i = 1; i <= workerCounts.get(lane); i++) {
+                    Thread worker = new Thread(() -> runWorker(lane), "mail-" + lane.name().toLowerCase() + "-" + i);
+                    worker.setDaemon(true);
+                    worker.start();
+                    workers.add(worker);
+                }
+            }
+        } finally {
+            lifecycleLock.unlock();
+        }
+        System.out.println("MAIL INFO: Outbound mail workers started (" + workerCounts + ", provider " + provider + ").");
+    }
+
+    @PreDestroy
+    public void stop() {
+        lifecycleLock.lock();
+        try {
+            running = false;
+            for (Thread worker : workers) {
+                worker.interrupt();
+            }
+            workers.clear();
+        } finally {
+            lifecycleLock.unlock();
+        }
+    }
+
+    /**
+     * Wakes the lane's workers now instead of at their next poll.
+     */
+    public void wake(Lane lane) {
+        signals.get(lane).release();
+    }
+
+    /**
+     * Returns expired claims to the queue and purges old sent mails.
+     */
+    @Scheduled(fixedDelayString = "${app.mail.queue.maintenance-interval-ms:60000}")
+    public void maintain() {
+        try {
+            releaseStaleClaims();
+            mailRepository.deleteSentBefore(new Date(System.currentTimeMillis() - retention.toMillis()));
+        } catch (RuntimeException e) {
+            System.err.println("MAIL ERROR: Outbound mail maintenance failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Dispatch counters since startup.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("provider", provider);
+        stats.put("workers", new LinkedHashMap<>(workerCounts));
+        stats.put("batches", batches.get());
+        stats.put("sent", sent.get());
+        stats.put("retried", retried.get());
+        stats.put("failed", failed.get());
+        return stats;
+    }
+
+    private void releaseStaleClaims() {
+        int released = mailRepository.releaseStaleClaims(new Date(System.currentTimeMillis() - lease.toMillis()));
+        if (released > 0) {
+            System.out.println("MAIL INFO: Returned " + released + " unfinished mails to the queue.");
+        }
+    }
+
+    private void runWorker(Lane lane) {
+        Semaphore signal = signals.get(lane);
+        while (running) {
+            try {
+                if (!dispatchBatch(lane)) {
+                    // Queue empty or nothing due: sleep until woken by an enqueue or the next poll
+                    signal.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                    signal.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                System.err.println("MAIL ERROR: " + lane + " worker failed: " + e.getMessage());
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Claims and sends one batch.
+     * @return false when no mail of the lane was due.
+     */
+    private boolean dispatchBatch(Lane lane) throws InterruptedException {
+        List<Long> dueIds = mailRepository.findDueIds(lane, new Date(), PageRequest.of(0, batchSize));
+        if (dueIds.isEmpty()) {
+            return false;
+        }
+        // Wait for the rate limit before claiming, so the lease clock starts when sending can start.
+        // Mails another worker claims meanwhile cost permits they do not use, which only errs on the slow side.
+        rateLimiter.acquire(provider, dueIds.size(), lane == Lane.PRIORITY);
+        String claimToken = UUID.randomUUID().toString();
+        if (mailRepository.claim(dueIds, claimToken, new Date()) == 0) {
+            return true; // another worker claimed them first; look again
+        }
+        List<OutboundMail> batch = mailRepository.findByClaimToken(claimToken);
+        send(batch, claimToken);
+        batches.incrementAndGet();
+        return true;
+    }
+
+    private void send(List<OutboundMail> batch, String claimToken) {
+        Map<Object, OutboundMail> byMessage = new IdentityHashMap<>();
+        Map<OutboundMail, Exception> failures = new IdentityHashMap<>();
+        List<MimeMessage> messages = new ArrayList<>(batch.size());
+        for (OutboundMail mail : batch) {
+            try {
+                MimeMessage message = toMimeMessage(mail);
+                messages.add(message);
+                byMessage.put(message, mail);
+            } catch (MessagingException e) {
+                failures.put(mail, e); // e.g. an invalid address; the rest of the batch still goes out
+            }
+        }
+
+        try {
+            if (!messages.isEmpty()) {
+                javaMailSender.send(messages.toArray(new MimeMessage[0]));
+            }
+        } catch (MailSendException e) {
+            // Keys are the MimeMessages that failed; an empty map means the whole batch failed
+            e.getFailedMessages().forEach((message, cause) -> {
+                OutboundMail mail = byMessage.get(message);
+                if (mail != null) {
+                    failures.put(mail, cause);
+                }
+            });
+            if (e.getFailedMessages().isEmpty()) {
+                byMessage.values().forEach(mail -> failures.put(mail, e));
+            }
+        } catch (MailException e) {
+            byMessage.values().forEach(mail -> failures.put(mail, e));
+        }
+
+        // Every write is conditional on the claim token: 0 rows means the lease expired and the mail now
+        // belongs to another batch, whose outcome must not be overwritten
+        Date now = new Date();
+        List<Long> sentIds = new ArrayList<>(batch.size());
+        int written = 0;
+        for (OutboundMail mail : batch) {
+            Exception cause = failures.get(mail);
+            if (cause == null) {
+                sentIds.add(mail.getId());
+                continue;
+            }
+            mail.setAttempts(mail.getAttempts() + 1);
+            scheduleRetry(mail, cause, now);
+            written += mailRepository.completeFailed(mail.getId(), claimToken, mail.getStatus(), mail.getAttempts(),
+                    mail.getNextAttemptAt(), mail.getLastError());
+        }
+        if (!sentIds.isEmpty()) {
+            int marked = mailRepository.completeSent(sentIds, claimToken, now);
+            sent.addAndGet(marked);
+            written += marked;
+        }
+        if (written < batch.size()) {
+            System.err.println("MAIL WARNING: " + (batch.size() - written) + " mails of a batch outlived their "
+                    + lease + " lease and were handed to another worker; this worker's results were discarded.");
+        }
+    }
+
+    /**
+     * Plain text, or multipart/alternative when the mail has an HTML body.
+     */
+    private MimeMessage toMimeMessage(OutboundMail mail) throws MessagingException {
+        MimeMessage message = javaMailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, mail.getHtmlBody() != null, "UTF-8");
+        helper.setFrom(mail.getSender());
+        helper.setTo(mail.getRecipient());
+        helper.setSubject(mail.getSubject());
+        if (mail.getHtmlBody() != null) {
+            helper.setText(mail.getBody(), mail.getHtmlBody());
+        } else {
+            helper.setText(mail.getBody());
+        }
+        return message;
+    }
+
+    private void scheduleRetry(OutboundMail mail, Exception cause, Date now) {
+        String message = String.valueOf(cause.getMessage());
+        mail.setLastError(message.length() > 1024 ? message.substring(0, 1024) : message);
+        if (mail.getAttempts() >= maxAttempts) {
+            mail.setStatus(OutboundMail.Status.FAILED);
+            failed.incrementAndGet();
+            System.err.println("SMTP ERROR: Giving up on " + mail.getLane() + " mail " + mail.getId() + " to "
+                    + mail.getRecipient() + " after " + mail.getAttempts() + " attempts: " + message);
+            return;
+        }
+        // 1x, 2x, 4x ... the base backoff, capped
+        long delayMs = Math.min(maxBackoff.toMillis(), backoff.toMillis() << Math.min(mail.getAttempts() - 1, 20));
+        mail.setStatus(OutboundMail.Status.PENDING);
+        mail.setNextAttemptAt(new Date(now.getTime() + delayMs));
+        retried.incrementAndGet();
+        System.err.println("SMTP ERROR: Failed to send " + mail.getLane() + " mail " + mail.getId() + " to "
+                + mail.getRecipient() + " (attempt " + mail.getAttempts() + "), retrying in " + delayMs / 1000 + "s: " + message);
+    }
+}
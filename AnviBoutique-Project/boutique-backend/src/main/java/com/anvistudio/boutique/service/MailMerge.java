@@ -0,0 +1,114 @@
+package com.anvistudio.boutique.service;
+
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An email body (text and HTML) rendered once by MailTemplateService with placeholders left for the
+ * merge fields, split at those placeholders. merge() only concatenates the shared segments with the
+ * per-message values, so a campaign costs one template render however many recipients it has.
+ */
+public final class MailMerge {
+
+    /**
+     * A merged email body.
+     */
+    public static final class Body {
+        private final String text;
+        private final String html;
+
+        public Body(String text, String html) {
+            this.text = text;
+            this.html = html;
+        }
+
+        public String getText() { return text; }
+        public String getHtml() { return html; }
+    }
+
+    private final String[] fields;
+    private final Part text;
+    private final Part html;
+
+    /**
+     * One rendered body split at the field placeholders:
+     * segments[0] + value(fieldAt[0]) + segments[1] + ... + segments[n].
+     */
+    private static final class Part {
+        final String[] segments;
+        final int[] fieldAt;
+        final int literalLength;
+
+        Part(String rendered, String[] placeholders) {
+            List<String> segments = new ArrayList<>();
+            List<Integer> fieldAt = new ArrayList<>();
+            int from = 0;
+            while (true) {
+                int next = -1;
+                int field = -1;
+                for (int f = 0; f < placeholders.length; f++) {
+                    int at = rendered.indexOf(placeholders[f], from);
+                    if (at >= 0 && (next < 0 || at < next)) {
+                        next = at;
+                        field = f;
+                    }
+                }
+                if (next < 0) {
+                    break;
+                }
+                segments.add(rendered.substring(from, next));
+                fieldAt.add(field);
+                from = next + placeholders[field].length();
+            }
+            segments.add(rendered.substring(from));
+            this.segments = segments.toArray(new String[0]);
+            this.fieldAt = fieldAt.stream().mapToInt(Integer::intValue).toArray();
+            this.literalLength = segments.stream().mapToInt(String::length).sum();
+        }
+
+        String merge(String[] values) {
+            StringBuilder out = new StringBuilder(literalLength + 32 * fieldAt.length);
+            for (int i = 0; i < fieldAt.length; i++) {
+                out.append(segments[i]).append(values[fieldAt[i]]);
+            }
+            return out.append(segments[segments.length - 1]).toString();
+        }
+    }
+
+    MailMerge(String[] fields, String renderedText, String renderedHtml) {
+        this.fields = fields.clone();
+        String[] placeholders = new String[fields.length];
+        for (int f = 0; f < fields.length; f++) {
+            placeholders[f] = placeholder(fields[f]);
+        }
+        this.text = new Part(renderedText, placeholders);
+        this.html = renderedHtml == null ? null : new Part(renderedHtml, placeholders);
+    }
+
+    /**
+     * The marker rendered in place of a merge field. Template-safe: HTML escaping leaves it unchanged.
+     */
+    static String placeholder(String field) {
+        return "@@merge:" + field + "@@";
+    }
+
+    /**
+     * Fills in the merge fields, in the order they were declared. Values are HTML-escaped for the HTML part.
+     */
+    public Body merge(String... values) {
+        if (values.length != fields.length) {
+            throw new IllegalArgumentException("Expected values for " + String.join(", ", fields));
+        }
+        String mergedHtml = null;
+        if (html != null) {
+            String[] escaped = new String[values.length];
+            for (int v = 0; v < values.length; v++) {
+                escaped[v] = HtmlUtils.htmlEscape(values[v]);
+            }
+            mergedHtml = html.merge(escaped);
+        }
+        return new Body(text.merge(values), mergedHtml);
+    }
+}
@@ -0,0 +1,93 @@
+package com.anvistudio.boutique.service;
+
+import com.anvistudio.boutique.model.OutboundMail;
+import com.anvistudio.boutique.model.OutboundMail.Lane;
+import com.anvistudio.boutique.repository.OutboundMailRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Entry point of the durable outbound mail queue. Mails are stored in the caller's transaction
+ * and sent asynchronously by MailDispatcher, so request threads never wait on SMTP and mail
+ * for a rolled-back change is never sent.
+ */
+@Service
+public class MailQueueService {
+
+    private final OutboundMailRepository mailRepository;
+    private final MailDispatcher mailDispatcher;
+    private final EntityManager entityManager;
+
+    public MailQueueService(OutboundMailRepository mailRepository, MailDispatcher mailDispatcher,
+                            EntityManager entityManager) {
+        this.mailRepository = mailRepository;
+        this.mailDispatcher = mailDispatcher;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Queues one email.
+     */
+    @Transactional
+    public void enqueue(Lane lane, String from, String to, String subject, MailMerge.Body body) {
+        enqueueAll(lane, from, List.of(to), subject, recipient -> body);
+    }
+
+    /**
+     * Queues one email per recipient (so addresses are not disclosed), with the body built for that recipient.
+     * @return The number of mails queued.
+     */
+    @Transactional
+    public int enqueueAll(Lane lane, String from, Collection<String> recipients, String subject,
+                          Function<String, MailMerge.Body> bodyFor) {
+        List<OutboundMail> mails = new ArrayList<>(recipients.size());
+        for (String to : recipients) {
+            MailMerge.Body body = bodyFor.apply(to);
+            mails.add(new OutboundMail(lane, from, to, subject, body.getText(), body.getHtml()));
+        }
+        mailRepository.saveAll(mails);
+        // Inserted already (IDENTITY); detach so a large fan-out does not pile up in the persistence context
+        entityManager.flush();
+        mails.forEach(entityManager::detach);
+        wakeAfterCommit(lane);
+        return mails.size();
+    }
+
+    /**
+     * Queue depth per lane and status, plus dispatcher counters.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        Map<String, Map<String, Long>> depth = new LinkedHashMap<>();
+        for (Object[] row : mailRepository.countByLaneAndStatus()) {
+            depth.computeIfAbsent(row[0].toString(), key -> new LinkedHashMap<>()).put(row[1].toString(), (Long) row[2]);
+        }
+        stats.put("queue", depth);
+        stats.put("dispatcher", mailDispatcher.getStats());
+        return stats;
+    }
+
+    private void wakeAfterCommit(Lane lane) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    mailDispatcher.wake(lane);
+                }
+            });
+        } else {
+            mailDispatcher.wake(lane);
+        }
+    }
+}
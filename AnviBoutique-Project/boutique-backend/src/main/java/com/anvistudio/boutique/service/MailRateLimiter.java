@@ -0,0 +1,73 @@
+package com.anvistudio.boutique.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token bucket per mail provider (SMTP host), so the queue never exceeds a provider's sending limit
+ * however many workers drain it. Bulk sends wait for tokens; priority sends (OTPs) never wait and
+ * may overdraw the bucket, which then delays the following bulk sends instead.
+ * <p>
+ * The buckets live in this JVM: N application instances send at up to N times app.mail.rate.per-second,
+ * so configure the provider's limit divided by the number of instances.
+ */
+class MailRateLimiter {
+
+    private final double permitsPerSecond;
+    private final double burst;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    private static final class Bucket {
+        final ReentrantLock lock = new ReentrantLock();
+        double tokens;
+        long refilledAt = System.nanoTime();
+
+        Bucket(double tokens) {
+            this.tokens = tokens;
+        }
+    }
+
+    MailRateLimiter(double permitsPerSecond, int burst) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = Math.max(1, burst);
+    }
+
+    /**
+     * Takes permits for the provider, blocking until they are available unless priority is set.
+     */
+    void acquire(String provider, int permits, boolean priority) throws InterruptedException {
+        if (permitsPerSecond <= 0) {
+            return; // unlimited
+        }
+        Bucket bucket = buckets.computeIfAbsent(provider, key -> new Bucket(burst));
+        while (true) {
+            long waitNanos;
+            bucket.lock.lock();
+            try {
+                refill(bucket);
+                if (priority || bucket.tokens >= permits) {
+                    bucket.tokens -= permits;
+                    return;
+                }
+                // A batch larger than the burst waits for a full bucket and then overdraws it
+                double needed = Math.min(permits, burst) - bucket.tokens;
+                if (needed <= 0) {
+                    bucket.tokens -= permits;
+                    return;
+                }
+                waitNanos = (long) (needed / permitsPerSecond * TimeUnit.SECONDS.toNanos(1));
+            } finally {
+                bucket.lock.unlock();
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.max(waitNanos, TimeUnit.MILLISECONDS.toNanos(1)));
+        }
+    }
+
+    private void refill(Bucket bucket) {
+        long now = System.nanoTime();
+        bucket.tokens = Math.min(burst, bucket.tokens + (now - bucket.refilledAt) / 1e9 * permitsPerSecond);
+        bucket.refilledAt = now;
+    }
+}
@@ -0,0 +1,81 @@
+package com.anvistudio.boutique.service;
+
+import com.anvistudio.boutique.model.Product;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders email bodies from the Thymeleaf templates in templates/mail (NAME.txt and NAME.html).
+ * Uses its own engines, separate from the web views, with the template cache on and the SpEL
+ * compiler enabled. Every template is parsed (and checked) once at startup by rendering it with
+ * sample data, so the first real email does not pay for parsing and a broken template fails the boot.
+ * <p>
+ * prepare() renders the shared part of a message once; the returned MailMerge fills in the
+ * per-recipient fields cheaply.
+ */
+@Service
+public class MailTemplateService {
+
+    public static final String OTP = "otp";
+    public static final String SALE_OFFER = "sale-offer";
+    public static final String SALE_DIGEST = "sale-digest";
+
+    private final SpringTemplateEngine textEngine = engine(TemplateMode.TEXT, ".txt");
+    private final SpringTemplateEngine htmlEngine = engine(TemplateMode.HTML, ".html");
+
+    public MailTemplateService() {
+        Product sample = new Product();
+        sample.setId(1L);
+        sample.setName("Sample");
+        sample.setPrice(BigDecimal.valueOf(1000));
+        sample.setDiscountPercent(10);
+
+        prepare(OTP, Map.of("action", "activate your account", "expiryMinutes", 5), "otp");
+        prepare(SALE_OFFER, Map.of("offerType", "Exclusive Offer", "product", sample, "productUrl", "/"), "recipient");
+        prepare(SALE_DIGEST, Map.of("listed", List.of(sample), "moreCount", 1, "productUrl", "/"), "recipient");
+        System.out.println("MAIL INFO: Email templates compiled and cached.");
+    }
+
+    /**
+     * Renders the template's text and HTML bodies once, leaving the merge fields as placeholders.
+     * @param variables Values shared by every message.
+     * @param mergeFields Names of the per-message variables, in the order MailMerge.merge expects them.
+     */
+    public MailMerge prepare(String template, Map<String, Object> variables, String... mergeFields) {
+        Map<String, Object> model = new HashMap<>(variables);
+        for (String field : mergeFields) {
+            model.put(field, MailMerge.placeholder(field));
+        }
+        Context context = new Context();
+        context.setVariables(model);
+        return new MailMerge(mergeFields, textEngine.process(template, context), htmlEngine.process(template, context));
+    }
+
+    /**
+     * The placeholder of a merge field, for shared values that embed one (e.g. an action naming the recipient).
+     */
+    public String field(String name) {
+        return MailMerge.placeholder(name);
+    }
+
+    private static SpringTemplateEngine engine(TemplateMode mode, String suffix) {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/mail/");
+        resolver.setSuffix(suffix);
+        resolver.setTemplateMode(mode);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(true);
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        engine.setEnableSpringELCompiler(true);
+        return engine;
+    }
+}
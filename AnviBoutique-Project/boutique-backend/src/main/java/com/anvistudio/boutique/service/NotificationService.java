@@ -1,39 +1,79 @@
 package com.anvistudio.boutique.service;
 
-import com.anvistudio.boutique.model.Customer;
 import com.anvistudio.boutique.model.Product;
-import com.anvistudio.boutique.model.User;
 import com.anvistudio.boutique.model.NewsletterSubscription;
-import com.anvistudio.boutique.repository.CustomerRepository;
+import com.anvistudio.boutique.model.OutboundMail;
+import com.anvistudio.boutique.model.SaleDigestDelivery;
 import com.anvistudio.boutique.repository.NewsletterSubscriptionRepository;
+import com.anvistudio.boutique.repository.ProductRepository;
+import com.anvistudio.boutique.repository.SaleDigestDeliveryRepository;
 import com.anvistudio.boutique.repository.UserRepository; // New Import
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
 public class NotificationService {
 
+    private static final String SALE_FROM = "Anvi Studio Offers <bharath161099@gmail.com>";
+    private static final String PRODUCT_URL = "http://localhost:8080/products/";
+
     private final NewsletterSubscriptionRepository subscriptionRepository;
-    private final CustomerRepository customerRepository;
     private final UserRepository userRepository;
-    private final JavaMailSender javaMailSender;
+    private final MailQueueService mailQueueService;
+    private final ProductRepository productRepository;
+    private final SaleDigestDeliveryRepository deliveryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MailTemplateService mailTemplateService;
+
+    // Recipients read per subscriber page and queued together
+    @Value("${app.mail.fanout-chunk-size:500}")
+    private int chunkSize;
+
+    // A product is announced to the same recipient at most once in this period
+    @Value("${app.mail.sale-digest.dedup-period:7d}")
+    private Duration dedupPeriod;
+
+    // At most one sale email per recipient in this interval
+    @Value("${app.mail.sale-digest.min-interval:6h}")
+    private Duration minInterval;
+
+    @Value("${app.mail.sale-digest.max-products:20}")
+    private int digestMaxProducts;
 
     public NotificationService(NewsletterSubscriptionRepository subscriptionRepository,
-                               CustomerRepository customerRepository,
                                UserRepository userRepository, // Injected
-                               JavaMailSender javaMailSender) {
+                               MailQueueService mailQueueService, ProductRepository productRepository,
+                               SaleDigestDeliveryRepository deliveryRepository,
+                               PlatformTransactionManager transactionManager,
+                               MailTemplateService mailTemplateService) {
         this.subscriptionRepository = subscriptionRepository;
-        this.customerRepository = customerRepository;
         this.userRepository = userRepository;
-        this.javaMailSender = javaMailSender;
+        this.mailQueueService = mailQueueService;
+        this.productRepository = productRepository;
+        this.deliveryRepository = deliveryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.mailTemplateService = mailTemplateService;
     }
 
     /**
@@ -73,91 +113,163 @@ public class NotificationService {
 
 
     /**
-     * Finds all unique emails for notification:
+     * Hands every unique notification email to the handler, chunkSize addresses at a time, until it returns false:
      * 1. Registered Customers who opted-in (`newsletterOptIn = true`)
      * 2. Non-registered Subscribers from the footer table (`isActive = true`)
-     * @return Set of unique email addresses.
+     * MODIFIED: One UNION query per chunk, paged by address instead of loading every customer and then each user.
+     * @return The number of emails handed over.
      */
-    private Set<String> getAllActiveSubscriberEmails() {
-        Set<String> emails = new HashSet<>();
+    private int forEachSubscriberChunk(Predicate<List<String>> handler) {
+        int total = 0;
+        String after = "";
+        List<String> chunk;
+        do {
+            chunk = subscriptionRepository.findRecipientEmailsAfter(after, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            after = chunk.get(chunk.size() - 1);
+            if (!handler.test(chunk)) {
+                break;
+            }
+            total += chunk.size();
+        } while (chunk.size() == chunkSize);
+        return total;
+    }
 
-        // 1. Get emails from registered customers who opted-in
-        List<Customer> customers = customerRepository.findAll().stream()
-                .filter(Customer::getNewsletterOptIn)
+    /**
+     * NEW: Handler for coalesced PRODUCT_DISCOUNTED outbox events (see OutboxRelay): every product discounted
+     * during the digest window goes out in one email per recipient.
+     * Per recipient, products already announced within the dedup period are left out, and a recipient who got a
+     * digest less than min-interval ago is skipped for now.
+     * Products that were deleted, hidden (isAvailable false) or lost their discount before the event was
+     * relayed are skipped.
+     * MODIFIED: Each chunk of recipients is queued and recorded in its own transaction, which first checks
+     * claimHeld (e.g. that the caller still owns its outbox events). A digest re-run after a failure or a
+     * lost claim therefore skips the recipients of committed chunks through their delivery history.
+     * @param claimHeld Run first in every chunk's transaction; the digest stops when it returns false.
+     * @return When skipped recipients become eligible again (the caller re-schedules the digest then); empty if none were skipped.
+     */
+    public Optional<Date> sendSaleDigest(Collection<Long> productIds, BooleanSupplier claimHeld) {
+        List<Product> products = productRepository.findAllById(new LinkedHashSet<>(productIds)).stream()
+                .filter(product -> product.getDiscountPercent() > 0 && Boolean.TRUE.equals(product.getIsAvailable()))
+                .sorted(Comparator.comparing(Product::getDiscountPercent).reversed().thenComparing(Product::getId))
                 .collect(Collectors.toList());
+        if (products.isEmpty()) {
+            System.out.println("NOTIFICATION: Products " + productIds + " are no longer on sale or available; skipping notification.");
+            return Optional.empty();
+        }
 
-        for (Customer customer : customers) {
-            // Ensure the user account itself is enabled and present
-            Optional<User> userOptional = userRepository.findById(customer.getUser().getId());
-            if (userOptional.isPresent()) {
-                emails.add(userOptional.get().getUsername());
+        long now = System.currentTimeMillis();
+        Date dedupSince = new Date(now - Math.max(dedupPeriod.toMillis(), minInterval.toMillis()));
+        Map<List<Long>, SaleEmail> rendered = new HashMap<>(); // product ids -> email rendered once, shared by recipients
+        long[] followUpAt = {Long.MAX_VALUE};
+        int[] queued = {0};
+        int[] deduplicated = {0};
+        int[] throttled = {0};
+        boolean[] stopped = {false};
+
+        int recipients = forEachSubscriberChunk(chunk -> Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (!claimHeld.getAsBoolean()) {
+                stopped[0] = true;
+                return false;
             }
-        }
+            Map<String, List<SaleDigestDelivery>> history = deliveryRepository
+                    .findByRecipientInAndSentAtAfter(chunk, dedupSince).stream()
+                    .collect(Collectors.groupingBy(SaleDigestDelivery::getRecipient));
+
+            // Recipients that get the same set of products share one rendered email
+            Map<List<Long>, List<String>> groups = new LinkedHashMap<>();
+            for (String email : chunk) {
+                List<SaleDigestDelivery> past = history.getOrDefault(email, List.of());
+                Set<Long> announced = new HashSet<>();
+                long lastSent = 0;
+                for (SaleDigestDelivery delivery : past) {
+                    lastSent = Math.max(lastSent, delivery.getSentAt().getTime());
+                    if (delivery.getSentAt().getTime() >= now - dedupPeriod.toMillis()) {
+                        for (String id : delivery.getProductIds().split(",")) {
+                            announced.add(Long.valueOf(id));
+                        }
+                    }
+                }
+                List<Long> fresh = products.stream().map(Product::getId)
+                        .filter(id -> !announced.contains(id)).collect(Collectors.toList());
+                if (fresh.isEmpty()) {
+                    deduplicated[0]++;
+                } else if (lastSent > now - minInterval.toMillis()) {
+                    throttled[0]++;
+                    followUpAt[0] = Math.min(followUpAt[0], lastSent + minInterval.toMillis());
+                } else {
+                    groups.computeIfAbsent(fresh, key -> new ArrayList<>()).add(email);
+                }
+            }
+
+            List<SaleDigestDelivery> deliveries = new ArrayList<>();
+            groups.forEach((ids, emails) -> {
+                SaleEmail email = rendered.computeIfAbsent(ids, key -> renderSaleEmail(products.stream()
+                        .filter(product -> key.contains(product.getId())).collect(Collectors.toList())));
+                // Only the recipient's address is merged into the shared body
+                queued[0] += mailQueueService.enqueueAll(OutboundMail.Lane.BULK, SALE_FROM, emails, email.subject(),
+                        recipient -> email.body().merge(recipient));
+                String csv = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+                emails.forEach(recipient -> deliveries.add(new SaleDigestDelivery(recipient, csv)));
+            });
+            // One multi-row INSERT per chunk, committed with the chunk's queued mail
+            deliveryRepository.insertAll(deliveries);
+            return true;
+        })));
 
-        // 2. Get emails from general newsletter subscribers
-        List<NewsletterSubscription> subscribers = subscriptionRepository.findByIsActiveTrue();
-        for (NewsletterSubscription subscriber : subscribers) {
-            emails.add(subscriber.getEmail());
+        if (stopped[0]) {
+            System.out.println("NOTIFICATION: Sale digest stopped after " + recipients + " recipients; its claim was taken over.");
+            return Optional.empty();
+        }
+        if (recipients == 0) {
+            System.out.println("NOTIFICATION: No active newsletter subscribers found.");
+            return Optional.empty();
         }
+        System.out.println("NOTIFICATION: Queued sale digest of " + products.size() + " products for " + queued[0]
+                + " subscribers (" + deduplicated[0] + " already notified, " + throttled[0] + " deferred).");
+        return followUpAt[0] == Long.MAX_VALUE ? Optional.empty() : Optional.of(new Date(followUpAt[0]));
+    }
 
-        return emails;
+    /**
+     * Purges digest history older than both the dedup period and the minimum interval.
+     */
+    @Scheduled(fixedDelayString = "${app.mail.sale-digest.purge-interval-ms:3600000}")
+    public void purgeDigestHistory() {
+        try {
+            long keepMs = Math.max(dedupPeriod.toMillis(), minInterval.toMillis());
+            deliveryRepository.deleteSentBefore(new Date(System.currentTimeMillis() - keepMs));
+        } catch (RuntimeException e) {
+            System.err.println("NOTIFICATION ERROR: Purging sale digest history failed: " + e.getMessage());
+        }
     }
 
     /**
-     * Sends an exclusive offer notification for a new/updated sale product.
-     * @param product The product now on sale/clearance.
+     * A sale email rendered for one set of products; the recipient is merged per message.
      */
-    public void sendSaleNotification(Product product) {
-        Set<String> recipientEmails = getAllActiveSubscriberEmails();
+    private record SaleEmail(String subject, MailMerge body) {
+    }
 
-        if (recipientEmails.isEmpty()) {
-            System.out.println("NOTIFICATION: No active newsletter subscribers found.");
-            return;
+    /**
+     * Builds the sale email for the given products (highest discount first).
+     * A single product keeps the classic offer email; several become a digest.
+     */
+    private SaleEmail renderSaleEmail(List<Product> products) {
+        if (products.size() == 1) {
+            Product product = products.get(0);
+            String offerType = product.isClearance() ? "🔥 Clearance Sale" : "✨ Exclusive Offer";
+            String subject = String.format("%s: New Product on Sale! - %s", offerType, product.getName());
+            return new SaleEmail(subject, mailTemplateService.prepare(MailTemplateService.SALE_OFFER,
+                    Map.of("offerType", offerType, "product", product, "productUrl", PRODUCT_URL), "recipient"));
         }
 
-        String offerType = product.isClearance() ? "🔥 Clearance Sale" : "✨ Exclusive Offer";
-        String subject = String.format("%s: New Product on Sale! - %s", offerType, product.getName());
-
-        // Note: Replace "http://yourboutique.com" with your actual domain or localhost address for testing
-        String productUrl = "http://localhost:8080/products/" + product.getId();
-
-        String body = String.format(
-                "Hello valued customer,\n\n" +
-                        "We are thrilled to announce a new product is now on %s!\n\n" +
-                        "Product: %s (%s)\n" +
-                        "Category: %s\n" +
-                        "Original Price: ₹ %.2f\n" +
-                        "Discount: %d%%\n" +
-                        "New Price: ₹ %.2f\n\n" +
-                        "Description: %s\n\n" +
-                        "Shop now before it sells out!\n" +
-                        "[Link to Product: %s]\n\n" + // Use the new product URL
-                        "Thank you for being an Anvi Studio subscriber!",
-                offerType,
-                product.getName(),
-                product.getSku(),
-                product.getCategory(),
-                product.getPrice().doubleValue(),
-                product.getDiscountPercent(),
-                product.getDiscountedPrice().doubleValue(),
-                product.getDescription(),
-                productUrl // Use the new product URL
-        );
-
-        // Send a separate email to each recipient
-        for (String email : recipientEmails) {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom("Anvi Studio Offers <bharath161099@gmail.com>");
-            message.setTo(email);
-            message.setSubject(subject);
-            message.setText(body);
-
-            try {
-                javaMailSender.send(message);
-                System.out.println("NOTIFICATION: Sent sale email to " + email);
-            } catch (Exception e) {
-                System.err.println("SMTP ERROR: Failed to send sale email to " + email + ": " + e.getMessage());
-            }
-        }
+        boolean anyClearance = products.stream().anyMatch(Product::isClearance);
+        String offerType = anyClearance ? "🔥 Clearance Sale" : "✨ Exclusive Offers";
+        String subject = String.format("%s: %d New Products on Sale!", offerType, products.size());
+        int listed = Math.min(products.size(), digestMaxProducts);
+        return new SaleEmail(subject, mailTemplateService.prepare(MailTemplateService.SALE_DIGEST,
+                Map.of("listed", products.subList(0, listed), "moreCount", products.size() - listed,
+                        "productUrl", PRODUCT_URL), "recipient"));
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.anvistudio.boutique.service;
 
+import com.anvistudio.boutique.dto.OrderDTO;
 import com.anvistudio.boutique.model.Address;
 import com.anvistudio.boutique.model.CartItem;
 import com.anvistudio.boutique.model.Order;
@@ -76,19 +77,19 @@ public Order fulfillOrder(User user, List<CartItem> cartItems, Address address,
 }
 
     /**
-     * NEW: Retrieves all orders regardless of user (for Admin dashboard).
+     * NEW: Retrieves all orders regardless of user (for Admin dashboard), newest first.
      */
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    public List<OrderDTO> getAllOrders() {
+        return orderRepository.findAllDtos();
     }
 
     /**
      * Retrieves all orders for the authenticated user.
      */
-    public List<Order> getOrdersByUsername(String username) {
+    public List<OrderDTO> getOrdersByUsername(String username) {
         User user = userService.findUserByUsername(username)
                 .orElseThrow(() -> new IllegalArgumentException("User not found: " + username));
-        return orderRepository.findByUserIdOrderByOrderDateDesc(user.getId());
+        return orderRepository.findDtosByUserId(user.getId());
     }
 
     /**
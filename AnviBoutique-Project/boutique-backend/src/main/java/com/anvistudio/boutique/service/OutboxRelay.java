@@ -0,0 +1,212 @@
+package com.anvistudio.boutique.service;
+
+import com.anvistudio.boutique.model.OutboxEvent;
+import com.anvistudio.boutique.repository.OutboxEventRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Transactional outbox for domain events. record() stores the event in the caller's transaction;
+ * once it commits, the relay is started on a background thread (and a poll catches anything missed,
+ * e.g. events recorded on a node that stopped).
+ * <p>
+ * Events of a type can be coalesced: the first event opens a window of the type's length, and events
+ * recorded while it is open (by createdAt) are due when it closes, so they are claimed and handled
+ * together (e.g. one sale digest for all products discounted during a sale launch). Only due events
+ * are claimed, so retries and follow-ups keep their backoff and schedule.
+ * <p>
+ * Handlers fan out in chunks, each committed in its own transaction together with a renewal of the
+ * batch's claim, so the lease only has to outlast one chunk. A relay whose claim was released and taken
+ * over stops at its next chunk, and only the current owner can mark the events PUBLISHED or retry them.
+ * Delivery is at least once: a batch re-run after a failure or a takeover repeats its handler, so
+ * handlers skip work already committed (the sale digest checks each recipient's delivery history).
+ * Failures are retried with exponential backoff and the events are marked FAILED after max-attempts.
+ */
+@Service
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxRepository;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ReentrantLock relayLock = new ReentrantLock();
+    private final AtomicBoolean rerun = new AtomicBoolean();
+
+    // Coalescing window of PRODUCT_DISCOUNTED events (one sale digest per window)
+    @Value("${app.mail.sale-digest.window:10m}")
+    private Duration saleDigestWindow;
+
+    @Value("${app.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.backoff:30s}")
+    private Duration backoff;
+
+    @Value("${app.outbox.lease:10m}")
+    private Duration lease;
+
+    @Value("${app.outbox.retention:7d}")
+    private Duration retention;
+
+    public OutboxRelay(OutboxEventRepository outboxRepository, NotificationService notificationService,
+                       PlatformTransactionManager transactionManager) {
+        this.outboxRepository = outboxRepository;
+        this.notificationService = notificationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Records an event in the current transaction; it is published after commit.
+     */
+    public void record(OutboxEvent.Type type, Long aggregateId) {
+        OutboxEvent event = new OutboxEvent(type, aggregateId);
+        long now = System.currentTimeMillis();
+        long window = windowOf(type).toMillis();
+        // Join the window opened by an earlier event, or open a new one
+        Date windowEnd = outboxRepository.findOpenWindowEnd(type, new Date(now - window), new Date(now),
+                new Date(now + window));
+        event.setNextAttemptAt(windowEnd != null ? windowEnd : new Date(now + window));
+        outboxRepository.save(event);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    executor.execute(OutboxRelay.this::relay);
+                }
+            });
+        } else {
+            executor.execute(this::relay);
+        }
+    }
+
+    /**
+     * Publishes every due event. Runs on a poll as well as after each commit that recorded one.
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:5000}")
+    public void relay() {
+        rerun.set(true);
+        // One relay per node at a time; a running relay loops again to pick up events recorded meanwhile
+        while (rerun.get() && relayLock.tryLock()) {
+            try {
+                rerun.set(false);
+                List<OutboxEvent.Type> dueTypes;
+                do {
+                    dueTypes = outboxRepository.findDueTypes(new Date());
+                    for (OutboxEvent.Type type : dueTypes) {
+                        publish(type);
+                    }
+                } while (!dueTypes.isEmpty());
+            } catch (RuntimeException e) {
+                System.err.println("OUTBOX ERROR: Relaying events failed: " + e.getMessage());
+                return;
+            } finally {
+                relayLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns expired claims to the queue and purges old published events.
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.maintenance-interval-ms:60000}")
+    public void maintain() {
+        try {
+            long now = System.currentTimeMillis();
+            outboxRepository.releaseStaleClaims(new Date(now - lease.toMillis()));
+            outboxRepository.deletePublishedBefore(new Date(now - retention.toMillis()));
+        } catch (RuntimeException e) {
+            System.err.println("OUTBOX ERROR: Outbox maintenance failed: " + e.getMessage());
+        }
+    }
+
+    private void publish(OutboxEvent.Type type) {
+        Date now = new Date();
+        String claimToken = UUID.randomUUID().toString();
+        if (outboxRepository.claimPending(type, claimToken, now) == 0) {
+            return; // another relay took them
+        }
+        try {
+            List<Long> aggregateIds = outboxRepository.findByClaimToken(claimToken).stream()
+                    .map(OutboxEvent::getAggregateId).distinct().toList();
+            Optional<Date> followUpAt = handle(type, aggregateIds,
+                    () -> outboxRepository.renewClaim(claimToken, new Date()) > 0);
+            boolean published = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (outboxRepository.markPublished(claimToken, new Date()) == 0) {
+                    return false;
+                }
+                // The handler could only partly complete (e.g. throttled recipients): run it again later
+                followUpAt.ifPresent(at -> aggregateIds.forEach(id -> {
+                    OutboxEvent followUp = new OutboxEvent(type, id);
+                    followUp.setNextAttemptAt(at);
+                    outboxRepository.save(followUp);
+                }));
+                return true;
+            }));
+            if (!published) {
+                System.err.println("OUTBOX WARNING: " + type + " events of relay run " + claimToken
+                        + " outlived their lease and were taken over; the new owner publishes them.");
+            }
+        } catch (RuntimeException e) {
+            outboxRepository.findByClaimToken(claimToken).forEach(event -> scheduleRetry(event, claimToken, e));
+        }
+    }
+
+    /**
+     * Runs the handler for a batch of events.
+     * @param claimHeld Renews the batch's claim; the handler calls it at the start of each chunk and stops once it fails.
+     * @return When the batch should be handled again, if it could only be partly completed.
+     */
+    private Optional<Date> handle(OutboxEvent.Type type, List<Long> aggregateIds, BooleanSupplier claimHeld) {
+        return switch (type) {
+            case PRODUCT_DISCOUNTED -> notificationService.sendSaleDigest(aggregateIds, claimHeld);
+        };
+    }
+
+    private Duration windowOf(OutboxEvent.Type type) {
+        return switch (type) {
+            case PRODUCT_DISCOUNTED -> saleDigestWindow;
+        };
+    }
+
+    private void scheduleRetry(OutboxEvent event, String claimToken, RuntimeException cause) {
+        String message = String.valueOf(cause.getMessage());
+        event.setAttempts(event.getAttempts() + 1);
+        event.setLastError(message.length() > 1024 ? message.substring(0, 1024) : message);
+        if (event.getAttempts() >= maxAttempts) {
+            event.setStatus(OutboxEvent.Status.FAILED);
+            System.err.println("OUTBOX ERROR: Giving up on " + event.getEventType() + " event " + event.getId()
+                    + " after " + event.getAttempts() + " attempts: " + message);
+        } else {
+            long delayMs = backoff.toMillis() << Math.min(event.getAttempts() - 1, 20);
+            event.setStatus(OutboxEvent.Status.PENDING);
+            event.setNextAttemptAt(new Date(System.currentTimeMillis() + delayMs));
+            System.err.println("OUTBOX ERROR: " + event.getEventType() + " event " + event.getId()
+                    + " failed (attempt " + event.getAttempts() + "), retrying in " + delayMs / 1000 + "s: " + message);
+        }
+        // Conditional on the claim, so a run that was taken over cannot overwrite the new owner's state
+        outboxRepository.completeFailed(event.getId(), claimToken, event.getStatus(), event.getAttempts(),
+                event.getNextAttemptAt(), event.getLastError());
+    }
+}
@@ -0,0 +1,113 @@
+package com.anvistudio.boutique.service;
+
+import com.anvistudio.boutique.dto.ProductDetailDTO;
+import com.anvistudio.boutique.dto.ProductSummaryDTO;
+import com.anvistudio.boutique.dto.ReviewCursor;
+import com.anvistudio.boutique.dto.ReviewPage;
+import com.anvistudio.boutique.model.Product;
+import com.anvistudio.boutique.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Assembles the product detail page in as few database round trips as possible:
+ * <ol>
+ *     <li>the product row, usually served from CatalogCache (average rating and count come from the
+ *     aggregates stored on it); a missing or hidden product ends the request here,</li>
+ *     <li>the first page of approved reviews, newest first, as lean DTOs,</li>
+ *     <li>up to four related products of the same category as summaries, via a LIMIT query.</li>
+ * </ol>
+ * With the product cached a page view costs two queries. They can run concurrently on virtual threads
+ * (app.catalog.detail-parallel), which holds a second pool connection per view; at most
+ * app.catalog.detail-parallel-max views do so at once, the rest run the two queries one after the other.
+ */
+@Service
+public class ProductDetailService {
+
+    private static final int RELATED_PRODUCT_LIMIT = 4;
+
+    private final ProductService productService;
+    private final ProductRepository productRepository;
+    private final ReviewService reviewService;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // Page views currently holding a second connection for the concurrent reviews query
+    private final Semaphore parallelPermits;
+
+    @Value("${app.catalog.detail-parallel:true}")
+    private boolean parallel;
+
+    public ProductDetailService(ProductService productService, ProductRepository productRepository,
+                                ReviewService reviewService,
+                                @Value("${app.catalog.detail-parallel-max:4}") int maxParallel) {
+        this.productService = productService;
+        this.productRepository = productRepository;
+        this.reviewService = reviewService;
+        this.parallelPermits = new Semaphore(Math.max(0, maxParallel));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Returns the detail read model, or empty if the product does not exist or is hidden from customers.
+     */
+    public Optional<ProductDetailDTO> getProductDetail(Long productId) {
+        // 1. The product first: unknown ids and hidden products cost no further queries
+        Optional<Product> product = productService.getProductById(productId);
+        if (product.isEmpty() || !product.get().getIsAvailable()) {
+            return Optional.empty();
+        }
+        Product found = product.get();
+
+        // 2. Reviews and related products, concurrently only while the pool can spare the extra connection
+        ReviewPage reviews;
+        List<ProductSummaryDTO> related;
+        if (parallel && parallelPermits.tryAcquire()) {
+            try {
+                CompletableFuture<ReviewPage> reviewsFuture =
+                        CompletableFuture.supplyAsync(() -> firstReviews(productId), executor);
+                related = findRelated(found);
+                reviews = join(reviewsFuture);
+            } finally {
+                parallelPermits.release();
+            }
+        } else {
+            reviews = firstReviews(productId);
+            related = findRelated(found);
+        }
+
+        return Optional.of(new ProductDetailDTO(found, reviews, found.getAverageRating(), found.getRatingCount(), related));
+    }
+
+    private ReviewPage firstReviews(Long productId) {
+        return reviewService.getApprovedReviewsPage(productId, ReviewCursor.NEWEST, null, null);
+    }
+
+    private List<ProductSummaryDTO> findRelated(Product product) {
+        return productRepository.findRelatedProducts(product.getCategory(), product.getId(),
+                PageRequest.of(0, RELATED_PRODUCT_LIMIT));
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
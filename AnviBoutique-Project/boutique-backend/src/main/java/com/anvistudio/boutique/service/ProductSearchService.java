@@ -0,0 +1,251 @@
+package com.anvistudio.boutique.service;
+
+import com.anvistudio.boutique.event.ProductChangedEvent;
+import com.anvistudio.boutique.model.Product;
+import com.anvistudio.boutique.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Embedded Lucene full-text index over the product catalog, stored on local disk.
+ * Replaces the former LIKE '%keyword%' scan over name, category, SKU and color with a ranked inverted-index lookup.
+ * Terms are stemmed ("sarees" finds "saree"), and the index is rebuilt from the database on startup and
+ * updated incrementally after every committed product change.
+ */
+@Service
+public class ProductSearchService {
+
+    private static final String FIELD_ID = "id";
+
+    // Searchable fields and their relevance weight
+    private static final Map<String, Float> FIELD_BOOSTS = new LinkedHashMap<>();
+    static {
+        FIELD_BOOSTS.put("name", 4.0f);
+        FIELD_BOOSTS.put("sku", 3.0f);
+        FIELD_BOOSTS.put("category", 2.0f);
+        FIELD_BOOSTS.put("color", 2.0f);
+        FIELD_BOOSTS.put("tags", 2.0f);
+        FIELD_BOOSTS.put("description", 1.0f);
+    }
+
+    private final ProductRepository productRepository;
+    // English stemming without stop words, so short SKU or size tokens ("a", "s") stay searchable
+    private final Analyzer analyzer = new EnglishAnalyzer(CharArraySet.EMPTY_SET);
+
+    @Value("${app.search.index-dir:data/product-index}")
+    private String indexDir;
+
+    @Value("${app.search.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.search.rebuild-on-startup:true}")
+    private boolean rebuildOnStartup;
+
+    private Directory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+
+    public ProductSearchService(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @PostConstruct
+    public void openIndex() {
+        try {
+            directory = FSDirectory.open(Paths.get(indexDir));
+            IndexWriterConfig config = new IndexWriterConfig(analyzer)
+                    .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+            writer = new IndexWriter(directory, config);
+            searcherManager = new SearcherManager(writer, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open product search index at " + indexDir, e);
+        }
+    }
+
+    @PreDestroy
+    public void closeIndex() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    /**
+     * Startup rebuild path: re-indexes the whole catalog so the on-disk index can never drift from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            int count = rebuildIndex();
+            System.out.println("SEARCH INFO: Product search index rebuilt with " + count + " products.");
+        }
+    }
+
+    /**
+     * Drops and re-creates every document from the products table.
+     * @return The number of indexed products.
+     */
+    public int rebuildIndex() {
+        try {
+            List<Product> products = productRepository.findAll();
+            writer.deleteAll();
+            for (Product product : products) {
+                writer.addDocument(toDocument(product));
+            }
+            writer.commit();
+            searcherManager.maybeRefresh();
+            return products.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to rebuild product search index", e);
+        }
+    }
+
+    /**
+     * Incremental update, applied only after the saveProduct/deleteProduct transaction has committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        try {
+            Term idTerm = new Term(FIELD_ID, String.valueOf(event.getProductId()));
+            if (event.isDeleted()) {
+                writer.deleteDocuments(idTerm);
+            } else {
+                writer.updateDocument(idTerm, toDocument(event.getProduct()));
+            }
+            writer.commit();
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            System.err.println("SEARCH ERROR: Failed to update index for product " + event.getProductId() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Full-text search. Every keyword term must match at least one field (exactly or as a prefix);
+     * results are ordered by relevance, best match first.
+     * Returns every match: callers filter and page the hits in SQL, so truncating them here would
+     * leave filtered pages short and totals wrong. Hits are read app.search.batch-size at a time.
+     * @return All matching product IDs in relevance order.
+     */
+    public List<Long> search(String keyword) {
+        Query query = buildQuery(keyword);
+        if (query == null) {
+            return new ArrayList<>();
+        }
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                StoredFields storedFields = searcher.storedFields();
+                List<Long> ids = new ArrayList<>();
+                ScoreDoc last = null;
+                while (true) {
+                    TopDocs topDocs = searcher.searchAfter(last, query, batchSize);
+                    for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                        ids.add(Long.valueOf(storedFields.document(scoreDoc.doc).get(FIELD_ID)));
+                    }
+                    if (topDocs.scoreDocs.length < batchSize) {
+                        return ids;
+                    }
+                    last = topDocs.scoreDocs[topDocs.scoreDocs.length - 1];
+                }
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Product search failed", e);
+        }
+    }
+
+    private Query buildQuery(String keyword) {
+        List<String> terms = analyze(keyword);
+        if (terms.isEmpty()) {
+            return null;
+        }
+
+        BooleanQuery.Builder allTerms = new BooleanQuery.Builder();
+        for (String term : terms) {
+            BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+            for (Map.Entry<String, Float> field : FIELD_BOOSTS.entrySet()) {
+                Term fieldTerm = new Term(field.getKey(), term);
+                // Exact (stemmed) token matches outrank prefix matches ("silk" vs "silken")
+                anyField.add(new BoostQuery(new TermQuery(fieldTerm), field.getValue()), BooleanClause.Occur.SHOULD);
+                anyField.add(new BoostQuery(new PrefixQuery(fieldTerm), field.getValue() / 2), BooleanClause.Occur.SHOULD);
+            }
+            allTerms.add(anyField.build(), BooleanClause.Occur.MUST);
+        }
+        return allTerms.build();
+    }
+
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        try (TokenStream tokenStream = analyzer.tokenStream("name", text)) {
+            CharTermAttribute termAttribute = tokenStream.addAttribute(CharTermAttribute.class);
+            tokenStream.reset();
+            while (tokenStream.incrementToken()) {
+                terms.add(termAttribute.toString());
+            }
+            tokenStream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    private Document toDocument(Product product) {
+        Document document = new Document();
+        document.add(new StringField(FIELD_ID, String.valueOf(product.getId()), Field.Store.YES));
+        addText(document, "name", product.getName());
+        addText(document, "sku", product.getSku());
+        addText(document, "category", product.getCategory());
+        addText(document, "color", product.getProductColor());
+        addText(document, "tags", product.getProductTags());
+        addText(document, "description", product.getDescription());
+        return document;
+    }
+
+    private void addText(Document document, String field, String value) {
+        if (value != null && !value.isBlank()) {
+            document.add(new TextField(field, value, Field.Store.NO));
+        }
+    }
+}
@@ -1,37 +1,111 @@
 package com.anvistudio.boutique.service;
 
+import com.anvistudio.boutique.dto.CatalogCursor;
+import com.anvistudio.boutique.dto.ProductPage;
+import com.anvistudio.boutique.dto.ProductSummaryDTO;
+import com.anvistudio.boutique.event.InvalidationBus;
+import com.anvistudio.boutique.event.ProductChangedEvent;
+import com.anvistudio.boutique.model.OutboxEvent;
 import com.anvistudio.boutique.model.Product;
 import com.anvistudio.boutique.repository.ProductRepository;
+import com.anvistudio.boutique.repository.ProductSpecifications;
 import com.anvistudio.boutique.repository.CartItemRepository;
 import com.anvistudio.boutique.repository.WishlistRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.Comparator;
 
 @Service
 public class ProductService {
 
+    // Extra sort key for keyword searches: order by full-text relevance
+    public static final String SORT_RELEVANCE = "relevance";
+
+    /**
+     * The fixed list of catalog categories offered in the storefront filters.
+     */
+    public static final List<String> CATEGORIES = List.of(
+            "Sarees", "Lehengas", "Kurtis", "Long Frocks", "Mom & Me", "Crop Top – Skirts",
+            "Handlooms", "Casual Frocks", "Ready To Wear", "Dupattas", "Kids wear",
+            "Dress Material", "Blouses", "Fabrics"
+    );
+
     private final ProductRepository productRepository;
     private final CartItemRepository cartItemRepository;
     private final WishlistRepository wishlistRepository;
-    private final NotificationService notificationService; // NEW INJECTION
+    private final OutboxRelay outboxRelay; // Sale notifications are published after commit
+    private final ProductSearchService productSearchService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogCache catalogCache;
+    private final InvalidationBus invalidationBus;
+    private final CatalogVersionService catalogVersionService;
+
+    // Size of the homepage "New Arrivals" list
+    private static final int FEATURED_LIMIT = 8;
+
+    @Value("${app.catalog.page-size:24}")
+    private int defaultPageSize;
+
+    @Value("${app.catalog.max-page-size:100}")
+    private int maxPageSize;
 
     public ProductService(ProductRepository productRepository, CartItemRepository cartItemRepository,
-                          WishlistRepository wishlistRepository, NotificationService notificationService) { // NEW CONSTRUCTOR PARAMETER
+                          WishlistRepository wishlistRepository, OutboxRelay outboxRelay,
+                          ProductSearchService productSearchService, ApplicationEventPublisher eventPublisher,
+                          CatalogCache catalogCache, InvalidationBus invalidationBus,
+                          CatalogVersionService catalogVersionService) {
         this.productRepository = productRepository;
         this.cartItemRepository = cartItemRepository;
         this.wishlistRepository = wishlistRepository;
-        this.notificationService = notificationService; // <--- CRITICAL: Initialization was missing or incorrect previously
+        this.outboxRelay = outboxRelay;
+        this.productSearchService = productSearchService;
+        this.eventPublisher = eventPublisher;
+        this.catalogCache = catalogCache;
+        this.invalidationBus = invalidationBus;
+        this.catalogVersionService = catalogVersionService;
+        // Products changed on another node: replay the change locally so every listener catches up
+        invalidationBus.subscribe(InvalidationBus.REGION_PRODUCT, key -> onRemoteProductChange(Long.valueOf(key)));
+    }
+
+    /**
+     * NEW: Re-reads a product changed by another instance and publishes the same ProductChangedEvent
+     * a local save/delete would, so the catalog cache, search index, suggestions and facets refresh.
+     */
+    private void onRemoteProductChange(Long productId) {
+        ProductChangedEvent event = productRepository.findById(productId)
+                .map(ProductChangedEvent::saved)
+                .orElseGet(() -> ProductChangedEvent.deleted(productId));
+        eventPublisher.publishEvent(event);
+    }
+
+    /**
+     * NEW: One-time migration for the persisted discounted_price column.
+     * Rows created before the column existed get their value computed in a single bulk UPDATE on startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillDiscountedPrices() {
+        int updated = productRepository.backfillDiscountedPrices();
+        if (updated > 0) {
+            System.out.println("CATALOG INFO: Backfilled discounted price for " + updated + " products.");
+        }
     }
 
     /**
-     * Retrieves a single product by its ID.
+     * Retrieves a single product by its ID (served from CatalogCache).
      */
     public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+        return catalogCache.getProduct(id, productRepository::findById);
     }
 
 
@@ -44,14 +118,6 @@ public class ProductService {
                 .orElse("https://placehold.co/80x80/f0f0f0/333?text=N%2FA");
     }
 
-
-    public List<Product> getRelatedProducts(String category, Long excludeProductId) {
-    List<Product> products = productRepository.findByCategory(category);
-    products.removeIf(p -> p.getId().equals(excludeProductId));
-    products.removeIf(p -> !p.getIsAvailable());
-    return products.stream().limit(4).collect(Collectors.toList());
-}
-
     /**
      * Retrieves all products (used for admin view).
      */
@@ -66,6 +132,8 @@ public class ProductService {
     /**
      * Admin function: Saves a new product or updates an existing one.
      * MODIFIED: Added logic to check for sale/clearance status and trigger notification.
+     * MODIFIED: The notification is recorded as an outbox event and sent after commit, so the save
+     * does not wait on (or hold its transaction open for) the subscriber fan-out.
      */
     @Transactional
     public Product saveProduct(Product product) {
@@ -88,112 +156,104 @@ public class ProductService {
         boolean isCurrentlyDiscounted = savedProduct.getDiscountPercent() > 0;
 
         if (isCurrentlyDiscounted && !wasPreviouslyDiscounted) {
-            System.out.println("Product is NEWLY discounted. Triggering sale notification...");
-            notificationService.sendSaleNotification(savedProduct);
+            System.out.println("Product is NEWLY discounted. Recording sale notification event...");
+            outboxRelay.record(OutboxEvent.Type.PRODUCT_DISCOUNTED, savedProduct.getId());
         }
 
+        // 4. Let derived catalog state (search index, ...) catch up once the transaction commits,
+        //    here and on the other instances, and invalidate HTTP caches (ETag)
+        catalogVersionService.bump();
+        eventPublisher.publishEvent(ProductChangedEvent.saved(savedProduct));
+        invalidationBus.publish(InvalidationBus.REGION_PRODUCT, String.valueOf(savedProduct.getId()));
+
         return savedProduct;
     }
 
 
     /**
      * Retrieves products based on multiple filter and sort criteria.
+     * All filtering and sorting is pushed down to the database via ProductSpecifications;
+     * only products marked as 'isAvailable' are returned to customers.
+     * Keyword searches are resolved by the full-text index (ProductSearchService) and can be
+     * ordered by relevance with sortBy=relevance.
+     * Returns summaries only; the full product is served by the detail endpoint.
      */
-    public List<Product> getFilteredProducts(String category, String sortBy, Double minPrice, Double maxPrice, String status, String color, String keyword) {
-        List<Product> products;
-
-        // 1. Base Retrieval (Filter by Keyword first for broad search, or Category)
-        if (keyword != null && !keyword.trim().isEmpty()) {
-            products = productRepository.searchByKeyword(keyword.trim());
-            category = null;
-        } else if (category != null && !category.trim().isEmpty()) {
-            products = productRepository.findByCategory(category.trim());
-        } else {
-            products = productRepository.findAll();
+    public List<ProductSummaryDTO> getFilteredProducts(String category, String sortBy, Double minPrice, Double maxPrice, String status, String color, String keyword) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return productRepository.findSummaries(
+                    ProductSpecifications.forCatalog(category, sortBy, minPrice, maxPrice, status, color), 0);
         }
 
-        // 2. Filter by Price (In-memory filtering - FIX APPLIED HERE)
-        if (minPrice != null || maxPrice != null) {
-            products.removeIf(p -> {
-                // *** FIX: Use discounted price for comparison in price range filtering ***
-                double price = p.getDiscountedPrice().doubleValue();
-                if (minPrice != null && price < minPrice) return true;
-                if (maxPrice != null && price > maxPrice) return true;
-                return false;
-            });
+        // Keyword search overrides the category filter (unchanged behaviour)
+        List<Long> rankedIds = productSearchService.search(keyword.trim());
+        if (rankedIds.isEmpty()) {
+            return new ArrayList<>();
         }
 
-        // 3. Filter by Color (In-memory filtering)
-        if (color != null && !color.trim().isEmpty()) {
-            final String normalizedColor = color.trim().toLowerCase();
-            products.removeIf(p -> p.getProductColor() == null || !p.getProductColor().toLowerCase().contains(normalizedColor));
+        boolean byRelevance = SORT_RELEVANCE.equals(sortBy);
+        List<ProductSummaryDTO> products = productRepository.findSummaries(
+                ProductSpecifications.forCatalog(null, byRelevance ? null : sortBy, minPrice, maxPrice, status, color)
+                        .and(ProductSpecifications.idIn(rankedIds)), 0);
+
+        if (byRelevance) {
+            Map<Long, Integer> rank = new HashMap<>();
+            for (int i = 0; i < rankedIds.size(); i++) {
+                rank.put(rankedIds.get(i), i);
+            }
+            products.sort(Comparator.comparing(p -> rank.get(p.getId())));
         }
+        return products;
+    }
 
 
-        // 4. Filter by Status (In-memory filtering)
-        if (status != null && !status.isEmpty()) {
-            switch (status) {
-                case "inStock":
-                    products.removeIf(p -> p.getStockQuantity() <= 0 || !p.getIsAvailable());
-                    break;
-                case "lowStock":
-                    products.removeIf(p -> p.getStockQuantity() <= 0 || p.getStockQuantity() > 5 || !p.getIsAvailable());
-                    break;
-                case "onSale":
-                    products.removeIf(p -> p.getDiscountPercent() <= 0);
-                    break;
-                case "clearance":
-                    products.removeIf(p -> !p.isClearance());
-                    break;
+    /**
+     * NEW: Cursor-paginated variant of getFilteredProducts.
+     * Uses keyset pagination on (sort key, id), so every page costs the same regardless of depth.
+     * @param cursor The nextCursor returned with the previous page, or null for the first page.
+     * @param size Requested page size (null uses app.catalog.page-size, capped at app.catalog.max-page-size).
+     */
+    public ProductPage getFilteredProductsPage(String category, String sortBy, Double minPrice, Double maxPrice,
+                                               String status, String color, String keyword, String cursor, Integer size) {
+        String sortKey = CatalogCursor.normalizeSort(sortBy);
+        CatalogCursor position = null;
+        if (cursor != null && !cursor.isBlank()) {
+            position = CatalogCursor.decode(cursor);
+            if (!position.getSortBy().equals(sortKey)) {
+                throw new IllegalArgumentException("Page cursor does not match the requested sort order.");
             }
         }
+        int pageSize = Math.max(1, Math.min(size != null ? size : defaultPageSize, maxPageSize));
 
-        // 5. Sort (In-memory sorting already uses discounted price correctly)
-        if (sortBy != null && !sortBy.isEmpty()) {
-            Comparator<Product> comparator;
-            switch (sortBy) {
-                case "priceAsc":
-                    comparator = Comparator.comparing(Product::getDiscountedPrice);
-                    break;
-                case "priceDesc":
-                    comparator = Comparator.comparing(Product::getDiscountedPrice).reversed();
-                    break;
-                case "oldest":
-                    comparator = Comparator.comparing(Product::getDateCreated);
-                    break;
-                case "latest":
-                default:
-                    comparator = Comparator.comparing(Product::getDateCreated).reversed();
-                    break;
+        Specification<Product> spec;
+        if (keyword != null && !keyword.trim().isEmpty()) {
+            List<Long> matchingIds = productSearchService.search(keyword.trim());
+            if (matchingIds.isEmpty()) {
+                return new ProductPage(new ArrayList<>(), null, false);
             }
-            products.sort(comparator);
+            spec = ProductSpecifications.forCatalog(null, sortKey, minPrice, maxPrice, status, color)
+                    .and(ProductSpecifications.idIn(matchingIds));
+        } else {
+            spec = ProductSpecifications.forCatalog(category, sortKey, minPrice, maxPrice, status, color);
         }
+        spec = spec.and(ProductSpecifications.after(position));
 
-        // Final filter: Only show products marked as 'isAvailable' to customers
-        products.removeIf(p -> !p.getIsAvailable());
+        // Fetch one extra row to learn whether another page exists without a COUNT query
+        List<ProductSummaryDTO> rows = productRepository.findSummaries(spec, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<ProductSummaryDTO> items = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        String nextCursor = hasMore ? CatalogCursor.after(sortKey, items.get(items.size() - 1)).encode() : null;
 
-        return products;
+        return new ProductPage(items, nextCursor, hasMore);
     }
 
 
     /**
-     * Retrieves the top 8 latest products for display (uses the sorting query).
-     */
-    public List<Product> getDisplayableProducts() {
-        // Ensure the home page only shows available products (good practice)
-        List<Product> availableProducts = productRepository.findTop8ByOrderByDateCreatedDesc();
-        availableProducts.removeIf(p -> !p.getIsAvailable());
-        return availableProducts;
-    }
-
-    /**
-     * Retrieves products based on category, or all products if category is null/empty.
+     * Retrieves the 8 latest available products for display (served from CatalogCache).
      */
-    public List<Product> getProductsByCategoryOrAll(String category) {
-        if (category != null && !category.trim().isEmpty()) {
-            return productRepository.findByCategory(category.trim());
-        }
-        return productRepository.findAll();
+    public List<ProductSummaryDTO> getDisplayableProducts() {
+        // Availability is filtered in the query, so hidden products no longer shorten the list
+        return catalogCache.getFeatured(() ->
+                productRepository.findLatestAvailableSummaries(PageRequest.of(0, FEATURED_LIMIT)));
     }
 
     /**
@@ -210,5 +270,9 @@ public class ProductService {
 
         // 3. Delete the product itself
         productRepository.deleteById(id);
+
+        catalogVersionService.bump();
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
+        invalidationBus.publish(InvalidationBus.REGION_PRODUCT, String.valueOf(id));
     }
 }
\ No newline at end of file
@@ -0,0 +1,285 @@
+package com.anvistudio.boutique.service;
+
+import com.anvistudio.boutique.dto.SuggestionDTO;
+import com.anvistudio.boutique.event.ProductChangedEvent;
+import com.anvistudio.boutique.model.Product;
+import com.anvistudio.boutique.repository.ProductRepository;
+import com.anvistudio.boutique.repository.WishlistRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Typeahead suggestions for the storefront search box, served from an in-memory prefix trie
+ * of product names, SEO tags and catalog categories.
+ * Popularity is the number of wishlist saves (plus one per product), summed over every product
+ * that carries the name, tag or category. The trie is built on startup and patched
+ * incrementally whenever an admin saves or deletes a product; wishlist counts are re-read
+ * for a changed product and for the whole catalog every app.suggest.popularity-refresh-ms.
+ */
+@Service
+public class ProductSuggestService {
+
+    public static final String TYPE_PRODUCT = "product";
+    public static final String TYPE_TAG = "tag";
+    public static final String TYPE_CATEGORY = "category";
+
+    private final ProductRepository productRepository;
+    private final WishlistRepository wishlistRepository;
+
+    @Value("${app.suggest.max-results:10}")
+    private int maxResults;
+
+    private SuggestionTrie trie;
+    private final Map<String, SuggestionTrie.Entry> entries = new HashMap<>();
+    private final Map<Long, Contribution> contributions = new HashMap<>();
+    private final Map<Long, Long> wishlistCounts = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * What a single product adds to the trie, remembered so it can be subtracted on update/delete.
+     */
+    private static final class Contribution {
+        long weight;
+        final List<String> entryKeys;
+
+        Contribution(long weight, List<String> entryKeys) {
+            this.weight = weight;
+            this.entryKeys = entryKeys;
+        }
+    }
+
+    public ProductSuggestService(ProductRepository productRepository, WishlistRepository wishlistRepository) {
+        this.productRepository = productRepository;
+        this.wishlistRepository = wishlistRepository;
+    }
+
+    /**
+     * Builds the trie from the full catalog.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Product> products = productRepository.findAll();
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : wishlistRepository.countGroupedByProduct()) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+
+        lock.writeLock().lock();
+        try {
+            trie = new SuggestionTrie(maxResults);
+            entries.clear();
+            contributions.clear();
+            wishlistCounts.clear();
+            wishlistCounts.putAll(counts);
+
+            // Categories are always suggested, even before any product is listed under them
+            for (String category : ProductService.CATEGORIES) {
+                adjust(entryFor(TYPE_CATEGORY, category), 1, 1);
+            }
+            for (Product product : products) {
+                applyProduct(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("SEARCH INFO: Suggestion trie built with " + entries.size() + " completions.");
+    }
+
+    /**
+     * Incremental update after a committed product save/delete.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // Current popularity of the product, read before taking the lock
+        Long wishlistCount = event.isDeleted() ? null : wishlistRepository.countByProductId(event.getProductId());
+
+        lock.writeLock().lock();
+        try {
+            if (trie == null) {
+                return; // Startup build has not run yet and will pick the change up
+            }
+            removeProduct(event.getProductId());
+            if (event.isDeleted()) {
+                wishlistCounts.remove(event.getProductId());
+            } else {
+                wishlistCounts.put(event.getProductId(), wishlistCount);
+                applyProduct(event.getProduct());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * NEW: Re-reads the wishlist counts of the whole catalog and re-ranks the completions of every
+     * product whose popularity changed since the last refresh (wishlist saves do not publish events).
+     * @return The number of products whose weight changed.
+     */
+    @Scheduled(initialDelayString = "${app.suggest.popularity-refresh-ms:300000}",
+            fixedDelayString = "${app.suggest.popularity-refresh-ms:300000}")
+    public int refreshPopularity() {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : wishlistRepository.countGroupedByProduct()) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+
+        int changed = 0;
+        lock.writeLock().lock();
+        try {
+            if (trie == null) {
+                return 0;
+            }
+            wishlistCounts.clear();
+            wishlistCounts.putAll(counts);
+            for (Map.Entry<Long, Contribution> product : contributions.entrySet()) {
+                Contribution contribution = product.getValue();
+                long weight = 1 + counts.getOrDefault(product.getKey(), 0L);
+                if (weight == contribution.weight) {
+                    continue;
+                }
+                for (String key : contribution.entryKeys) {
+                    SuggestionTrie.Entry entry = entries.get(key);
+                    if (entry != null) {
+                        adjust(entry, weight - contribution.weight, 0);
+                    }
+                }
+                contribution.weight = weight;
+                changed++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (changed > 0) {
+            System.out.println("SEARCH INFO: Suggestion popularity refreshed for " + changed + " products.");
+        }
+        return changed;
+    }
+
+    /**
+     * Returns the top completions for a prefix, most popular first.
+     */
+    public List<SuggestionDTO> suggest(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (trie == null) {
+                return new ArrayList<>();
+            }
+            List<SuggestionTrie.Entry> top = trie.lookup(prefix, Math.max(1, Math.min(limit, maxResults)));
+            List<SuggestionDTO> suggestions = new ArrayList<>(top.size());
+            for (SuggestionTrie.Entry entry : top) {
+                suggestions.add(new SuggestionDTO(entry.text, entry.type));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Internal (callers hold the write lock) ---
+
+    private void applyProduct(Product product) {
+        if (product.getIsAvailable() == null || !product.getIsAvailable()) {
+            return;
+        }
+
+        long weight = 1 + wishlistCounts.getOrDefault(product.getId(), 0L);
+        Set<SuggestionTrie.Entry> touched = new LinkedHashSet<>();
+        touched.add(entryFor(TYPE_PRODUCT, product.getName()));
+        touched.add(entryFor(TYPE_CATEGORY, product.getCategory()));
+        if (product.getProductTags() != null) {
+            for (String tag : product.getProductTags().split(",")) {
+                touched.add(entryFor(TYPE_TAG, tag));
+            }
+        }
+        touched.remove(null);
+
+        List<String> entryKeys = new ArrayList<>();
+        for (SuggestionTrie.Entry entry : touched) {
+            adjust(entry, weight, 1);
+            entryKeys.add(entryKey(entry.type, entry.text));
+        }
+        contributions.put(product.getId(), new Contribution(weight, entryKeys));
+    }
+
+    private void removeProduct(Long productId) {
+        Contribution contribution = contributions.remove(productId);
+        if (contribution == null) {
+            return;
+        }
+        for (String key : contribution.entryKeys) {
+            SuggestionTrie.Entry entry = entries.get(key);
+            if (entry != null) {
+                adjust(entry, -contribution.weight, -1);
+            }
+        }
+    }
+
+    /**
+     * Finds or creates (detached) the entry for a display text; null for blank text.
+     */
+    private SuggestionTrie.Entry entryFor(String type, String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        String display = text.trim().replaceAll("\\s+", " ");
+        return entries.computeIfAbsent(entryKey(type, display), key -> new SuggestionTrie.Entry(display, type));
+    }
+
+    private void adjust(SuggestionTrie.Entry entry, long weightDelta, int referenceDelta) {
+        List<String> keys = indexKeys(entry.text);
+        boolean wasIndexed = entry.references > 0;
+        entry.weight += weightDelta;
+        entry.references += referenceDelta;
+
+        if (entry.references <= 0) {
+            trie.remove(entry, keys);
+            entries.remove(entryKey(entry.type, entry.text));
+        } else if (wasIndexed) {
+            trie.reweigh(keys);
+        } else {
+            trie.add(entry, keys);
+        }
+    }
+
+    private static String entryKey(String type, String text) {
+        return type + "|" + normalize(text);
+    }
+
+    /**
+     * Every word suffix of the phrase, so "silk" completes "Red Silk Saree".
+     */
+    private static List<String> indexKeys(String text) {
+        String normalized = normalize(text);
+        List<String> keys = new ArrayList<>();
+        keys.add(normalized);
+        for (int i = 0; i < normalized.length(); i++) {
+            if (normalized.charAt(i) == ' ' && i + 1 < normalized.length()) {
+                keys.add(normalized.substring(i + 1));
+            }
+        }
+        return keys;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
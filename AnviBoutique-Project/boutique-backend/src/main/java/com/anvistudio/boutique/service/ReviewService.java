@@ -1,19 +1,34 @@
 package com.anvistudio.boutique.service;
 
+import com.anvistudio.boutique.dto.AdminReviewDTO;
+import com.anvistudio.boutique.dto.ReviewCursor;
+import com.anvistudio.boutique.dto.ReviewDTO;
+import com.anvistudio.boutique.dto.ReviewPage;
+import com.anvistudio.boutique.event.InvalidationBus;
 import com.anvistudio.boutique.model.Review;
 import com.anvistudio.boutique.model.Product;
 import com.anvistudio.boutique.model.User;
 import com.anvistudio.boutique.repository.ReviewRepository;
 import com.anvistudio.boutique.repository.UserRepository;
 import com.anvistudio.boutique.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * Service layer for handling product reviews and ratings.
+ * Every change to the set of approved reviews is mirrored into the rating aggregates stored on Product
+ * (sum, count and star histogram) within the same transaction.
  */
 @Service
 public class ReviewService {
@@ -21,11 +36,35 @@ public class ReviewService {
     private final ReviewRepository reviewRepository; // CRITICAL FIX: Made private
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
+    private final CatalogCache catalogCache;
+    private final CatalogVersionService catalogVersionService;
+    private final InvalidationBus invalidationBus;
 
-    public ReviewService(ReviewRepository reviewRepository, UserRepository userRepository, ProductRepository productRepository) {
+    @Value("${app.reviews.page-size:10}")
+    private int defaultPageSize;
+
+    @Value("${app.reviews.max-page-size:50}")
+    private int maxPageSize;
+
+    public ReviewService(ReviewRepository reviewRepository, UserRepository userRepository,
+                         ProductRepository productRepository, CatalogCache catalogCache,
+                         CatalogVersionService catalogVersionService, InvalidationBus invalidationBus) {
         this.reviewRepository = reviewRepository;
         this.userRepository = userRepository;
         this.productRepository = productRepository;
+        this.catalogCache = catalogCache;
+        this.catalogVersionService = catalogVersionService;
+        this.invalidationBus = invalidationBus;
+    }
+
+    /**
+     * NEW: The stored rating aggregates of a product changed: refresh cached copies here and on the
+     * other instances, and move the catalog version on (all effective once the transaction commits).
+     */
+    private void ratingsChanged(Long productId) {
+        catalogCache.evictProductAfterCommit(productId);
+        catalogVersionService.bump();
+        invalidationBus.publish(InvalidationBus.REGION_PRODUCT, String.valueOf(productId));
     }
 
     /**
@@ -56,6 +95,12 @@ public class ReviewService {
         if (existingReviewOptional.isPresent()) {
             // Update existing review
             review = existingReviewOptional.get();
+            // The edit takes the review out of the approved set until it is re-approved; conditional, so a
+            // concurrent approval or delete cannot make it leave the aggregates twice (or not at all)
+            if (reviewRepository.withdrawApproval(review.getId()) == 1) {
+                productRepository.adjustRatingAggregates(productId, review.getRating(), -1);
+                ratingsChanged(productId);
+            }
             review.setRating(rating);
             review.setComment(comment);
             review.setIsApproved(false); // Reset approval status upon update (requires admin re-review)
@@ -91,17 +136,17 @@ public class ReviewService {
     }
 
     /**
-     * Retrieves the average rating for a given product ID.
+     * Retrieves the average rating for a given product ID (from the stored aggregates).
      */
     public double getAverageRating(Long productId) {
-        return reviewRepository.findAverageRatingByProductId(productId).orElse(0.0);
+        return productRepository.findById(productId).map(Product::getAverageRating).orElse(0.0);
     }
 
     /**
-     * Retrieves the count of approved reviews for a given product ID.
+     * Retrieves the count of approved reviews for a given product ID (from the stored aggregates).
      */
     public long getReviewCount(Long productId) {
-        return reviewRepository.countByProductIdAndIsApprovedTrue(productId);
+        return productRepository.findById(productId).map(Product::getRatingCount).orElse(0);
     }
 
     /**
@@ -111,11 +156,56 @@ public class ReviewService {
         return reviewRepository.findByProductIdAndIsApprovedTrueOrderByDatePostedDesc(productId);
     }
 
+    /**
+     * NEW: Retrieves one page of a product's approved reviews using keyset pagination.
+     * @param sort 'newest' (default), 'highest' or 'lowest'.
+     * @param cursor The nextCursor of the previous page, or null for the first page.
+     * @param size Page size; defaults to app.reviews.page-size and is capped at app.reviews.max-page-size.
+     * @throws IllegalArgumentException if the cursor is malformed or belongs to another sort order.
+     */
+    public ReviewPage getApprovedReviewsPage(Long productId, String sort, String cursor, Integer size) {
+        String sortKey = ReviewCursor.normalizeSort(sort);
+        ReviewCursor position = null;
+        if (cursor != null && !cursor.isBlank()) {
+            position = ReviewCursor.decode(cursor);
+            if (!position.getSort().equals(sortKey)) {
+                throw new IllegalArgumentException("Review cursor does not match the requested sort order.");
+            }
+        }
+        int pageSize = Math.max(1, Math.min(size != null ? size : defaultPageSize, maxPageSize));
+
+        // Fetch one extra row to learn whether another page exists without a COUNT query
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<ReviewDTO> rows;
+        switch (sortKey) {
+            case ReviewCursor.HIGHEST:
+                rows = position == null
+                        ? reviewRepository.findHighestApproved(productId, limit)
+                        : reviewRepository.findHighestApprovedAfter(productId, (int) position.getKey(), position.getId(), limit);
+                break;
+            case ReviewCursor.LOWEST:
+                rows = position == null
+                        ? reviewRepository.findLowestApproved(productId, limit)
+                        : reviewRepository.findLowestApprovedAfter(productId, (int) position.getKey(), position.getId(), limit);
+                break;
+            default:
+                rows = position == null
+                        ? reviewRepository.findNewestApproved(productId, limit)
+                        : reviewRepository.findNewestApprovedAfter(productId, new Date(position.getKey()), position.getId(), limit);
+                break;
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ReviewDTO> items = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        String nextCursor = hasMore ? ReviewCursor.after(sortKey, items.get(items.size() - 1)).encode() : null;
+        return new ReviewPage(items, nextCursor, hasMore);
+    }
+
     /**
      * NEW: Retrieves all unapproved reviews for Admin Moderation.
      */
-    public List<Review> getUnapprovedReviews() {
-        return reviewRepository.findByIsApprovedFalseOrderByDatePostedAsc();
+    public List<AdminReviewDTO> getUnapprovedReviews() {
+        return reviewRepository.findUnapprovedDtos();
     }
 
     // --- Admin-only methods ---
@@ -129,20 +219,68 @@ public class ReviewService {
 
     /**
      * Approves a specific review.
+     * MODIFIED: The flag is flipped with a conditional UPDATE and the aggregates adjusted only if this call
+     * flipped it, so concurrent approvals count the review once.
      */
     @Transactional
     public void approveReview(Long reviewId) {
-        Review review = getReviewById(reviewId)
-                .orElseThrow(() -> new IllegalArgumentException("Review not found."));
-        review.setIsApproved(true);
-        reviewRepository.save(review);
+        if (reviewRepository.approveIfPending(reviewId) == 0) {
+            if (!reviewRepository.existsById(reviewId)) {
+                throw new IllegalArgumentException("Review not found.");
+            }
+            return; // Already approved and counted
+        }
+        // Loaded after the UPDATE, which holds the row lock: the rating cannot change before commit
+        Review review = getReviewById(reviewId).orElseThrow();
+        productRepository.adjustRatingAggregates(review.getProduct().getId(), review.getRating(), 1);
+        ratingsChanged(review.getProduct().getId());
     }
 
     /**
      * Deletes a review.
+     * MODIFIED: Deleted with a DELETE conditional on the approval state and rating just read, and the
+     * aggregates adjusted only if that row was removed, so an approval, edit or delete racing with it
+     * cannot leave the aggregates off.
      */
     @Transactional
     public void deleteReview(Long reviewId) {
-        reviewRepository.deleteById(reviewId);
+        reviewRepository.findById(reviewId).ifPresent(review -> {
+            boolean approved = Boolean.TRUE.equals(review.getIsApproved());
+            if (reviewRepository.deleteIfUnchanged(reviewId, approved, review.getRating()) == 0) {
+                if (reviewRepository.existsById(reviewId)) {
+                    throw new IllegalStateException("The review was changed while it was being deleted; please try again.");
+                }
+                return; // Deleted meanwhile
+            }
+            if (approved) {
+                productRepository.adjustRatingAggregates(review.getProduct().getId(), review.getRating(), -1);
+                ratingsChanged(review.getProduct().getId());
+            }
+        });
+    }
+
+    /**
+     * NEW: Recomputes every product's rating aggregates from the approved reviews and corrects any drift
+     * (e.g. reviews changed directly in the database). Runs on startup, which also fills the aggregates
+     * for reviews that predate them, and nightly.
+     * @return The number of products whose stored aggregates were corrected.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.reviews.reconcile-cron:0 30 3 * * *}")
+    @Transactional
+    public int reconcileRatingAggregates() {
+        // Drifted products are listed for cache eviction; the values are recomputed inside the UPDATE itself
+        List<Long> drifted = productRepository.findIdsWithDriftedRatings();
+        if (drifted.isEmpty()) {
+            System.out.println("REVIEW INFO: Rating aggregates reconciled, 0 products corrected.");
+            return 0;
+        }
+        int corrected = productRepository.recomputeDriftedRatings();
+        for (Long productId : drifted) {
+            ratingsChanged(productId);
+            System.err.println("REVIEW WARNING: Rating aggregates of product " + productId + " had drifted and were corrected.");
+        }
+        System.out.println("REVIEW INFO: Rating aggregates reconciled, " + corrected + " products corrected.");
+        return corrected;
     }
 }
\ No newline at end of file
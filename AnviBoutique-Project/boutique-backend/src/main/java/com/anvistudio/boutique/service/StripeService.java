@@ -74,7 +74,7 @@ public class StripeService {
         }
 
         // Calculate total amount in smallest unit (e.g., paise)
-        Long amountInCents = BigDecimal.valueOf(cartService.getCartTotal(userId))
+        Long amountInCents = BigDecimal.valueOf(cartService.calculateTotal(cartItems))
                 .multiply(BigDecimal.valueOf(100))
                 .longValue();
 
@@ -0,0 +1,146 @@
+package com.anvistudio.boutique.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Prefix trie used by ProductSuggestService for typeahead completions.
+ * Every node caches its top-K entries (highest weight first), so a lookup is a walk down the
+ * prefix plus a list copy. Updates only recompute the caches along the affected paths.
+ * Not thread-safe: callers must guard reads and writes.
+ */
+class SuggestionTrie {
+
+    /**
+     * A completion. The same entry can be reachable through several keys (e.g. each word of a product name).
+     */
+    static final class Entry {
+        final String text;
+        final String type;
+        long weight;
+        int references;
+
+        Entry(String text, String type) {
+            this.text = text;
+            this.type = type;
+        }
+    }
+
+    private static final class Node {
+        final Map<Character, Node> children = new HashMap<>();
+        final Set<Entry> terminals = new LinkedHashSet<>();
+        List<Entry> top = List.of();
+    }
+
+    private static final Comparator<Entry> BY_POPULARITY = Comparator
+            .comparingLong((Entry e) -> e.weight).reversed()
+            .thenComparing(e -> e.text);
+
+    private final int topK;
+    private final Node root = new Node();
+
+    SuggestionTrie(int topK) {
+        this.topK = topK;
+    }
+
+    /**
+     * Makes the entry reachable under each key.
+     */
+    void add(Entry entry, Collection<String> keys) {
+        for (String key : keys) {
+            List<Node> path = walk(key, true);
+            path.get(path.size() - 1).terminals.add(entry);
+            recompute(path);
+        }
+    }
+
+    /**
+     * Removes the entry from each key.
+     */
+    void remove(Entry entry, Collection<String> keys) {
+        for (String key : keys) {
+            List<Node> path = walk(key, false);
+            if (path != null) {
+                path.get(path.size() - 1).terminals.remove(entry);
+                recompute(path);
+                prune(key, path);
+            }
+        }
+    }
+
+    /**
+     * Re-sorts the cached top lists along each key after the entry's weight changed.
+     */
+    void reweigh(Collection<String> keys) {
+        for (String key : keys) {
+            List<Node> path = walk(key, false);
+            if (path != null) {
+                recompute(path);
+            }
+        }
+    }
+
+    /**
+     * Returns up to limit entries whose keys start with the prefix, most popular first.
+     */
+    List<Entry> lookup(String prefix, int limit) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children.get(prefix.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        return node.top.size() <= limit ? node.top : node.top.subList(0, limit);
+    }
+
+    private List<Node> walk(String key, boolean create) {
+        List<Node> path = new ArrayList<>(key.length() + 1);
+        Node node = root;
+        path.add(node);
+        for (int i = 0; i < key.length(); i++) {
+            Node child = node.children.get(key.charAt(i));
+            if (child == null) {
+                if (!create) {
+                    return null;
+                }
+                child = new Node();
+                node.children.put(key.charAt(i), child);
+            }
+            node = child;
+            path.add(node);
+        }
+        return path;
+    }
+
+    // Bottom-up: each node's top list is the best of its own terminals and its children's top lists
+    private void recompute(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            Set<Entry> candidates = new LinkedHashSet<>(node.terminals);
+            for (Node child : node.children.values()) {
+                candidates.addAll(child.top);
+            }
+            List<Entry> sorted = new ArrayList<>(candidates);
+            sorted.sort(BY_POPULARITY);
+            node.top = List.copyOf(sorted.size() > topK ? sorted.subList(0, topK) : sorted);
+        }
+    }
+
+    // Drops nodes that no longer lead to any entry
+    private void prune(String key, List<Node> path) {
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node node = path.get(i);
+            if (!node.terminals.isEmpty() || !node.children.isEmpty()) {
+                return;
+            }
+            path.get(i - 1).children.remove(key.charAt(i - 1));
+        }
+    }
+}
@@ -8,6 +8,8 @@ import com.anvistudio.boutique.repository.CustomerRepository;
 import com.anvistudio.boutique.repository.UserRepository;
 import com.anvistudio.boutique.repository.VerificationTokenRepository;
 import com.anvistudio.boutique.dto.RegistrationDTO;
+import com.anvistudio.boutique.event.InvalidationBus;
+import com.anvistudio.boutique.security.PrincipalCache;
 import jakarta.annotation.PostConstruct;
 
 import org.springframework.context.annotation.Lazy;
@@ -15,6 +17,7 @@ import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -28,7 +31,7 @@ import java.util.Date;
 import java.util.regex.Pattern;
 
 @Service
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
 
     private static final Pattern PHONE_PATTERN = Pattern.compile("^[+]?[0-9]{10,15}$");
 
@@ -47,15 +50,31 @@ public class UserService implements UserDetailsService {
     private final VerificationTokenRepository tokenRepository;
     private final EmailService emailService;
     private final PasswordEncoder passwordEncoder;
+    private final InvalidationBus invalidationBus;
+    private final PrincipalCache principalCache;
 
     public UserService(UserRepository userRepository, CustomerRepository customerRepository,
                        VerificationTokenRepository tokenRepository, EmailService emailService,
-                       @Lazy PasswordEncoder passwordEncoder) {
+                       @Lazy PasswordEncoder passwordEncoder, InvalidationBus invalidationBus,
+                       PrincipalCache principalCache) {
         this.userRepository = userRepository;
         this.customerRepository = customerRepository;
         this.tokenRepository = tokenRepository;
         this.emailService = emailService;
         this.passwordEncoder = passwordEncoder;
+        this.invalidationBus = invalidationBus;
+        this.principalCache = principalCache;
+    }
+
+    /**
+     * NEW: Drops the cached principals of these usernames here and tells the other instances to do
+     * the same (both only once the surrounding transaction commits).
+     */
+    private void broadcastUserChange(String... usernames) {
+        principalCache.evictAfterCommit(usernames);
+        for (String username : usernames) {
+            invalidationBus.publish(InvalidationBus.REGION_USER, username);
+        }
     }
 
     /**
@@ -113,6 +132,23 @@ public class UserService implements UserDetailsService {
         );
     }
 
+    /**
+     * NEW: Stores a re-hashed password after login when the old hash used a lower BCrypt cost
+     * than configured (called by DaoAuthenticationProvider with the already-encoded password).
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newEncodedPassword) {
+        userRepository.findByUsername(userDetails.getUsername()).ifPresent(user -> {
+            user.setPassword(newEncodedPassword);
+            userRepository.save(user);
+            System.out.println("SECURITY INFO: Upgraded password hash cost for " + user.getUsername());
+        });
+        return org.springframework.security.core.userdetails.User.withUserDetails(userDetails)
+                .password(newEncodedPassword)
+                .build();
+    }
+
     /**
      * Finds the User entity (not UserDetails) by username (email).
      */
@@ -123,38 +159,15 @@ public class UserService implements UserDetailsService {
     /**
      * NEW: Finds a User by either username (email) or phone number.
      * Used by loadUserByUsername and Forgot Password feature.
+     * Precedence: username, then customer phone number, then admin recovery phone.
+     * Identifiers that are not phone-shaped can only be usernames; the others are resolved by one
+     * statement that ranks the three index lookups (UserRepository.findByLoginIdentifier).
      */
     public Optional<User> findUserByIdentifier(String identifier) {
-        // 1. Try to treat identifier as email (User.username)
-        Optional<User> userByEmail = userRepository.findByUsername(identifier);
-        if (userByEmail.isPresent()) {
-            return userByEmail;
-        }
-
-        // 2. If not found by email, check if it matches phone pattern
-        if (PHONE_PATTERN.matcher(identifier).matches()) {
-
-            // 2a. Try to find CUSTOMER by phone number (via Customer profile table)
-            Optional<User> customerUser = customerRepository.findByPhoneNumber(identifier)
-                    .map(Customer::getUser);
-            if (customerUser.isPresent()) {
-                return customerUser;
-            }
-
-            // 2b. Try to find ADMIN by recovery phone number (via User table)
-            // Use stream to handle potential multiple matches, though recovery phone should ideally be unique.
-            Optional<User> adminUser = userRepository.findAll().stream()
-                    .filter(u -> "ADMIN".equals(u.getRole()))
-                    .filter(u -> identifier.equals(u.getRecoveryPhoneNumber()))
-                    .findFirst();
-
-            if (adminUser.isPresent()) {
-                return adminUser;
-            }
+        if (!PHONE_PATTERN.matcher(identifier).matches()) {
+            return userRepository.findByUsername(identifier);
         }
-
-        // 3. Not found by email or valid phone pattern
-        return Optional.empty();
+        return userRepository.findByLoginIdentifier(identifier);
     }
 
 
@@ -178,6 +191,9 @@ public class UserService implements UserDetailsService {
         if (!PHONE_PATTERN.matcher(recoveryPhoneNumber).matches()) {
             throw new IllegalStateException("Invalid phone number format for recovery.");
         }
+        if (userRepository.existsByRecoveryPhoneNumberAndIdNot(recoveryPhoneNumber, adminUser.getId())) {
+            throw new IllegalStateException("This recovery phone number is already in use.");
+        }
 
         // Validation: Enforce new password policy
         if (!PASSWORD_POLICY_PATTERN.matcher(newPassword).matches()) {
@@ -192,6 +208,7 @@ public class UserService implements UserDetailsService {
         adminUser.setEmailVerified(true);
         adminUser.setCredentialsUpdated(true); // This invalidates the default login.
 
+        broadcastUserChange(currentUsername, newUsername);
         return userRepository.save(adminUser);
     }
 
@@ -214,7 +231,7 @@ public class UserService implements UserDetailsService {
         }
 
         // Ensure phone number isn't already used
-        if (customerRepository.findByPhoneNumber(registrationDTO.getPhoneNumber()).isPresent()) {
+        if (customerRepository.existsByPhoneNumber(registrationDTO.getPhoneNumber())) {
             throw new IllegalStateException("Phone number is already registered.");
         }
 
@@ -385,6 +402,7 @@ public class UserService implements UserDetailsService {
         // 3. OTP is valid: Update the user's username (email)
         user.setUsername(newEmail);
         userRepository.save(user);
+        broadcastUserChange(currentUsername, newEmail);
 
         // 4. Delete the token
         tokenRepository.delete(token);
@@ -447,6 +465,7 @@ public class UserService implements UserDetailsService {
             User user = verifiedUser.get();
             user.setEmailVerified(true);
             userRepository.save(user);
+            broadcastUserChange(username);
             return "Verification successful: Your account is now active!";
         } else {
             return "Invalid or expired OTP. Please check the code, request a new one, and try again.";
@@ -460,6 +479,7 @@ public class UserService implements UserDetailsService {
 
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        broadcastUserChange(email);
     }
 
     public Optional<Customer> getCustomerDetailsByUsername(String username) {
@@ -531,6 +551,7 @@ public class UserService implements UserDetailsService {
         }
 
         customerRepository.save(customer);
+        broadcastUserChange(currentUsername);
         // Note: User.username (email) is NOT updated here. That requires a separate secure flow.
     }
 
@@ -560,6 +581,7 @@ public class UserService implements UserDetailsService {
         // 4. Update and Save
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        broadcastUserChange(username);
     }
 
     /**
@@ -575,5 +597,6 @@ public class UserService implements UserDetailsService {
 
         customer.setNewsletterOptIn(optIn);
         customerRepository.save(customer);
+        broadcastUserChange(username);
     }
 }
\ No newline at end of file
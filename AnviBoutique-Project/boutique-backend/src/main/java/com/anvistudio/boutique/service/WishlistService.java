@@ -1,5 +1,6 @@
 package com.anvistudio.boutique.service;
 
+import com.anvistudio.boutique.dto.WishlistItemDTO;
 import com.anvistudio.boutique.model.Product;
 import com.anvistudio.boutique.model.User;
 import com.anvistudio.boutique.model.Wishlist;
@@ -10,6 +11,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 public class WishlistService {
@@ -55,10 +57,20 @@ public class WishlistService {
     }
 
     /**
-     * Retrieves all wishlist items (and associated products) for a user.
+     * Retrieves all wishlist items (and associated products, in the same query) for a user.
      */
     public List<Wishlist> getWishlistItems(Long userId) {
-        return wishlistRepository.findByUserId(userId);
+        return wishlistRepository.findWithProductByUserId(userId);
+    }
+
+    /**
+     * NEW: Wishlist items mapped to response DTOs inside the transaction (no entity graph reaches Jackson).
+     */
+    @Transactional(readOnly = true)
+    public List<WishlistItemDTO> getWishlistView(Long userId) {
+        return wishlistRepository.findWithProductByUserId(userId).stream()
+                .map(WishlistItemDTO::from)
+                .collect(Collectors.toList());
     }
 
     
@@ -0,0 +1,196 @@
+package com.anvistudio.boutique.config;
+
+import com.anvistudio.boutique.BoutiqueApplication;
+import com.anvistudio.boutique.model.Product;
+import com.anvistudio.boutique.model.User;
+import com.anvistudio.boutique.repository.ProductRepository;
+import com.anvistudio.boutique.repository.UserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load harness for request threading: starts the application on a random port twice, with
+ * spring.threads.virtual.enabled=false and =true, and drives the same mix of catalog reads and logins
+ * over HTTP against each. Reports throughput, latency percentiles per endpoint, errors, and the peak
+ * JVM thread count and pool connections in use or awaited.
+ * <p>
+ * Run: mvn test -Dtest=VirtualThreadLoadTest -Dthreads.benchmark=true [-Dthreads.benchmark.concurrency=400
+ * -Dthreads.benchmark.duration-s=20 -Dthreads.benchmark.products=2000 -Dthreads.benchmark.login-every=10]
+ * The BCrypt cost of the seeded users follows app.security.bcrypt.strength (default 10 here), e.g.
+ * -Dapp.security.bcrypt.strength=12.
+ */
+@EnabledIfSystemProperty(named = "threads.benchmark", matches = "true")
+class VirtualThreadLoadTest {
+
+    private static final String[] CATEGORIES = {"Sarees", "Kurtis", "Lehengas", "Dupattas", "Blouses"};
+    private static final String PASSWORD = "Password1!";
+    private static final int USERS = 50;
+
+    private final int concurrency = Integer.getInteger("threads.benchmark.concurrency", 400);
+    private final int durationSeconds = Integer.getInteger("threads.benchmark.duration-s", 20);
+    private final int products = Integer.getInteger("threads.benchmark.products", 2_000);
+    private final int loginEvery = Integer.getInteger("threads.benchmark.login-every", 10);
+    private final String bcryptStrength = System.getProperty("app.security.bcrypt.strength", "10");
+
+    @Test
+    void comparePlatformAndVirtualRequestThreads() throws Exception {
+        System.out.printf("THREADS LOAD TEST: %d concurrent clients for %d s, %d products, 1 login in %d requests, "
+                + "BCrypt cost %s, H2 in memory%n", concurrency, durationSeconds, products, loginEvery, bcryptStrength);
+        for (boolean virtual : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext context = start(virtual)) {
+                List<Long> ids = seed(context);
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                HikariPoolMXBean pool = context.getBean(DataSource.class).unwrap(HikariDataSource.class).getHikariPoolMXBean();
+                drive(virtual ? "virtual threads " : "platform threads", "http://localhost:" + port, ids, pool);
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext start(boolean virtual) {
+        return new SpringApplicationBuilder(BoutiqueApplication.class)
+                .profiles("bench")
+                .properties(Map.of(
+                        "server.port", "0",
+                        "spring.threads.virtual.enabled", String.valueOf(virtual),
+                        // A fresh database per run
+                        "spring.datasource.url", "jdbc:h2:mem:threads-" + virtual + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "app.security.bcrypt.strength", bcryptStrength))
+                .run();
+    }
+
+    private void drive(String label, String baseUrl, List<Long> ids, HikariPoolMXBean pool) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        Map<String, List<Long>> latencies = new ConcurrentHashMap<>();
+        AtomicInteger errors = new AtomicInteger();
+        AtomicInteger sequence = new AtomicInteger();
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        int[] poolPeaks = new int[2];
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            synchronized (poolPeaks) {
+                poolPeaks[0] = Math.max(poolPeaks[0], pool.getActiveConnections());
+                poolPeaks[1] = Math.max(poolPeaks[1], pool.getThreadsAwaitingConnection());
+            }
+        }, 0, 10, TimeUnit.MILLISECONDS);
+
+        // Closed model: each client sends its next request as soon as the previous one returns
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrency; c++) {
+                clients.execute(() -> {
+                    while (System.nanoTime() < deadline) {
+                        int n = sequence.getAndIncrement();
+                        String endpoint;
+                        HttpRequest request;
+                        if (n % loginEvery == 0) {
+                            endpoint = "POST /api/auth/login";
+                            String body = "{\"username\":\"shopper" + (n % USERS) + "@example.com\",\"password\":\"" + PASSWORD + "\"}";
+                            request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                                    .header("Content-Type", "application/json")
+                                    .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+                        } else if (n % 3 == 0) {
+                            endpoint = "GET /api/products/{id}";
+                            request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/products/"
+                                    + ids.get((int) ((n * 7919L) % ids.size())))).build();
+                        } else if (n % 3 == 1) {
+                            endpoint = "GET /api/products/page";
+                            request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/products/page?sortBy=priceAsc&category="
+                                    + CATEGORIES[n % CATEGORIES.length])).build();
+                        } else {
+                            endpoint = "GET /api/products/featured";
+                            request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/products/featured")).build();
+                        }
+                        long start = System.nanoTime();
+                        try {
+                            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            if (status >= 400 && status != 404) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies.computeIfAbsent(endpoint, k -> Collections.synchronizedList(new ArrayList<>()))
+                                .add(System.nanoTime() - start);
+                    }
+                });
+            }
+        }
+        sampler.shutdownNow();
+
+        long total = latencies.values().stream().mapToLong(List::size).sum();
+        System.out.printf("  %s: %.0f req/s, %d errors, peak %d JVM threads, peak %d active / %d awaited pool connections%n",
+                label, total / (double) durationSeconds, errors.get(), threads.getPeakThreadCount(), poolPeaks[0], poolPeaks[1]);
+        latencies.forEach((endpoint, samples) -> {
+            List<Long> sorted = new ArrayList<>(samples);
+            Collections.sort(sorted);
+            System.out.printf("    %-28s %7d requests, p50 %7.2f ms, p95 %7.2f ms, p99 %7.2f ms%n", endpoint, sorted.size(),
+                    percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99));
+        });
+    }
+
+    private List<Long> seed(ConfigurableApplicationContext context) {
+        PasswordEncoder passwordEncoder = context.getBean(PasswordEncoder.class);
+        String hash = passwordEncoder.encode(PASSWORD);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setUsername("shopper" + i + "@example.com");
+            user.setPassword(hash);
+            user.setRole("CUSTOMER");
+            user.setEmailVerified(true);
+            users.add(user);
+        }
+        context.getBean(UserRepository.class).saveAll(users);
+
+        List<Product> catalog = new ArrayList<>(products);
+        long baseTime = 1_700_000_000_000L;
+        for (int i = 0; i < products; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setDescription("Description " + i);
+            product.setCategory(CATEGORIES[i % CATEGORIES.length]);
+            product.setPrice(BigDecimal.valueOf(300 + (i * 137L) % 6000));
+            product.setStockQuantity(5);
+            product.setDateCreated(new Date(baseTime + i * 1000L));
+            catalog.add(product);
+        }
+        return context.getBean(ProductRepository.class).saveAll(catalog).stream().map(Product::getId).toList();
+    }
+
+    private static double percentile(List<Long> sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1))) / 1e6;
+    }
+}
@@ -0,0 +1,76 @@
+package com.anvistudio.boutique.controller;
+
+import com.anvistudio.boutique.security.PasswordHashingBusyException;
+import com.anvistudio.boutique.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A saturated password hashing pool is reported as 503 with Retry-After (PasswordHashingBusyAdvice),
+ * not as bad credentials or input.
+ */
+class AuthRestControllerTest {
+
+    private static final String LOGIN = "{\"username\":\"jane@example.com\",\"password\":\"Password1!\"}";
+
+    private final AuthenticationManager authenticationManager = mock(AuthenticationManager.class);
+    private final UserService userService = mock(UserService.class);
+    private final MockMvc mockMvc = MockMvcBuilders
+            .standaloneSetup(new AuthRestController(authenticationManager, userService, null))
+            .setControllerAdvice(new PasswordHashingBusyAdvice())
+            .build();
+
+    @Test
+    void loginRejectedByTheHashingPoolIsServiceUnavailable() throws Exception {
+        // As DaoAuthenticationProvider reports a failure while loading the user
+        when(authenticationManager.authenticate(any())).thenThrow(
+                new InternalAuthenticationServiceException("wrapped", busy(3)));
+
+        mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(LOGIN))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "3"))
+                .andExpect(jsonPath("$.error").value("Too many concurrent password operations. Please try again."));
+    }
+
+    @Test
+    void wrongPasswordIsStillUnauthorized() throws Exception {
+        when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
+
+        mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(LOGIN))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.error").value("Invalid credentials"));
+    }
+
+    @Test
+    void passwordResetRejectedByTheHashingPoolIsServiceUnavailable() throws Exception {
+        doThrow(busy(1)).when(userService).resetPassword("jane@example.com", "Password1!");
+
+        mockMvc.perform(post("/api/auth/reset-password")
+                        .param("email", "jane@example.com")
+                        .param("password", "Password1!")
+                        .param("confirmPassword", "Password1!"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    private static PasswordHashingBusyException busy(long retryAfterSeconds) {
+        return new PasswordHashingBusyException("Too many concurrent password operations. Please try again.",
+                retryAfterSeconds, new RejectedExecutionException());
+    }
+}
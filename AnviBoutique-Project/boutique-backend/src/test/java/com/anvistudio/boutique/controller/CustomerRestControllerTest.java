@@ -0,0 +1,46 @@
+package com.anvistudio.boutique.controller;
+
+import com.anvistudio.boutique.security.PasswordHashingBusyException;
+import com.anvistudio.boutique.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A password change turned away by the hashing pool gets the same 503 + Retry-After as the auth endpoints.
+ */
+class CustomerRestControllerTest {
+
+    private final UserService userService = mock(UserService.class);
+    private final MockMvc mockMvc = MockMvcBuilders
+            .standaloneSetup(new CustomerRestController(userService, null, null, null, null, null, null))
+            .setControllerAdvice(new PasswordHashingBusyAdvice())
+            .build();
+
+    @Test
+    void passwordChangeRejectedByTheHashingPoolIsServiceUnavailable() throws Exception {
+        doThrow(new PasswordHashingBusyException("Password operation timed out. Please try again.", 2,
+                new RejectedExecutionException()))
+                .when(userService).changePassword("jane@example.com", "Old1!pass", "New1!pass", "New1!pass");
+
+        mockMvc.perform(post("/api/customer/change-password")
+                        .principal(new UsernamePasswordAuthenticationToken("jane@example.com", null))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"currentPassword\":\"Old1!pass\",\"newPassword\":\"New1!pass\","
+                                + "\"confirmPassword\":\"New1!pass\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.error").value("Password operation timed out. Please try again."));
+    }
+}
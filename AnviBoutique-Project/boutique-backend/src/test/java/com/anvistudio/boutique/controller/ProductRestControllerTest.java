@@ -0,0 +1,128 @@
+package com.anvistudio.boutique.controller;
+
+import com.anvistudio.boutique.dto.ProductPage;
+import com.anvistudio.boutique.model.CatalogRevision;
+import com.anvistudio.boutique.repository.CatalogRevisionRepository;
+import com.anvistudio.boutique.service.CatalogVersionService;
+import com.anvistudio.boutique.service.ProductDetailService;
+import com.anvistudio.boutique.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Conditional GETs on the catalog endpoints: 304 for a matching If-None-Match or If-Modified-Since
+ * without building the body, a new ETag once the catalog version is bumped, and error responses
+ * that no cache may keep.
+ */
+class ProductRestControllerTest {
+
+    private static final long UPDATED_AT = 1_700_000_000_000L;
+
+    private final ProductService productService = mock(ProductService.class);
+    private final ProductDetailService productDetailService = mock(ProductDetailService.class);
+    private final CatalogRevisionRepository revisionRepository = mock(CatalogRevisionRepository.class);
+    private final CatalogVersionService catalogVersionService = new CatalogVersionService(revisionRepository);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void createController() {
+        ProductRestController controller = new ProductRestController(productService, null, null, null,
+                productDetailService, catalogVersionService);
+        ReflectionTestUtils.setField(controller, "catalogMaxAge", Duration.ofSeconds(60));
+        ReflectionTestUtils.setField(controller, "maxPageSize", 100);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        when(revisionRepository.findById(CatalogRevision.SINGLETON_ID)).thenReturn(Optional.of(revision(1)));
+        when(productService.getDisplayableProducts()).thenReturn(List.of());
+    }
+
+    @Test
+    void matchingIfNoneMatchIsNotModifiedWithoutLoadingProducts() throws Exception {
+        mockMvc.perform(get("/api/products/featured"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"featured-v1\""))
+                .andExpect(header().dateValue(HttpHeaders.LAST_MODIFIED, UPDATED_AT))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, must-revalidate, public"));
+
+        mockMvc.perform(get("/api/products/featured").header(HttpHeaders.IF_NONE_MATCH, "\"featured-v1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"featured-v1\""));
+
+        verify(productService, times(1)).getDisplayableProducts();
+    }
+
+    @Test
+    void ifModifiedSinceTheLastChangeIsNotModified() throws Exception {
+        mockMvc.perform(get("/api/products/featured").header(HttpHeaders.IF_MODIFIED_SINCE, httpDate(UPDATED_AT)))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/products/featured").header(HttpHeaders.IF_MODIFIED_SINCE, httpDate(UPDATED_AT - 60_000)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void bumpedVersionChangesTheETag() throws Exception {
+        mockMvc.perform(get("/api/products/featured")).andExpect(header().string(HttpHeaders.ETAG, "\"featured-v1\""));
+        when(revisionRepository.findById(CatalogRevision.SINGLETON_ID)).thenReturn(Optional.of(revision(2)));
+        // The old version is still served from memory until the bump resets it
+        mockMvc.perform(get("/api/products/featured").header(HttpHeaders.IF_NONE_MATCH, "\"featured-v1\""))
+                .andExpect(status().isNotModified());
+
+        catalogVersionService.bump();
+
+        mockMvc.perform(get("/api/products/featured").header(HttpHeaders.IF_NONE_MATCH, "\"featured-v1\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"featured-v2\""));
+    }
+
+    @Test
+    void missingProductIsNotCached() throws Exception {
+        when(productDetailService.getProductDetail(99L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/products/99"))
+                .andExpect(status().isNotFound())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-store"));
+    }
+
+    @Test
+    void pagesAreConditionalToo() throws Exception {
+        when(productService.getFilteredProductsPage(any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new ProductPage(List.of(), null, false));
+
+        mockMvc.perform(get("/api/products/page"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"page-v1\""));
+        mockMvc.perform(get("/api/products/page").header(HttpHeaders.IF_NONE_MATCH, "\"page-v1\""))
+                .andExpect(status().isNotModified());
+
+        verify(productService, times(1)).getFilteredProductsPage(any(), any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    private static CatalogRevision revision(long version) {
+        return new CatalogRevision(CatalogRevision.SINGLETON_ID, version, new Date(UPDATED_AT));
+    }
+
+    private static String httpDate(long millis) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(millis).atZone(ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,104 @@
+package com.anvistudio.boutique.event;
+
+import com.anvistudio.boutique.model.CacheInvalidation;
+import com.anvistudio.boutique.repository.CacheInvalidationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Polling of the cache_invalidations table, with the table mocked so commit order can be controlled:
+ * a message committed after higher ids (and stamped long before it became visible) must still be delivered.
+ */
+class DatabaseInvalidationBusTest {
+
+    private static final String OTHER_NODE = "other-node";
+
+    private CacheInvalidationRepository repository;
+    private DatabaseInvalidationBus bus;
+    private final List<String> received = new ArrayList<>();
+
+    @BeforeEach
+    void createBus() {
+        repository = mock(CacheInvalidationRepository.class);
+        bus = new DatabaseInvalidationBus(repository);
+        ReflectionTestUtils.setField(bus, "gapTimeoutMs", 60_000L);
+        ReflectionTestUtils.setField(bus, "retentionMs", 3_600_000L);
+        bus.subscribe(InvalidationBus.REGION_PRODUCT, received::add);
+    }
+
+    @Test
+    void startsAfterTheMessagesThatExistedAtStartup() {
+        when(repository.findMaxId()).thenReturn(10L);
+        when(repository.findByIdGreaterThanOrderByIdAsc(10L)).thenReturn(List.of(message(11, OTHER_NODE, "11")));
+
+        bus.poll();
+
+        assertEquals(List.of("11"), received);
+    }
+
+    @Test
+    void messageCommittedLateIsStillDelivered() {
+        when(repository.findMaxId()).thenReturn(0L);
+        // Id 2 is still uncommitted while 1 and 3 are visible
+        when(repository.findByIdGreaterThanOrderByIdAsc(0L)).thenReturn(List.of(
+                message(1, OTHER_NODE, "1"), message(3, OTHER_NODE, "3")));
+        bus.poll();
+        assertEquals(List.of("1", "3"), received);
+
+        // Id 2 commits much later; its createdAt is older than anything seen so far
+        CacheInvalidation late = message(2, OTHER_NODE, "2");
+        late.setCreatedAt(new Date(System.currentTimeMillis() - 3_600_000L));
+        when(repository.findByIdGreaterThanOrderByIdAsc(1L)).thenReturn(List.of(late, message(3, OTHER_NODE, "3")));
+        bus.poll();
+        assertEquals(List.of("1", "3", "2"), received);
+
+        // No gap left: the next poll starts after the highest id
+        when(repository.findByIdGreaterThanOrderByIdAsc(3L)).thenReturn(List.of(message(4, OTHER_NODE, "4")));
+        bus.poll();
+        assertEquals(List.of("1", "3", "2", "4"), received);
+        verify(repository).findByIdGreaterThanOrderByIdAsc(3L);
+    }
+
+    @Test
+    void gapIsGivenUpAfterTheTimeout() {
+        ReflectionTestUtils.setField(bus, "gapTimeoutMs", -1L);
+        when(repository.findMaxId()).thenReturn(0L);
+        when(repository.findByIdGreaterThanOrderByIdAsc(0L)).thenReturn(List.of(
+                message(1, OTHER_NODE, "1"), message(3, OTHER_NODE, "3")));
+        bus.poll();
+
+        // Id 2 was rolled back: polling moves on past it
+        when(repository.findByIdGreaterThanOrderByIdAsc(3L)).thenReturn(List.of());
+        bus.poll();
+        verify(repository).findByIdGreaterThanOrderByIdAsc(3L);
+        assertEquals(List.of("1", "3"), received);
+    }
+
+    @Test
+    void ownMessagesAreNotDelivered() {
+        when(repository.findMaxId()).thenReturn(0L);
+        when(repository.findByIdGreaterThanOrderByIdAsc(0L)).thenReturn(List.of(
+                message(1, (String) ReflectionTestUtils.getField(bus, "nodeId"), "mine")));
+
+        bus.poll();
+
+        assertTrue(received.isEmpty());
+    }
+
+    private static CacheInvalidation message(long id, String originNode, String key) {
+        CacheInvalidation message = new CacheInvalidation(InvalidationBus.REGION_PRODUCT, key, originNode);
+        message.setId(id);
+        return message;
+    }
+}
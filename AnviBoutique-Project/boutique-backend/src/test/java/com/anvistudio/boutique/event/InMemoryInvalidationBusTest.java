@@ -0,0 +1,60 @@
+package com.anvistudio.boutique.event;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two simulated application instances sharing one in-memory bus.
+ */
+class InMemoryInvalidationBusTest {
+
+    @Test
+    void deliversToOtherNodesOnly() {
+        InMemoryInvalidationBus nodeA = new InMemoryInvalidationBus();
+        InMemoryInvalidationBus nodeB = nodeA.joinNode();
+        List<String> receivedByA = new ArrayList<>();
+        List<String> receivedByB = new ArrayList<>();
+        nodeA.subscribe(InvalidationBus.REGION_PRODUCT, receivedByA::add);
+        nodeB.subscribe(InvalidationBus.REGION_PRODUCT, receivedByB::add);
+
+        nodeA.publish(InvalidationBus.REGION_PRODUCT, "42");
+
+        assertEquals(List.of("42"), receivedByB);
+        assertTrue(receivedByA.isEmpty());
+    }
+
+    @Test
+    void deliversOnlyToHandlersOfTheRegion() {
+        InMemoryInvalidationBus nodeA = new InMemoryInvalidationBus();
+        InMemoryInvalidationBus nodeB = nodeA.joinNode();
+        List<String> products = new ArrayList<>();
+        List<String> users = new ArrayList<>();
+        nodeB.subscribe(InvalidationBus.REGION_PRODUCT, products::add);
+        nodeB.subscribe(InvalidationBus.REGION_USER, users::add);
+
+        nodeA.publish(InvalidationBus.REGION_USER, "jane@example.com");
+
+        assertTrue(products.isEmpty());
+        assertEquals(List.of("jane@example.com"), users);
+    }
+
+    @Test
+    void failingHandlerDoesNotStopOthers() {
+        InMemoryInvalidationBus nodeA = new InMemoryInvalidationBus();
+        InMemoryInvalidationBus nodeB = nodeA.joinNode();
+        List<String> received = new ArrayList<>();
+        nodeB.subscribe(InvalidationBus.REGION_PRODUCT, key -> {
+            throw new IllegalStateException("boom");
+        });
+        nodeB.subscribe(InvalidationBus.REGION_PRODUCT, received::add);
+
+        nodeA.publish(InvalidationBus.REGION_PRODUCT, "7");
+
+        assertEquals(List.of("7"), received);
+    }
+}
@@ -0,0 +1,76 @@
+package com.anvistudio.boutique.repository;
+
+import com.anvistudio.boutique.model.Customer;
+import com.anvistudio.boutique.model.NewsletterSubscription;
+import com.anvistudio.boutique.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Keyset paging of newsletter recipients: walking the pages yields every opted-in customer and active
+ * subscriber exactly once, in address order, whichever table each page draws from.
+ */
+@DataJpaTest
+class NewsletterRecipientPagingTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private NewsletterSubscriptionRepository subscriptionRepository;
+
+    @Test
+    void pagesCoverEveryRecipientOnce() {
+        customer("a1@example.com", "9000000001", true);
+        customer("c3@example.com", "9000000002", true);
+        customer("e5@example.com", "9000000003", false);
+        customer("g7@example.com", "9000000004", true);
+        subscriber("b2@example.com", true);
+        subscriber("d4@example.com", false);
+        subscriber("f6@example.com", true);
+        // Registered and subscribed in the footer: listed once
+        subscriber("c3@example.com", true);
+        entityManager.flush();
+
+        List<String> walked = new ArrayList<>();
+        String after = "";
+        List<String> page;
+        do {
+            page = subscriptionRepository.findRecipientEmailsAfter(after, 2);
+            walked.addAll(page);
+            after = page.isEmpty() ? after : page.get(page.size() - 1);
+        } while (page.size() == 2);
+
+        assertThat(walked).containsExactly("a1@example.com", "b2@example.com", "c3@example.com",
+                "f6@example.com", "g7@example.com");
+    }
+
+    private void customer(String username, String phoneNumber, boolean optIn) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("encoded");
+        user.setRole("CUSTOMER");
+        user.setEmailVerified(true);
+        Customer customer = new Customer();
+        customer.setFirstName("Test");
+        customer.setLastName("Customer");
+        customer.setPhoneNumber(phoneNumber);
+        customer.setTermsAccepted(true);
+        customer.setNewsletterOptIn(optIn);
+        customer.setUser(entityManager.persist(user));
+        entityManager.persist(customer);
+    }
+
+    private void subscriber(String email, boolean active) {
+        NewsletterSubscription subscription = new NewsletterSubscription(email);
+        subscription.setIsActive(active);
+        entityManager.persist(subscription);
+    }
+}
@@ -0,0 +1,76 @@
+package com.anvistudio.boutique.repository;
+
+import com.anvistudio.boutique.model.OutboundMail;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Claim ownership in the outbound mail queue: a batch whose lease expired (and whose mails were claimed
+ * again) must not be able to record its results over the new owner's.
+ */
+@DataJpaTest
+class OutboundMailRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OutboundMailRepository mailRepository;
+
+    @Test
+    void resultsOfAnExpiredClaimAreDiscarded() {
+        Long id = queue().getId();
+        assertThat(mailRepository.claim(List.of(id), "first", new Date())).isEqualTo(1);
+
+        // The first batch stalls past its lease; the mail is released and claimed by a second batch
+        assertThat(mailRepository.releaseStaleClaims(new Date(System.currentTimeMillis() + 60_000))).isEqualTo(1);
+        assertThat(mailRepository.claim(List.of(id), "second", new Date())).isEqualTo(1);
+
+        assertThat(mailRepository.completeSent(List.of(id), "first", new Date())).isZero();
+        assertThat(mailRepository.completeFailed(id, "first", OutboundMail.Status.FAILED, 5, new Date(), "late")).isZero();
+        entityManager.clear();
+        OutboundMail stillClaimed = mailRepository.findById(id).orElseThrow();
+        assertThat(stillClaimed.getStatus()).isEqualTo(OutboundMail.Status.SENDING);
+        assertThat(stillClaimed.getClaimToken()).isEqualTo("second");
+        assertThat(stillClaimed.getAttempts()).isZero();
+
+        assertThat(mailRepository.completeSent(List.of(id), "second", new Date())).isEqualTo(1);
+        entityManager.clear();
+        OutboundMail sent = mailRepository.findById(id).orElseThrow();
+        assertThat(sent.getStatus()).isEqualTo(OutboundMail.Status.SENT);
+        assertThat(sent.getClaimToken()).isNull();
+        assertThat(sent.getAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    void failedAttemptIsRescheduledByItsOwner() {
+        Long id = queue().getId();
+        mailRepository.claim(List.of(id), "batch", new Date());
+        Date retryAt = new Date(System.currentTimeMillis() + 30_000);
+
+        assertThat(mailRepository.completeFailed(id, "batch", OutboundMail.Status.PENDING, 1, retryAt, "421 try later"))
+                .isEqualTo(1);
+        entityManager.clear();
+
+        OutboundMail retried = mailRepository.findById(id).orElseThrow();
+        assertThat(retried.getStatus()).isEqualTo(OutboundMail.Status.PENDING);
+        assertThat(retried.getAttempts()).isEqualTo(1);
+        assertThat(retried.getLastError()).isEqualTo("421 try later");
+        assertThat(retried.getClaimToken()).isNull();
+        assertThat(mailRepository.findDueIds(OutboundMail.Lane.BULK, new Date(), PageRequest.of(0, 10)))
+                .isEmpty();
+    }
+
+    private OutboundMail queue() {
+        return mailRepository.saveAndFlush(new OutboundMail(OutboundMail.Lane.BULK, "shop@example.com",
+                "jane@example.com", "Offer", "Body", null));
+    }
+}
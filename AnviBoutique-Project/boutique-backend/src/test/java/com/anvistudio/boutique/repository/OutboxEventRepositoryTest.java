@@ -0,0 +1,105 @@
+package com.anvistudio.boutique.repository;
+
+import com.anvistudio.boutique.model.OutboxEvent;
+import com.anvistudio.boutique.service.OutboxRelay;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The domain event outbox: events recorded within one window share their due time, only due events are
+ * claimed, and once a relay run's events were released and claimed by another run, the first run can
+ * neither renew, publish nor retry them.
+ */
+@DataJpaTest
+class OutboxEventRepositoryTest {
+
+    private static final OutboxEvent.Type TYPE = OutboxEvent.Type.PRODUCT_DISCOUNTED;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void eventsRecordedWithinAWindowAreDueTogether() {
+        // Only record() is used; its relay runs after commit, which never happens in this rolled-back test
+        OutboxRelay relay = new OutboxRelay(outboxRepository, null, transactionManager);
+        ReflectionTestUtils.setField(relay, "saleDigestWindow", Duration.ofMinutes(10));
+
+        relay.record(TYPE, 1L);
+        relay.record(TYPE, 2L);
+        List<OutboxEvent> events = outboxRepository.findAll();
+
+        assertThat(events).hasSize(2);
+        assertThat(events.get(1).getNextAttemptAt().getTime()).isEqualTo(events.get(0).getNextAttemptAt().getTime());
+        assertThat(events.get(0).getNextAttemptAt()).isAfter(new Date());
+    }
+
+    @Test
+    void onlyDueEventsAreClaimed() {
+        Long due = record(1L).getId();
+        // A retry backing off, and a follow-up scheduled for later
+        OutboxEvent retry = record(2L);
+        retry.setAttempts(1);
+        retry.setNextAttemptAt(new Date(System.currentTimeMillis() + 30_000));
+        outboxRepository.saveAndFlush(retry);
+        OutboxEvent followUp = new OutboxEvent(TYPE, 3L);
+        followUp.setNextAttemptAt(new Date(System.currentTimeMillis() + 5 * 60_000));
+        outboxRepository.saveAndFlush(followUp);
+
+        assertThat(outboxRepository.claimPending(TYPE, "batch", new Date())).isEqualTo(1);
+        entityManager.clear();
+        assertThat(outboxRepository.findByClaimToken("batch")).extracting(OutboxEvent::getId).containsExactly(due);
+    }
+
+    @Test
+    void onlyTheCurrentOwnerCompletesTheEvents() {
+        Long first = record(1L).getId();
+        record(2L);
+        Date now = new Date();
+        assertThat(outboxRepository.claimPending(TYPE, "first", now)).isEqualTo(2);
+        assertThat(outboxRepository.renewClaim("first", new Date())).isEqualTo(2);
+
+        // The first run stalls past its lease; the events are released and claimed by a second run
+        assertThat(outboxRepository.releaseStaleClaims(new Date(System.currentTimeMillis() + 60_000))).isEqualTo(2);
+        assertThat(outboxRepository.claimPending(TYPE, "second", new Date())).isEqualTo(2);
+
+        assertThat(outboxRepository.renewClaim("first", new Date())).isZero();
+        assertThat(outboxRepository.markPublished("first", new Date())).isZero();
+        assertThat(outboxRepository.completeFailed(first, "first", OutboxEvent.Status.FAILED, 5, new Date(), "late"))
+                .isZero();
+        entityManager.clear();
+        assertThat(outboxRepository.findByClaimToken("second")).hasSize(2)
+                .allSatisfy(event -> {
+                    assertThat(event.getStatus()).isEqualTo(OutboxEvent.Status.PROCESSING);
+                    assertThat(event.getAttempts()).isZero();
+                });
+
+        assertThat(outboxRepository.markPublished("second", new Date())).isEqualTo(2);
+        entityManager.clear();
+        OutboxEvent published = outboxRepository.findById(first).orElseThrow();
+        assertThat(published.getStatus()).isEqualTo(OutboxEvent.Status.PUBLISHED);
+        assertThat(published.getAttempts()).isEqualTo(1);
+        assertThat(published.getClaimToken()).isNull();
+    }
+
+    private OutboxEvent record(Long productId) {
+        OutboxEvent event = new OutboxEvent(TYPE, productId);
+        event.setNextAttemptAt(new Date(System.currentTimeMillis() - 1000));
+        return outboxRepository.saveAndFlush(event);
+    }
+}
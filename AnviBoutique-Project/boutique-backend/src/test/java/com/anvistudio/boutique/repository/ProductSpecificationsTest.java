@@ -0,0 +1,174 @@
+package com.anvistudio.boutique.repository;
+
+import com.anvistudio.boutique.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Regression suite for the catalog query: every combination of filters and sort keys
+ * must return exactly what the original in-memory implementation of
+ * ProductService.getFilteredProducts returned.
+ */
+@DataJpaTest
+class ProductSpecificationsTest {
+
+    private static final String[] CATEGORIES = {null, "", "Sarees", "Kurtis"};
+    private static final String[] SORTS = {null, "", "latest", "oldest", "priceAsc", "priceDesc"};
+    private static final Double[][] PRICE_RANGES = {{null, null}, {500.0, null}, {null, 1500.0}, {669.99, 2000.0}};
+    private static final String[] STATUSES = {null, "", "inStock", "lowStock", "onSale", "clearance", "unknown"};
+    private static final String[] COLORS = {null, "", "red", " BLUE ", "%"};
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void seedCatalog() {
+        productRepository.deleteAll();
+        long baseTime = 1_700_000_000_000L;
+        save("Red Silk Saree", "Sarees", "999.99", 33, "Red", 10, true, "SKU-10", baseTime);
+        save("Blue Cotton Saree", "Sarees", "1500.00", 0, "Navy Blue", 3, true, "SKU-11", baseTime + 1000);
+        save("Green Kurti", "Kurtis", "800.00", 50, "Green", 0, true, "SKU-12", baseTime + 2000);
+        save("Festive Kurti", "Kurtis", "2400.00", 75, "Dark Red", 5, true, null, baseTime + 3000);
+        save("Hidden Lehenga", "Lehengas", "5000.00", 10, "Red", 7, false, "SKU-14", baseTime + 4000);
+        save("Plain Dupatta", "Dupattas", "500.00", 0, null, 1, true, "SKU-15", baseTime + 5000);
+        save("Silk Blouse", "Blouses", "1339.98", 50, "Blue", 20, true, "SKU-16", baseTime + 6000);
+        save("Sale Saree", "Sarees", "1000.00", 10, "Maroon", 2, true, "SKU-17", baseTime + 7000);
+    }
+
+    @Test
+    void specificationMatchesLegacyInMemoryFilteringForAllCombinations() {
+        for (String category : CATEGORIES) {
+            for (String sortBy : SORTS) {
+                for (Double[] range : PRICE_RANGES) {
+                    for (String status : STATUSES) {
+                        for (String color : COLORS) {
+                            List<Long> expected = ids(legacyFilter(category, sortBy, range[0], range[1], status, color));
+                            List<Long> actual = ids(productRepository.findAll(ProductSpecifications.forCatalog(
+                                    category, sortBy, range[0], range[1], status, color)));
+
+                            assertThat(actual)
+                                    .as("category=%s sortBy=%s min=%s max=%s status=%s color=%s",
+                                            category, sortBy, range[0], range[1], status, color)
+                                    .isEqualTo(expected);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void discountedPriceSortUsesRoundedEffectivePrice() {
+        List<Product> sorted = productRepository.findAll(
+                ProductSpecifications.forCatalog(null, "priceAsc", null, null, null, null));
+
+        List<BigDecimal> prices = sorted.stream().map(Product::getDiscountedPrice).collect(Collectors.toList());
+        List<BigDecimal> expected = new ArrayList<>(prices);
+        expected.sort(Comparator.naturalOrder());
+
+        assertThat(prices).isEqualTo(expected);
+        assertThat(sorted).noneMatch(p -> !p.getIsAvailable());
+    }
+
+    private void save(String name, String category, String price, int discount, String color,
+                      int stock, boolean available, String sku, long createdAt) {
+        Product product = new Product();
+        product.setName(name);
+        product.setDescription(name + " description");
+        product.setCategory(category);
+        product.setPrice(new BigDecimal(price));
+        product.setDiscountPercent(discount);
+        product.setProductColor(color);
+        product.setStockQuantity(stock);
+        product.setIsAvailable(available);
+        product.setSku(sku);
+        product.setDateCreated(new Date(createdAt));
+        productRepository.save(product);
+    }
+
+    private static List<Long> ids(List<Product> products) {
+        return products.stream().map(Product::getId).collect(Collectors.toList());
+    }
+
+    /**
+     * Copy of the original in-memory implementation, kept as the reference oracle.
+     * Keyword search moved to the full-text index and is covered by ProductSearchServiceTest.
+     */
+    private List<Product> legacyFilter(String category, String sortBy, Double minPrice, Double maxPrice,
+                                       String status, String color) {
+        List<Product> products;
+
+        if (category != null && !category.trim().isEmpty()) {
+            products = productRepository.findByCategory(category.trim());
+        } else {
+            products = productRepository.findAll();
+        }
+        products = new ArrayList<>(products);
+
+        if (minPrice != null || maxPrice != null) {
+            products.removeIf(p -> {
+                double price = p.getDiscountedPrice().doubleValue();
+                if (minPrice != null && price < minPrice) return true;
+                if (maxPrice != null && price > maxPrice) return true;
+                return false;
+            });
+        }
+
+        if (color != null && !color.trim().isEmpty()) {
+            final String normalizedColor = color.trim().toLowerCase();
+            products.removeIf(p -> p.getProductColor() == null || !p.getProductColor().toLowerCase().contains(normalizedColor));
+        }
+
+        if (status != null && !status.isEmpty()) {
+            switch (status) {
+                case "inStock":
+                    products.removeIf(p -> p.getStockQuantity() <= 0 || !p.getIsAvailable());
+                    break;
+                case "lowStock":
+                    products.removeIf(p -> p.getStockQuantity() <= 0 || p.getStockQuantity() > 5 || !p.getIsAvailable());
+                    break;
+                case "onSale":
+                    products.removeIf(p -> p.getDiscountPercent() <= 0);
+                    break;
+                case "clearance":
+                    products.removeIf(p -> !p.isClearance());
+                    break;
+            }
+        }
+
+        if (sortBy != null && !sortBy.isEmpty()) {
+            Comparator<Product> comparator;
+            switch (sortBy) {
+                case "priceAsc":
+                    comparator = Comparator.comparing(Product::getDiscountedPrice);
+                    break;
+                case "priceDesc":
+                    comparator = Comparator.comparing(Product::getDiscountedPrice).reversed();
+                    break;
+                case "oldest":
+                    comparator = Comparator.comparing(Product::getDateCreated);
+                    break;
+                case "latest":
+                default:
+                    comparator = Comparator.comparing(Product::getDateCreated).reversed();
+                    break;
+            }
+            products.sort(comparator);
+        }
+
+        products.removeIf(p -> !p.getIsAvailable());
+
+        return products;
+    }
+}
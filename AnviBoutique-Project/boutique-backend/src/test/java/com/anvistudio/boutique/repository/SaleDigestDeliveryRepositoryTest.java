@@ -0,0 +1,36 @@
+package com.anvistudio.boutique.repository;
+
+import com.anvistudio.boutique.model.SaleDigestDelivery;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Multi-row inserts of sale digest history, across more rows than one statement takes.
+ */
+@DataJpaTest
+class SaleDigestDeliveryRepositoryTest {
+
+    @Autowired
+    private SaleDigestDeliveryRepository deliveryRepository;
+
+    @Test
+    void insertAllStoresEveryRow() {
+        List<SaleDigestDelivery> deliveries = new ArrayList<>();
+        for (int i = 0; i < 1_234; i++) {
+            deliveries.add(new SaleDigestDelivery("subscriber" + i + "@example.com", "7,9"));
+        }
+
+        assertThat(deliveryRepository.insertAll(deliveries)).isEqualTo(1_234);
+        assertThat(deliveryRepository.count()).isEqualTo(1_234);
+        assertThat(deliveryRepository.findByRecipientInAndSentAtAfter(
+                List.of("subscriber1233@example.com"), new Date(System.currentTimeMillis() - 60_000)))
+                .singleElement().extracting(SaleDigestDelivery::getProductIds).isEqualTo("7,9");
+    }
+}
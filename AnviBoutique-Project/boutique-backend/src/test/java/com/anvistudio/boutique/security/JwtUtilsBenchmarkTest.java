@@ -0,0 +1,129 @@
+package com.anvistudio.boutique.security;
+
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JWT verification on the request path: JwtUtils must accept exactly the tokens the per-call jjwt parser
+ * accepted, and the benchmark (run with -Djwt.benchmark=true) compares the three ways a request has been
+ * authenticated: two fresh parsers per request (validate, then extract the username), one parse with the
+ * pre-built parser, and verifyAndGetSubject with the verified-token cache.
+ */
+class JwtUtilsBenchmarkTest {
+
+    private static final String SECRET = "AnviBoutiqueSuperSecretKeyForJWTAuth_MustBeLongerThan256Bits";
+
+    private JwtUtils jwtUtils;
+
+    @BeforeEach
+    void createJwtUtils() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86_400_000);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheMaxSize", 10_000L);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheMaxTtl", Duration.ofMinutes(5));
+        jwtUtils.init();
+    }
+
+    @Test
+    void verifiesTheSameTokensAsAPerCallParser() {
+        String token = token("jane@example.com");
+        String tampered = token.substring(0, token.length() - 4) + (token.endsWith("AAAA") ? "BBBB" : "AAAA");
+
+        assertEquals("jane@example.com", legacySubject(token));
+        assertEquals(Optional.of("jane@example.com"), jwtUtils.verifyAndGetSubject(token));
+        // Answered from the cache the second time
+        assertEquals(Optional.of("jane@example.com"), jwtUtils.verifyAndGetSubject(token));
+        assertTrue(jwtUtils.verifyAndGetSubject(tampered).isEmpty());
+        assertTrue(jwtUtils.verifyAndGetSubject("not.a.token").isEmpty());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "jwt.benchmark", matches = "true")
+    void benchmarkRequestAuthentication() throws Exception {
+        int users = Integer.getInteger("jwt.benchmark.users", 1_000);
+        int requests = Integer.getInteger("jwt.benchmark.requests", 200_000);
+        int threads = Integer.getInteger("jwt.benchmark.threads", Runtime.getRuntime().availableProcessors());
+
+        List<String> tokens = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            tokens.add(token("user" + i + "@example.com"));
+        }
+        JwtParser parser = (JwtParser) ReflectionTestUtils.getField(jwtUtils, "parser");
+
+        Function<String, String> legacy = JwtUtilsBenchmarkTest::legacySubject;
+        Function<String, String> prebuilt = token -> parser.parseClaimsJws(token).getBody().getSubject();
+        Function<String, String> cached = token -> jwtUtils.verifyAndGetSubject(token).orElseThrow();
+
+        for (Function<String, String> path : List.of(legacy, prebuilt, cached)) {
+            run(path, tokens, requests / 10, threads); // warm-up
+        }
+
+        System.out.printf("JWT BENCHMARK: %d distinct tokens (HS512), %d requests, %d threads%n", users, requests, threads);
+        report("two fresh parsers per request:     ", run(legacy, tokens, requests, threads), requests);
+        report("one parse, pre-built parser:       ", run(prebuilt, tokens, requests, threads), requests);
+        report("verifyAndGetSubject (cache warm):  ", run(cached, tokens, requests, threads), requests);
+    }
+
+    /**
+     * The request path before JwtUtils kept a parser: validateJwtToken and getUserNameFromJwtToken each
+     * built a parser from the secret string and verified the signature.
+     */
+    private static String legacySubject(String token) {
+        Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token);
+        return Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody().getSubject();
+    }
+
+    private String token(String username) {
+        User principal = new User(username, "unused", List.of());
+        return jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+
+    private static long run(Function<String, String> path, List<String> tokens, int requests, int threads) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                workers.add(pool.submit(() -> {
+                    for (int i = offset; i < requests; i += threads) {
+                        if (path.apply(tokens.get(i % tokens.size())) == null) {
+                            throw new IllegalStateException("Token without subject");
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            return System.nanoTime() - start;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void report(String label, long nanos, int requests) {
+        // Wall clock across all threads, so per-request time shrinks as threads are added
+        System.out.printf("  %s %,10.0f requests/s, %6.2f us wall clock per request%n",
+                label, requests / (nanos / 1e9), nanos / 1e3 / requests);
+    }
+}
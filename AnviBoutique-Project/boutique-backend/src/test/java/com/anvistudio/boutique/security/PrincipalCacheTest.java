@@ -0,0 +1,133 @@
+package com.anvistudio.boutique.security;
+
+import com.anvistudio.boutique.event.InMemoryInvalidationBus;
+import com.anvistudio.boutique.model.User;
+import com.anvistudio.boutique.model.VerificationToken;
+import com.anvistudio.boutique.model.VerificationToken.TokenType;
+import com.anvistudio.boutique.repository.CustomerRepository;
+import com.anvistudio.boutique.repository.UserRepository;
+import com.anvistudio.boutique.repository.VerificationTokenRepository;
+import com.anvistudio.boutique.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A password, credential or verification change made through UserService must leave the cached
+ * principal alone until the transaction commits, then evict it on this node (evictAfterCommit) and
+ * on every other node (InvalidationBus.REGION_USER). Two caches on one InMemoryInvalidationBus stand
+ * in for two application instances; the transaction is simulated with TransactionSynchronizationManager.
+ */
+class PrincipalCacheTest {
+
+    private static final String USERNAME = "jane@example.com";
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final VerificationTokenRepository tokenRepository = mock(VerificationTokenRepository.class);
+    private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+
+    private PrincipalCache localCache;
+    private PrincipalCache remoteCache;
+    private UserService userService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        InMemoryInvalidationBus localBus = new InMemoryInvalidationBus();
+        InMemoryInvalidationBus remoteBus = localBus.joinNode();
+        localCache = new PrincipalCache(localBus, 100, Duration.ofMinutes(10));
+        remoteCache = new PrincipalCache(remoteBus, 100, Duration.ofMinutes(10));
+        userService = new UserService(userRepository, mock(CustomerRepository.class), tokenRepository,
+                null, passwordEncoder, localBus, localCache);
+
+        user = new User();
+        user.setId(1L);
+        user.setUsername(USERNAME);
+        user.setPassword("old-hash");
+        user.setRole("ROLE_ADMIN");
+        when(userRepository.findByUsername(USERNAME)).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(passwordEncoder.matches(anyString(), anyString())).thenReturn(true);
+        when(passwordEncoder.encode(anyString())).thenReturn("new-hash");
+
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void passwordChangeEvictsThePrincipalAfterCommit() {
+        assertEvictedOnCommit(USERNAME,
+                () -> userService.changePassword(USERNAME, "Old1!pass", "New1!pass", "New1!pass"));
+    }
+
+    @Test
+    void accountVerificationEvictsThePrincipalAfterCommit() {
+        VerificationToken token = new VerificationToken(user, TokenType.REGISTRATION);
+        when(tokenRepository.findByUserId(1L)).thenReturn(Optional.of(token));
+
+        assertEvictedOnCommit(USERNAME,
+                () -> assertThat(userService.confirmUserAccountWithOtp(token.getToken(), USERNAME))
+                        .startsWith("Verification successful"));
+    }
+
+    @Test
+    void adminCredentialUpdateEvictsThePrincipalAfterCommit() {
+        // No code path changes a role after creation; the admin credential update is the change that
+        // replaces what an ROLE_ADMIN principal authenticates with, so it stands in for it here.
+        assertEvictedOnCommit(USERNAME,
+                () -> userService.updateAdminCredentials(USERNAME, USERNAME, "New1!pass", "9876543210"));
+    }
+
+    private void assertEvictedOnCommit(String username, Runnable change) {
+        AtomicInteger localLoads = new AtomicInteger();
+        AtomicInteger remoteLoads = new AtomicInteger();
+        localCache.get(username, loader(localLoads));
+        remoteCache.get(username, loader(remoteLoads));
+
+        change.run();
+
+        // Before commit both nodes still serve the cached principal
+        localCache.get(username, loader(localLoads));
+        remoteCache.get(username, loader(remoteLoads));
+        assertThat(localLoads).hasValue(1);
+        assertThat(remoteLoads).hasValue(1);
+
+        TransactionSynchronizationUtils.triggerAfterCommit();
+
+        localCache.get(username, loader(localLoads));
+        remoteCache.get(username, loader(remoteLoads));
+        assertThat(localLoads).hasValue(2);
+        assertThat(remoteLoads).hasValue(2);
+    }
+
+    private Function<String, UserDetails> loader(AtomicInteger loads) {
+        return name -> {
+            loads.incrementAndGet();
+            return org.springframework.security.core.userdetails.User.withUsername(name)
+                    .password(user.getPassword())
+                    .roles("ADMIN")
+                    .build();
+        };
+    }
+}
@@ -0,0 +1,123 @@
+package com.anvistudio.boutique.service;
+
+import com.anvistudio.boutique.dto.CartSummaryDTO;
+import com.anvistudio.boutique.dto.WishlistItemDTO;
+import com.anvistudio.boutique.model.CartItem;
+import com.anvistudio.boutique.model.Product;
+import com.anvistudio.boutique.model.User;
+import com.anvistudio.boutique.model.Wishlist;
+import com.anvistudio.boutique.repository.CartItemRepository;
+import com.anvistudio.boutique.repository.ProductRepository;
+import com.anvistudio.boutique.repository.WishlistRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Query-count regression suite for the cart, checkout summary and wishlist reads: each must load the
+ * items together with their products in a single statement, however many lines the cart holds.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class CartQueryCountTest {
+
+    private static final int LINES = 5;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private WishlistRepository wishlistRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Statistics statistics;
+    private Long userId;
+
+    @BeforeEach
+    void seedCartAndWishlist() {
+        User user = new User();
+        user.setUsername("shopper@example.com");
+        user.setPassword("encoded");
+        user.setRole("CUSTOMER");
+        entityManager.persist(user);
+        userId = user.getId();
+
+        for (int i = 1; i <= LINES; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setDescription("Description " + i);
+            product.setCategory("Sarees");
+            product.setPrice(new BigDecimal("100.00").multiply(BigDecimal.valueOf(i)));
+            product.setDiscountPercent(i % 2 == 0 ? 10 : 0);
+            product.setStockQuantity(10);
+            entityManager.persist(product);
+
+            CartItem item = new CartItem();
+            item.setUser(user);
+            item.setProduct(product);
+            item.setQuantity(i);
+            entityManager.persist(item);
+
+            Wishlist wish = new Wishlist();
+            wish.setUser(user);
+            wish.setProduct(product);
+            entityManager.persist(wish);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void cartSummaryLoadsItemsAndTotalWithOneQuery() {
+        // UserService is not used by the read paths under test
+        CartService cartService = new CartService(cartItemRepository, null, productRepository);
+
+        CartSummaryDTO summary = cartService.getCartSummary(userId);
+
+        assertThat(summary.getItemCount()).isEqualTo(LINES);
+        assertThat(summary.getItems()).allSatisfy(item -> assertThat(item.getProduct().getName()).isNotNull());
+        // 1x100 + 2x180 + 3x300 + 4x360 + 5x500
+        assertThat(summary.getTotal()).isEqualTo(5300.0);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void checkoutTotalReusesLoadedItems() {
+        CartService cartService = new CartService(cartItemRepository, null, productRepository);
+
+        List<CartItem> items = cartService.getCartItems(userId);
+        double total = cartService.calculateTotal(items);
+
+        assertThat(total).isEqualTo(5300.0);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void wishlistLoadsItemsWithProductsInOneQuery() {
+        List<WishlistItemDTO> items = wishlistRepository.findWithProductByUserId(userId).stream()
+                .map(WishlistItemDTO::from)
+                .collect(Collectors.toList());
+
+        assertThat(items).hasSize(LINES);
+        assertThat(items).allSatisfy(item -> assertThat(item.getProduct().getName()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,70 @@
+package com.anvistudio.boutique.service;
+
+import com.anvistudio.boutique.dto.ProductSummaryDTO;
+import com.anvistudio.boutique.event.ProductChangedEvent;
+import com.anvistudio.boutique.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * CatalogCache hands out copies: what one caller does with its product or list must not leak into
+ * what the next caller is served.
+ */
+class CatalogCacheTest {
+
+    private final CatalogCache cache = new CatalogCache(100, 10, Duration.ofMinutes(10));
+
+    @Test
+    void productsAreCopiedInAndOut() {
+        Product loaded = product(1L, "Red Silk Saree");
+        AtomicInteger loads = new AtomicInteger();
+
+        Product first = cache.getProduct(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(loaded);
+        }).orElseThrow();
+        // The loading persistence context and the first caller both change their instances
+        loaded.setName("Changed by the loader");
+        first.setName("Changed by a caller");
+        first.getDateCreated().setTime(0);
+
+        Product second = cache.getProduct(1L, id -> Optional.of(product(1L, "Reloaded"))).orElseThrow();
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getName()).isEqualTo("Red Silk Saree");
+        assertThat(second.getDateCreated().getTime()).isEqualTo(1_700_000_000_000L);
+        assertThat(second.getPrice()).isEqualByComparingTo("999");
+        assertThat(loads.get()).isEqualTo(1);
+
+        cache.onProductChanged(ProductChangedEvent.deleted(1L));
+        assertThat(cache.getProduct(1L, id -> Optional.empty())).isEmpty();
+    }
+
+    @Test
+    void featuredSummariesAreCopiedOut() {
+        List<ProductSummaryDTO> first = cache.getFeatured(() -> List.of(ProductSummaryDTO.from(product(1L, "Green Kurti"))));
+        first.get(0).setName("Changed by a caller");
+        first.clear();
+
+        List<ProductSummaryDTO> second = cache.getFeatured(List::of);
+        assertThat(second).hasSize(1);
+        assertThat(second.get(0).getName()).isEqualTo("Green Kurti");
+    }
+
+    private static Product product(Long id, String name) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setCategory("Sarees");
+        product.setPrice(new BigDecimal("999"));
+        product.setDateCreated(new Date(1_700_000_000_000L));
+        return product;
+    }
+}
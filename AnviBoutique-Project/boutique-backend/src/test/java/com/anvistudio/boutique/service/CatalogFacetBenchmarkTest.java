@@ -0,0 +1,189 @@
+package com.anvistudio.boutique.service;
+
+import com.anvistudio.boutique.dto.FacetedProductsDTO;
+import com.anvistudio.boutique.event.InMemoryInvalidationBus;
+import com.anvistudio.boutique.event.ProductChangedEvent;
+import com.anvistudio.boutique.model.Product;
+import com.anvistudio.boutique.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Catalog facets: the single-pass counts must equal what one GET /api/products call per filter option
+ * would report, a snapshot loaded while a change commits must not outlive it, and the benchmark
+ * (run with -Dcatalog.benchmark=true) compares both ways of building the filter sidebar.
+ */
+@DataJpaTest
+class CatalogFacetBenchmarkTest {
+
+    private static final long[] BUCKET_EDGES = {500, 1000, 2000, 5000};
+    private static final String[] CATEGORIES = {"Sarees", "Kurtis", "Lehengas", "Dupattas", "Blouses", "Fabrics"};
+    // No color is a substring of another, so "contains" filtering and exact facet values agree
+    private static final String[] COLORS = {"Red", "Navy", "Green", "Ivory", "Mustard", "Teal", "Black"};
+    private static final String[] STATUSES = {"inStock", "lowStock", "onSale", "clearance"};
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private ProductService productService;
+    private CatalogFacetService facetService;
+
+    @BeforeEach
+    void createServices() {
+        productRepository.deleteAll();
+        // Only the repository is used by the non-keyword catalog paths
+        productService = new ProductService(productRepository, null, null, null, null, null, null,
+                new InMemoryInvalidationBus(), null);
+        facetService = new CatalogFacetService(productRepository, null, BUCKET_EDGES);
+    }
+
+    @Test
+    void facetCountsMatchOneFilteredQueryPerOption() {
+        seed(300);
+
+        for (String[] filters : new String[][]{{null, null, null}, {"Sarees", null, null}, {null, "Red", "onSale"},
+                {"Kurtis", "Navy", "inStock"}}) {
+            FacetedProductsDTO facets = facetService.getFacetedProducts(
+                    filters[0], "latest", 400.0, 4999.99, filters[2], filters[1], null, 0, 24);
+            FacetedProductsDTO perOption = legacyFacets(filters[0], 400.0, 4999.99, filters[2], filters[1]);
+
+            assertThat(facets.getTotal()).as(Arrays.toString(filters)).isEqualTo(perOption.getTotal());
+            assertThat(facets.getCategories()).as(Arrays.toString(filters)).isEqualTo(perOption.getCategories());
+            assertThat(facets.getColors()).as(Arrays.toString(filters)).isEqualTo(perOption.getColors());
+            assertThat(facets.getStatuses()).as(Arrays.toString(filters)).isEqualTo(perOption.getStatuses());
+            assertThat(facets.getPriceBuckets()).as(Arrays.toString(filters)).isEqualTo(perOption.getPriceBuckets());
+        }
+    }
+
+    @Test
+    void snapshotLoadedDuringAChangeIsReloaded() {
+        ProductRepository repository = mock(ProductRepository.class);
+        CatalogFacetService service = new CatalogFacetService(repository, null, BUCKET_EDGES);
+        List<Object[]> before = List.<Object[]>of(facetRow(1L, "Sarees"));
+        List<Object[]> after = List.<Object[]>of(facetRow(1L, "Sarees"), facetRow(2L, "Kurtis"));
+        when(repository.findFacetColumns())
+                .thenAnswer(invocation -> {
+                    // A product change commits while the (old) rows are being read
+                    service.onProductChanged(ProductChangedEvent.deleted(99L));
+                    return before;
+                })
+                .thenReturn(after);
+
+        assertThat(service.getFacetedProducts(null, null, null, null, null, null, null, 0, 0).getTotal()).isEqualTo(1);
+        assertThat(service.getFacetedProducts(null, null, null, null, null, null, null, 0, 0).getTotal()).isEqualTo(2);
+        // Up to date now: served without another query
+        assertThat(service.getFacetedProducts(null, null, null, null, null, null, null, 0, 0).getTotal()).isEqualTo(2);
+        verify(repository, times(2)).findFacetColumns();
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "catalog.benchmark", matches = "true")
+    void benchmarkSidebarLatency() {
+        int products = Integer.getInteger("catalog.benchmark.products", 5_000);
+        int iterations = Integer.getInteger("catalog.benchmark.iterations", 50);
+        seed(products);
+
+        for (int warmUp = 0; warmUp < 5; warmUp++) {
+            facetService.getFacetedProducts(null, "latest", null, null, null, null, null, 0, 24);
+            legacyFacets(null, null, null, null, null);
+        }
+
+        long[] facetNanos = new long[iterations];
+        long[] legacyNanos = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            String category = CATEGORIES[i % CATEGORIES.length];
+            long start = System.nanoTime();
+            facetService.getFacetedProducts(category, "latest", null, null, null, null, null, 0, 24);
+            facetNanos[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            legacyFacets(category, null, null, null, null);
+            legacyNanos[i] = System.nanoTime() - start;
+        }
+
+        int queries = 1 + CATEGORIES.length + COLORS.length + STATUSES.length + BUCKET_EDGES.length + 1;
+        System.out.printf("CATALOG BENCHMARK: %d products, %d requests, H2 in memory%n", products, iterations);
+        System.out.printf("  single-pass facets:                 p50 %.2f ms, p95 %.2f ms%n",
+                percentile(facetNanos, 50), percentile(facetNanos, 95));
+        System.out.printf("  results + one query per option (%d): p50 %.2f ms, p95 %.2f ms%n",
+                queries, percentile(legacyNanos, 50), percentile(legacyNanos, 95));
+    }
+
+    /**
+     * The sidebar as the frontend would have to build it without the facet endpoint: one
+     * getFilteredProducts call per option, with that option's own filter replaced.
+     */
+    private FacetedProductsDTO legacyFacets(String category, Double minPrice, Double maxPrice, String status, String color) {
+        long total = productService.getFilteredProducts(category, "latest", minPrice, maxPrice, status, color, null).size();
+
+        Map<String, Long> categories = new LinkedHashMap<>();
+        for (String option : CATEGORIES) {
+            categories.put(option, (long) productService.getFilteredProducts(option, null, minPrice, maxPrice, status, color, null).size());
+        }
+        Map<String, Long> colors = new LinkedHashMap<>();
+        for (String option : COLORS) {
+            colors.put(option, (long) productService.getFilteredProducts(category, null, minPrice, maxPrice, status, option, null).size());
+        }
+        Map<String, Long> statuses = new LinkedHashMap<>();
+        for (String option : STATUSES) {
+            statuses.put(option, (long) productService.getFilteredProducts(category, null, minPrice, maxPrice, option, color, null).size());
+        }
+        Map<String, Long> buckets = new LinkedHashMap<>();
+        long lower = 0;
+        for (int b = 0; b <= BUCKET_EDGES.length; b++) {
+            // Buckets are [lower, upper) while the price filter is inclusive on both ends
+            Double upper = b < BUCKET_EDGES.length ? BUCKET_EDGES[b] - 0.01 : null;
+            String label = b < BUCKET_EDGES.length ? lower + "-" + BUCKET_EDGES[b] : lower + "+";
+            buckets.put(label, (long) productService.getFilteredProducts(category, null, (double) lower, upper, status, color, null).size());
+            lower = b < BUCKET_EDGES.length ? BUCKET_EDGES[b] : lower;
+        }
+        return new FacetedProductsDTO(List.of(), total, categories, colors, statuses, buckets);
+    }
+
+    private void seed(int count) {
+        List<Product> products = new ArrayList<>(count);
+        long baseTime = 1_700_000_000_000L;
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setDescription("Description " + i);
+            product.setCategory(CATEGORIES[i % CATEGORIES.length]);
+            product.setProductColor(COLORS[(i / 2) % COLORS.length]);
+            product.setPrice(BigDecimal.valueOf(300 + (i * 137L) % 6000));
+            product.setDiscountPercent((i % 5) * 15);
+            product.setStockQuantity(i % 9);
+            product.setIsAvailable(i % 11 != 0);
+            product.setDateCreated(new Date(baseTime + i * 1000L));
+            products.add(product);
+        }
+        productRepository.saveAll(products);
+    }
+
+    private static Object[] facetRow(Long id, String category) {
+        return new Object[]{id, category, "Red", new BigDecimal("999.00"), 3, 0, new Date()};
+    }
+
+    private static double percentile(long[] nanos, int percentile) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(percentile / 100.0 * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+}
@@ -0,0 +1,171 @@
+package com.anvistudio.boutique.service;
+
+import com.anvistudio.boutique.controller.ProductRestController;
+import com.anvistudio.boutique.dto.CatalogCursor;
+import com.anvistudio.boutique.dto.ProductPage;
+import com.anvistudio.boutique.dto.ProductSummaryDTO;
+import com.anvistudio.boutique.event.InMemoryInvalidationBus;
+import com.anvistudio.boutique.model.Product;
+import com.anvistudio.boutique.repository.ProductRepository;
+import com.anvistudio.boutique.repository.ProductSpecifications;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Keyset pagination of the catalog (GET /api/products/page): cursor encoding, rejection of bad cursors,
+ * the id tie-breaker for products sharing a sort key, and the last-page signal.
+ */
+@DataJpaTest
+class CatalogPageTest {
+
+    private static final long BASE_TIME = 1_700_000_000_000L;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private ProductService productService;
+
+    @BeforeEach
+    void seedCatalog() {
+        productRepository.deleteAll();
+        // Three pairs share a creation time and a price, so every sort order has ties to break
+        for (int i = 0; i < 7; i++) {
+            save("Product " + i, String.valueOf(1000 + (i / 2) * 100), BASE_TIME + (i / 2) * 1000L, true);
+        }
+        save("Hidden", "1000", BASE_TIME, false);
+
+        // Only the repository is used by the non-keyword page path
+        productService = new ProductService(productRepository, null, null, null, null, null, null,
+                new InMemoryInvalidationBus(), null);
+        ReflectionTestUtils.setField(productService, "defaultPageSize", 24);
+        ReflectionTestUtils.setField(productService, "maxPageSize", 100);
+    }
+
+    @Test
+    void cursorSurvivesEncodeDecodeRoundTrip() {
+        ProductSummaryDTO last = page(CatalogCursor.PRICE_DESC, null, 3).getItems().get(2);
+
+        CatalogCursor byPrice = CatalogCursor.decode(CatalogCursor.after(CatalogCursor.PRICE_DESC, last).encode());
+        assertThat(byPrice.getSortBy()).isEqualTo(CatalogCursor.PRICE_DESC);
+        assertThat(byPrice.getPrice()).isEqualByComparingTo(last.getDiscountedPrice());
+        assertThat(byPrice.getId()).isEqualTo(last.getId());
+
+        CatalogCursor byDate = CatalogCursor.decode(CatalogCursor.after("unknown", last).encode());
+        assertThat(byDate.getSortBy()).isEqualTo(CatalogCursor.LATEST);
+        assertThat(byDate.getDateCreated().getTime()).isEqualTo(last.getDateCreated().getTime());
+        assertThat(byDate.getId()).isEqualTo(last.getId());
+    }
+
+    @Test
+    void tiesOnTheSortKeyAreOrderedByIdWithoutGapsOrRepeats() {
+        for (String sortBy : List.of(CatalogCursor.LATEST, CatalogCursor.OLDEST, CatalogCursor.PRICE_ASC, CatalogCursor.PRICE_DESC)) {
+            List<Long> expected = ids(productRepository.findSummaries(
+                    ProductSpecifications.forCatalog(null, sortBy, null, null, null, null), 0));
+
+            List<Long> paged = new ArrayList<>();
+            String cursor = null;
+            do {
+                // A page size of 1 puts a cursor between every pair of tied products
+                ProductPage page = page(sortBy, cursor, 1);
+                paged.addAll(ids(page.getItems()));
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+
+            assertThat(paged).as(sortBy).hasSize(7).doesNotHaveDuplicates().isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void tiedProductsAreOrderedByAscendingId() {
+        List<ProductSummaryDTO> items = page(CatalogCursor.OLDEST, null, 2).getItems();
+
+        assertThat(items.get(0).getDateCreated().getTime()).isEqualTo(items.get(1).getDateCreated().getTime());
+        assertThat(items.get(0).getId()).isLessThan(items.get(1).getId());
+    }
+
+    @Test
+    void lastPageHasNoNextCursor() {
+        ProductPage first = page(CatalogCursor.LATEST, null, 4);
+        assertThat(first.isHasMore()).isTrue();
+        assertThat(first.getNextCursor()).isNotNull();
+
+        ProductPage last = page(CatalogCursor.LATEST, first.getNextCursor(), 4);
+        assertThat(last.getItems()).hasSize(3);
+        assertThat(last.isHasMore()).isFalse();
+        assertThat(last.getNextCursor()).isNull();
+
+        // A page that ends exactly on the last product must not promise another one
+        ProductPage exact = page(CatalogCursor.LATEST, null, 7);
+        assertThat(exact.getItems()).hasSize(7);
+        assertThat(exact.isHasMore()).isFalse();
+        assertThat(exact.getNextCursor()).isNull();
+    }
+
+    @Test
+    void malformedOrMismatchedCursorIsRejected() {
+        String priceCursor = page(CatalogCursor.PRICE_ASC, null, 1).getNextCursor();
+        String tampered = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("latest|not-a-date|1".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> CatalogCursor.decode("%%%")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CatalogCursor.decode(tampered)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> page(CatalogCursor.LATEST, priceCursor, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void invalidCursorIsABadRequest() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(
+                new ProductRestController(productService, null, null, null, null, mock(CatalogVersionService.class))).build();
+        String priceCursor = page(CatalogCursor.PRICE_ASC, null, 1).getNextCursor();
+
+        mockMvc.perform(get("/api/products/page").param("cursor", "bm90LWEtY3Vyc29y"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid page cursor."));
+        mockMvc.perform(get("/api/products/page").param("sortBy", "latest").param("cursor", priceCursor))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/products/page").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.hasMore").value(true));
+    }
+
+    private ProductPage page(String sortBy, String cursor, int size) {
+        return productService.getFilteredProductsPage(null, sortBy, null, null, null, null, null, cursor, size);
+    }
+
+    private void save(String name, String price, long createdAt, boolean available) {
+        Product product = new Product();
+        product.setName(name);
+        product.setDescription(name + " description");
+        product.setCategory("Sarees");
+        product.setPrice(new BigDecimal(price));
+        product.setStockQuantity(5);
+        product.setIsAvailable(available);
+        product.setDateCreated(new Date(createdAt));
+        productRepository.save(product);
+    }
+
+    private static List<Long> ids(List<ProductSummaryDTO> products) {
+        return products.stream().map(ProductSummaryDTO::getId).collect(Collectors.toList());
+    }
+}
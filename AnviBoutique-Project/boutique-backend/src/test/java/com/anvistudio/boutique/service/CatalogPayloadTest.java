@@ -0,0 +1,107 @@
+package com.anvistudio.boutique.service;
+
+import com.anvistudio.boutique.dto.ProductSummaryDTO;
+import com.anvistudio.boutique.model.Product;
+import com.anvistudio.boutique.repository.ProductRepository;
+import com.anvistudio.boutique.repository.ProductSpecifications;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Before/after measurement for the catalog list endpoints: JSON payload size and statement count of a
+ * page of full Product entities (what the endpoints used to serialize) against the ProductSummaryDTO
+ * projection they return now. The figures are printed with the "CATALOG PAYLOAD:" prefix.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class CatalogPayloadTest {
+
+    private static final int PRODUCTS = 24;
+    // Typical length of the TEXT columns on a real product page
+    private static final String LONG_TEXT = "Handwoven pure silk with zari border. ".repeat(50);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Statistics statistics;
+
+    @BeforeEach
+    void seedCatalog() {
+        for (int i = 1; i <= PRODUCTS; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setDescription(LONG_TEXT);
+            product.setDeliveryAndReturnPolicy(LONG_TEXT);
+            product.setAdditionalInformation(LONG_TEXT);
+            product.setProductTags("silk, saree, wedding, festive");
+            product.setCategory("Sarees");
+            product.setImageUrl("/images/product-" + i + ".jpg");
+            product.setPrice(new BigDecimal("100.00").multiply(BigDecimal.valueOf(i)));
+            product.setStockQuantity(10);
+            entityManager.persist(product);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void summariesAreAFractionOfTheEntityPayload() throws Exception {
+        Specification<Product> latest = ProductSpecifications.forCatalog(null, "latest", null, null, null, null);
+
+        // Before: full entities, as the list endpoints serialized them
+        List<Product> entities = productRepository.findAll(latest);
+        long entityStatements = statistics.getPrepareStatementCount();
+        int entityBytes = objectMapper.writeValueAsBytes(entities).length;
+        entityManager.clear();
+        statistics.clear();
+
+        // After: the projection behind GET /api/products, /page and /facets
+        List<ProductSummaryDTO> summaries = productRepository.findSummaries(latest, 0);
+        long summaryStatements = statistics.getPrepareStatementCount();
+        String summaryJson = objectMapper.writeValueAsString(summaries);
+        int summaryBytes = summaryJson.getBytes().length;
+        statistics.clear();
+
+        // Featured list (GET /api/products/featured)
+        List<ProductSummaryDTO> featured = productRepository.findLatestAvailableSummaries(PageRequest.of(0, 8));
+        long featuredStatements = statistics.getPrepareStatementCount();
+        statistics.clear();
+        List<Product> featuredEntities = productRepository.findAll(
+                PageRequest.of(0, 8, Sort.by(Sort.Direction.DESC, "dateCreated"))).getContent();
+        int featuredEntityBytes = objectMapper.writeValueAsBytes(featuredEntities).length;
+        int featuredBytes = objectMapper.writeValueAsBytes(featured).length;
+
+        System.out.printf("CATALOG PAYLOAD: %d products: entities %d bytes in %d statement(s), summaries %d bytes in %d "
+                        + "statement(s); featured: entities %d bytes, summaries %d bytes in %d statement(s)%n",
+                PRODUCTS, entityBytes, entityStatements, summaryBytes, summaryStatements,
+                featuredEntityBytes, featuredBytes, featuredStatements);
+
+        assertThat(summaries).hasSize(entities.size());
+        assertThat(summaryJson).doesNotContain("Handwoven", "deliveryAndReturnPolicy", "productTags");
+        assertThat(summaryBytes).isLessThan(entityBytes / 10);
+        assertThat(featuredBytes).isLessThan(featuredEntityBytes / 10);
+        assertThat(summaryStatements).isEqualTo(1);
+        assertThat(featuredStatements).isEqualTo(1);
+    }
+}
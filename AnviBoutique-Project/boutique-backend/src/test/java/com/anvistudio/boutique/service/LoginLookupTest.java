@@ -0,0 +1,126 @@
+package com.anvistudio.boutique.service;
+
+import com.anvistudio.boutique.model.Customer;
+import com.anvistudio.boutique.model.User;
+import com.anvistudio.boutique.repository.CustomerRepository;
+import com.anvistudio.boutique.repository.UserRepository;
+import jakarta.persistence.PersistenceException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Login identifier resolution (username, customer phone, admin recovery phone, in that order), and
+ * the EXPLAIN plan showing that every branch of the single lookup statement is answered from an index.
+ */
+@DataJpaTest
+class LoginLookupTest {
+
+    private static final String CUSTOMER_PHONE = "9876543210";
+    private static final String ADMIN_PHONE = "9123456789";
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    private UserService userService;
+
+    @BeforeEach
+    void seedUsers() {
+        // Only the repositories are used by the lookup
+        userService = new UserService(userRepository, customerRepository, null, null, null, null, null);
+
+        customer("jane@example.com", CUSTOMER_PHONE);
+        customer("priya@example.com", "9000000001");
+        User admin = user("admin@example.com", "ADMIN");
+        admin.setRecoveryPhoneNumber(ADMIN_PHONE);
+        // A customer cannot log in with a recovery phone, only admins can
+        User other = user("ravi@example.com", "CUSTOMER");
+        other.setRecoveryPhoneNumber("9555555555");
+        // Registered with a phone number as the username
+        user(CUSTOMER_PHONE.replace('9', '8'), "CUSTOMER");
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void identifiersResolveInOrderOfPrecedence() {
+        assertThat(username(userService.findUserByIdentifier("jane@example.com"))).isEqualTo("jane@example.com");
+        assertThat(username(userService.findUserByIdentifier(CUSTOMER_PHONE))).isEqualTo("jane@example.com");
+        assertThat(username(userService.findUserByIdentifier(ADMIN_PHONE))).isEqualTo("admin@example.com");
+        assertThat(username(userService.findUserByIdentifier(CUSTOMER_PHONE.replace('9', '8'))))
+                .isEqualTo(CUSTOMER_PHONE.replace('9', '8'));
+        assertThat(userService.findUserByIdentifier("9555555555")).isEmpty();
+        assertThat(userService.findUserByIdentifier("nobody@example.com")).isEmpty();
+        assertThat(userService.findUserByIdentifier("0000000000")).isEmpty();
+    }
+
+    @Test
+    void customerPhoneTakesPrecedenceOverAdminRecoveryPhone() {
+        User admin = userRepository.findByUsername("admin@example.com").orElseThrow();
+        admin.setRecoveryPhoneNumber(CUSTOMER_PHONE);
+        userRepository.saveAndFlush(admin);
+
+        assertThat(username(userService.findUserByIdentifier(CUSTOMER_PHONE))).isEqualTo("jane@example.com");
+    }
+
+    @Test
+    void recoveryPhonesAreUnique() {
+        User second = user("admin2@example.com", "ADMIN");
+        second.setRecoveryPhoneNumber(ADMIN_PHONE);
+
+        assertThatThrownBy(() -> entityManager.flush()).isInstanceOf(PersistenceException.class);
+    }
+
+    @Test
+    void theLookupIsOneIndexBackedStatement() {
+        // The statement Hibernate issues for a phone-shaped identifier, with the identifier inlined
+        String plan = explain(UserRepository.FIND_BY_LOGIN_IDENTIFIER.replace(":identifier", "'" + CUSTOMER_PHONE + "'"));
+
+        System.out.println("LOGIN LOOKUP PLAN:\n" + plan);
+        // H2 marks a full scan as "tableScan"; an index lookup names the index and its condition
+        assertThat(plan).doesNotContainIgnoringCase("tableScan")
+                .containsIgnoringCase("USERNAME =")
+                .containsIgnoringCase("PHONE_NUMBER =")
+                .containsIgnoringCase("IDX_USERS_RECOVERY_PHONE");
+    }
+
+    private String explain(String sql) {
+        return String.valueOf(entityManager.getEntityManager().createNativeQuery("EXPLAIN " + sql).getSingleResult());
+    }
+
+    private User user(String username, String role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("encoded");
+        user.setRole(role);
+        user.setEmailVerified(true);
+        return entityManager.persist(user);
+    }
+
+    private void customer(String username, String phoneNumber) {
+        Customer customer = new Customer();
+        customer.setFirstName("Test");
+        customer.setLastName("Customer");
+        customer.setPhoneNumber(phoneNumber);
+        customer.setTermsAccepted(true);
+        customer.setUser(user(username, "CUSTOMER"));
+        entityManager.persist(customer);
+    }
+
+    private static String username(Optional<User> user) {
+        return user.map(User::getUsername).orElse(null);
+    }
+}
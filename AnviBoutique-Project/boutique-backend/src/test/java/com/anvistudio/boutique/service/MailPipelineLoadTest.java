@@ -0,0 +1,241 @@
+package com.anvistudio.boutique.service;
+
+import com.anvistudio.boutique.dto.RegistrationDTO;
+import com.anvistudio.boutique.model.NewsletterSubscription;
+import com.anvistudio.boutique.model.OutboundMail;
+import com.anvistudio.boutique.model.OutboxEvent;
+import com.anvistudio.boutique.model.Product;
+import com.anvistudio.boutique.repository.NewsletterSubscriptionRepository;
+import com.anvistudio.boutique.repository.OutboundMailRepository;
+import com.anvistudio.boutique.repository.OutboxEventRepository;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Load harness for the mail pipeline (queue, outbox, digests, dispatcher) against an in-process
+ * GreenMail SMTP server, so changes can be measured without sending real mail.
+ * <p>
+ * Drives registrations (each queues a PRIORITY OTP) at a fixed rate while sale blasts (a product
+ * becoming discounted, fanned out to every subscriber on the BULK lane) fire at intervals, then
+ * waits for the queue to drain and reports delivery throughput, queue depth and latency percentiles.
+ * <p>
+ * Run: mvn test -Dtest=MailPipelineLoadTest -Dmail.benchmark=true [-Dmail.benchmark.otp-rate=20
+ * -Dmail.benchmark.duration-s=30 -Dmail.benchmark.subscribers=2000 -Dmail.benchmark.blasts=3]
+ * Pipeline settings (batch size, workers, rate limit, ...) can be overridden the same way, e.g.
+ * -Dapp.mail.queue.batch-size=100.
+ */
+@SpringBootTest
+@ActiveProfiles("mailbench")
+@EnabledIfSystemProperty(named = "mail.benchmark", matches = "true")
+class MailPipelineLoadTest {
+
+    private static final GreenMail SMTP = new GreenMail(ServerSetupTest.SMTP.dynamicPort());
+
+    private final int otpRate = Integer.getInteger("mail.benchmark.otp-rate", 20);
+    private final int durationSeconds = Integer.getInteger("mail.benchmark.duration-s", 30);
+    private final int subscribers = Integer.getInteger("mail.benchmark.subscribers", 2_000);
+    private final int blasts = Integer.getInteger("mail.benchmark.blasts", 3);
+    private final long drainTimeoutMs = TimeUnit.MINUTES.toMillis(Integer.getInteger("mail.benchmark.drain-timeout-min", 10));
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private NewsletterSubscriptionRepository subscriptionRepository;
+
+    @Autowired
+    private OutboundMailRepository mailRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @DynamicPropertySource
+    static void smtpServer(DynamicPropertyRegistry registry) {
+        SMTP.start();
+        registry.add("spring.mail.port", () -> SMTP.getSmtp().getPort());
+    }
+
+    @AfterAll
+    static void stopSmtpServer() {
+        SMTP.stop();
+    }
+
+    @Test
+    void driveOtpsAndSaleBlasts() throws Exception {
+        List<NewsletterSubscription> audience = new ArrayList<>(subscribers);
+        for (int i = 0; i < subscribers; i++) {
+            audience.add(new NewsletterSubscription("subscriber" + i + "@example.com"));
+        }
+        subscriptionRepository.saveAll(audience);
+
+        Map<OutboundMail.Lane, Long> maxDepth = new ConcurrentHashMap<>();
+        Map<String, Long> blastSavedAt = new ConcurrentHashMap<>();
+        AtomicInteger registrationErrors = new AtomicInteger();
+        AtomicLong registrations = new AtomicLong();
+
+        ExecutorService drivers = Executors.newVirtualThreadPerTaskExecutor();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> sampleDepth(maxDepth), 0, 200, TimeUnit.MILLISECONDS);
+
+        // 1. Offered load: registrations at a fixed rate (open model: slow requests do not slow the generator)
+        long start = System.nanoTime();
+        long totalRegistrations = (long) otpRate * durationSeconds;
+        long blastEvery = blasts > 0 ? Math.max(1, totalRegistrations / blasts) : Long.MAX_VALUE;
+        for (long i = 0; i < totalRegistrations; i++) {
+            long due = start + i * TimeUnit.SECONDS.toNanos(1) / Math.max(1, otpRate);
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            long n = i;
+            drivers.execute(() -> {
+                try {
+                    userService.registerCustomer(registration(n));
+                    registrations.incrementAndGet();
+                } catch (RuntimeException e) {
+                    registrationErrors.incrementAndGet();
+                }
+            });
+            if (i % blastEvery == blastEvery / 2) {
+                String name = "Load Test Offer " + i;
+                drivers.execute(() -> {
+                    long savedAt = System.currentTimeMillis();
+                    productService.saveProduct(discountedProduct(name));
+                    blastSavedAt.put(name, savedAt);
+                });
+            }
+        }
+        drivers.shutdown();
+        drivers.awaitTermination(5, TimeUnit.MINUTES);
+        long offeredMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // 2. Drain
+        long drainDeadline = System.currentTimeMillis() + drainTimeoutMs;
+        while (System.currentTimeMillis() < drainDeadline && !drained()) {
+            Thread.sleep(200);
+        }
+        sampler.shutdownNow();
+
+        // 3. Report
+        List<OutboundMail> mails = mailRepository.findAll();
+        System.out.println("MAIL LOAD TEST: offered " + registrations.get() + " registrations (" + registrationErrors.get()
+                + " failed) at " + otpRate + "/s over " + offeredMs + " ms, " + blastSavedAt.size() + " sale blasts to "
+                + subscribers + " subscribers");
+        for (OutboundMail.Lane lane : OutboundMail.Lane.values()) {
+            report(lane, mails, maxDepth.getOrDefault(lane, 0L));
+        }
+        blastSavedAt.forEach((name, savedAt) -> mails.stream()
+                .filter(mail -> mail.getSubject().contains(name) && mail.getSentAt() != null)
+                .mapToLong(mail -> mail.getSentAt().getTime())
+                .max()
+                .ifPresent(lastSent -> System.out.println("  blast '" + name + "': last mail sent "
+                        + (lastSent - savedAt) + " ms after the product was saved")));
+        long sent = mails.stream().filter(mail -> mail.getStatus() == OutboundMail.Status.SENT).count();
+        System.out.println("  SMTP server received " + SMTP.getReceivedMessages().length + " messages");
+
+        assertEquals(sent, SMTP.getReceivedMessages().length);
+    }
+
+    private boolean drained() {
+        return mailRepository.countByLaneAndStatus().stream()
+                .noneMatch(row -> row[1] == OutboundMail.Status.PENDING || row[1] == OutboundMail.Status.SENDING)
+                && outboxRepository.findAll().stream().allMatch(event -> event.getStatus() == OutboxEvent.Status.PUBLISHED
+                        || event.getStatus() == OutboxEvent.Status.FAILED);
+    }
+
+    private void sampleDepth(Map<OutboundMail.Lane, Long> maxDepth) {
+        Map<OutboundMail.Lane, Long> depth = new EnumMap<>(OutboundMail.Lane.class);
+        for (Object[] row : mailRepository.countByLaneAndStatus()) {
+            if (row[1] == OutboundMail.Status.PENDING || row[1] == OutboundMail.Status.SENDING) {
+                depth.merge((OutboundMail.Lane) row[0], (Long) row[2], Long::sum);
+            }
+        }
+        depth.forEach((lane, count) -> maxDepth.merge(lane, count, Math::max));
+    }
+
+    private static void report(OutboundMail.Lane lane, List<OutboundMail> mails, long maxDepth) {
+        List<Long> latencies = new ArrayList<>();
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        int failed = 0;
+        for (OutboundMail mail : mails) {
+            if (mail.getLane() != lane) {
+                continue;
+            }
+            if (mail.getStatus() != OutboundMail.Status.SENT) {
+                failed++;
+                continue;
+            }
+            latencies.add(mail.getSentAt().getTime() - mail.getCreatedAt().getTime());
+            first = Math.min(first, mail.getCreatedAt().getTime());
+            last = Math.max(last, mail.getSentAt().getTime());
+        }
+        if (latencies.isEmpty()) {
+            System.out.println("  " + lane + ": no mail sent (" + failed + " not sent)");
+            return;
+        }
+        Collections.sort(latencies);
+        double seconds = Math.max(1, last - first) / 1000.0;
+        System.out.printf("  %s: %d sent, %d not sent, %.1f msg/s, max queue depth %d, " +
+                        "queue-to-SMTP latency p50 %d ms, p95 %d ms, p99 %d ms, max %d ms%n",
+                lane, latencies.size(), failed, latencies.size() / seconds, maxDepth,
+                percentile(latencies, 50), percentile(latencies, 95), percentile(latencies, 99),
+                latencies.get(latencies.size() - 1));
+    }
+
+    private static long percentile(List<Long> sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+
+    private static RegistrationDTO registration(long n) {
+        RegistrationDTO dto = new RegistrationDTO();
+        dto.setFirstName("Load");
+        dto.setLastName("Test " + n);
+        dto.setUsername("loadtest" + n + "@example.com");
+        dto.setPassword("Password1!");
+        dto.setConfirmPassword("Password1!");
+        dto.setPhoneNumber(String.valueOf(9_000_000_000L + n));
+        dto.setTermsAccepted(true);
+        dto.setNewsletterOptIn(false);
+        return dto;
+    }
+
+    private static Product discountedProduct(String name) {
+        Product product = new Product();
+        product.setName(name);
+        product.setDescription("Generated by MailPipelineLoadTest");
+        product.setCategory("Sarees");
+        product.setPrice(BigDecimal.valueOf(2500));
+        product.setDiscountPercent(20);
+        product.setStockQuantity(10);
+        return product;
+    }
+}
@@ -0,0 +1,104 @@
+package com.anvistudio.boutique.service;
+
+import com.anvistudio.boutique.model.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Email templates: a prepared MailMerge must produce exactly what a full render would, and the
+ * benchmark (run with -Dmail.benchmark=true) compares messages rendered per second both ways.
+ */
+class MailTemplateBenchmarkTest {
+
+    private static final String RECIPIENT = "jane.doe+offers@example.com";
+
+    private final MailTemplateService templates = new MailTemplateService();
+
+    @Test
+    void mergedDigestMatchesFullRender() {
+        Map<String, Object> shared = digestVariables(20);
+
+        MailMerge.Body merged = templates.prepare(MailTemplateService.SALE_DIGEST, shared, "recipient").merge(RECIPIENT);
+        MailMerge.Body rendered = fullRender(shared, RECIPIENT);
+
+        assertEquals(rendered.getText(), merged.getText());
+        assertEquals(rendered.getHtml(), merged.getHtml());
+        assertTrue(merged.getText().contains("Product 7"));
+        assertTrue(merged.getText().contains(RECIPIENT));
+    }
+
+    @Test
+    void otpFieldsAreMergedIntoTextAndHtml() {
+        MailMerge otp = templates.prepare(MailTemplateService.OTP,
+                Map.of("action", "change your login email to " + templates.field("email"), "expiryMinutes", 5),
+                "otp", "email");
+
+        MailMerge.Body body = otp.merge("123456", "a&b@example.com");
+
+        assertTrue(body.getText().contains("--- 123456 ---"));
+        assertTrue(body.getText().contains("change your login email to a&b@example.com"));
+        assertTrue(body.getHtml().contains("a&amp;b@example.com"));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "mail.benchmark", matches = "true")
+    void benchmarkMessagesRenderedPerSecond() {
+        int recipients = Integer.getInteger("mail.benchmark.recipients", 20_000);
+        Map<String, Object> shared = digestVariables(20);
+
+        for (int warmUp = 0; warmUp < 2_000; warmUp++) {
+            fullRender(shared, RECIPIENT);
+            templates.prepare(MailTemplateService.SALE_DIGEST, shared, "recipient").merge(RECIPIENT);
+        }
+
+        long start = System.nanoTime();
+        long chars = 0;
+        for (int i = 0; i < recipients; i++) {
+            chars += fullRender(shared, "user" + i + "@example.com").getHtml().length();
+        }
+        double fullPerSecond = recipients / ((System.nanoTime() - start) / 1e9);
+
+        start = System.nanoTime();
+        MailMerge campaign = templates.prepare(MailTemplateService.SALE_DIGEST, shared, "recipient");
+        for (int i = 0; i < recipients; i++) {
+            chars += campaign.merge("user" + i + "@example.com").getHtml().length();
+        }
+        double mergedPerSecond = recipients / ((System.nanoTime() - start) / 1e9);
+
+        System.out.printf("MAIL BENCHMARK: %d recipients, 20-product digest (text + HTML)%n", recipients);
+        System.out.printf("  full Thymeleaf render per recipient: %,.0f messages/s%n", fullPerSecond);
+        System.out.printf("  render once + merge per recipient:   %,.0f messages/s (%.1fx)%n",
+                mergedPerSecond, mergedPerSecond / fullPerSecond);
+        assertTrue(chars > 0);
+    }
+
+    private MailMerge.Body fullRender(Map<String, Object> shared, String recipient) {
+        Map<String, Object> variables = new HashMap<>(shared);
+        variables.put("recipient", recipient);
+        return templates.prepare(MailTemplateService.SALE_DIGEST, variables).merge();
+    }
+
+    private static Map<String, Object> digestVariables(int productCount) {
+        List<Product> products = new ArrayList<>();
+        for (int i = 1; i <= productCount; i++) {
+            Product product = new Product();
+            product.setId((long) i);
+            product.setName("Product " + i);
+            product.setSku("SKU-" + i);
+            product.setCategory("Sarees");
+            product.setPrice(BigDecimal.valueOf(1000 + i));
+            product.setDiscountPercent(10 + i);
+            products.add(product);
+        }
+        return Map.of("listed", products, "moreCount", 3, "productUrl", "http://localhost:8080/products/");
+    }
+}
@@ -0,0 +1,49 @@
+package com.anvistudio.boutique.service;
+
+import com.anvistudio.boutique.model.Product;
+import com.anvistudio.boutique.repository.NewsletterSubscriptionRepository;
+import com.anvistudio.boutique.repository.ProductRepository;
+import com.anvistudio.boutique.repository.SaleDigestDeliveryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Sale digests only announce products a shopper can still buy: discounted and available.
+ */
+class NotificationServiceTest {
+
+    private final NewsletterSubscriptionRepository subscriptionRepository = mock(NewsletterSubscriptionRepository.class);
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final SaleDigestDeliveryRepository deliveryRepository = mock(SaleDigestDeliveryRepository.class);
+    private final MailQueueService mailQueueService = mock(MailQueueService.class);
+
+    private final NotificationService notificationService = new NotificationService(subscriptionRepository, null,
+            mailQueueService, productRepository, deliveryRepository, mock(PlatformTransactionManager.class), null);
+
+    @Test
+    void hiddenOrUndiscountedProductsAreNotAnnounced() {
+        when(productRepository.findAllById(any())).thenReturn(List.of(
+                product(1L, 20, false), // discounted, but hidden from the shop since the event was recorded
+                product(2L, 0, true))); // discount withdrawn
+
+        assertThat(notificationService.sendSaleDigest(List.of(1L, 2L), () -> true)).isEmpty();
+
+        verifyNoInteractions(subscriptionRepository, deliveryRepository, mailQueueService);
+    }
+
+    private static Product product(Long id, int discountPercent, boolean available) {
+        Product product = new Product();
+        product.setId(id);
+        product.setDiscountPercent(discountPercent);
+        product.setIsAvailable(available);
+        return product;
+    }
+}
@@ -0,0 +1,180 @@
+package com.anvistudio.boutique.service;
+
+import com.anvistudio.boutique.model.Product;
+import com.anvistudio.boutique.model.Review;
+import com.anvistudio.boutique.model.User;
+import com.anvistudio.boutique.repository.ProductRepository;
+import com.anvistudio.boutique.repository.ReviewRepository;
+import com.anvistudio.boutique.repository.UserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Benchmark for GET /api/products/{id}: the same request mix served with the reviews query run serially
+ * and in parallel (app.catalog.detail-parallel), reporting latency percentiles and how many pool
+ * connections were in use and awaited at the peak. Requests go through MockMvc, so open-in-view holds
+ * the request's own connection just as in production.
+ * <p>
+ * Run: mvn test -Dtest=ProductDetailBenchmarkTest -Dcatalog.benchmark=true [-Dcatalog.benchmark.products=2000
+ * -Dcatalog.benchmark.requests=5000 -Dcatalog.benchmark.concurrency=64]
+ * Pool and parallelism settings can be overridden the same way, e.g.
+ * -Dspring.datasource.hikari.maximum-pool-size=10 -Dapp.catalog.detail-parallel-max=8.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("bench")
+@EnabledIfSystemProperty(named = "catalog.benchmark", matches = "true")
+class ProductDetailBenchmarkTest {
+
+    private static final String[] CATEGORIES = {"Sarees", "Kurtis", "Lehengas", "Dupattas", "Blouses",
+            "Fabrics", "Stoles", "Gowns", "Suits", "Accessories"};
+
+    private final int products = Integer.getInteger("catalog.benchmark.products", 2_000);
+    private final int requests = Integer.getInteger("catalog.benchmark.requests", 5_000);
+    private final int concurrency = Integer.getInteger("catalog.benchmark.concurrency", 64);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductDetailService productDetailService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void compareSerialAndParallelDetail() throws Exception {
+        List<Long> ids = seed();
+        HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+
+        System.out.printf("CATALOG BENCHMARK: GET /api/products/{id}, %d products (1 in 10 hidden), %d requests, "
+                + "%d concurrent callers, H2 in memory%n", products, requests, concurrency);
+        for (boolean parallel : new boolean[]{false, true, false, true}) {
+            ReflectionTestUtils.setField(productDetailService, "parallel", parallel);
+            run(parallel ? "parallel" : "serial  ", ids, pool);
+        }
+    }
+
+    private void run(String label, List<Long> ids, HikariPoolMXBean pool) throws Exception {
+        long[] nanos = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        int[] peaks = new int[2];
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            synchronized (peaks) {
+                peaks[0] = Math.max(peaks[0], pool.getActiveConnections());
+                peaks[1] = Math.max(peaks[1], pool.getThreadsAwaitingConnection());
+            }
+        }, 0, 5, TimeUnit.MILLISECONDS);
+
+        // Closed model: each caller sends its next request as soon as the previous one returns
+        long start = System.nanoTime();
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrency; c++) {
+                callers.execute(() -> {
+                    for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                        long id = ids.get((int) ((i * 7919L) % ids.size()));
+                        long begin = System.nanoTime();
+                        try {
+                            int status = mockMvc.perform(get("/api/products/" + id)).andReturn().getResponse().getStatus();
+                            if (status != 200 && status != 404) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        nanos[i] = System.nanoTime() - begin;
+                    }
+                });
+            }
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        sampler.shutdownNow();
+
+        System.out.printf("  %s: %.0f req/s, p50 %.2f ms, p95 %.2f ms, p99 %.2f ms, %d errors, "
+                        + "peak %d active connections, peak %d threads awaiting a connection%n",
+                label, requests * 1000.0 / Math.max(1, elapsedMs), percentile(nanos, 50), percentile(nanos, 95),
+                percentile(nanos, 99), errors.get(), peaks[0], peaks[1]);
+    }
+
+    private List<Long> seed() {
+        List<User> reviewers = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            User user = new User();
+            user.setUsername("reviewer" + i + "@example.com");
+            user.setPassword("not-a-real-hash");
+            user.setRole("CUSTOMER");
+            reviewers.add(user);
+        }
+        userRepository.saveAll(reviewers);
+
+        List<Product> catalog = new ArrayList<>(products);
+        long baseTime = 1_700_000_000_000L;
+        for (int i = 0; i < products; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setDescription("Description " + i);
+            product.setCategory(CATEGORIES[i % CATEGORIES.length]);
+            product.setPrice(BigDecimal.valueOf(300 + (i * 137L) % 6000));
+            product.setStockQuantity(5);
+            product.setIsAvailable(i % 10 != 0);
+            product.setDateCreated(new Date(baseTime + i * 1000L));
+            catalog.add(product);
+        }
+        productRepository.saveAll(catalog);
+
+        List<Review> reviews = new ArrayList<>();
+        for (Product product : catalog) {
+            for (int r = 0; r < 12; r++) {
+                Review review = new Review();
+                review.setUser(reviewers.get(r % reviewers.size()));
+                review.setProduct(product);
+                review.setRating(1 + r % 5);
+                review.setComment("Review " + r);
+                review.setIsApproved(r % 4 != 0);
+                reviews.add(review);
+            }
+        }
+        reviewRepository.saveAll(reviews);
+        return catalog.stream().map(Product::getId).toList();
+    }
+
+    private static double percentile(long[] nanos, int percentile) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(percentile / 100.0 * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+}
@@ -0,0 +1,151 @@
+package com.anvistudio.boutique.service;
+
+import com.anvistudio.boutique.dto.ProductPage;
+import com.anvistudio.boutique.dto.ProductSummaryDTO;
+import com.anvistudio.boutique.event.InMemoryInvalidationBus;
+import com.anvistudio.boutique.event.ProductChangedEvent;
+import com.anvistudio.boutique.model.Product;
+import com.anvistudio.boutique.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The embedded product search index: building and incremental maintenance, stemming, and keyword
+ * searches combined with SQL filters and pagination (no hit may be dropped before the filters run).
+ */
+@DataJpaTest
+class ProductSearchServiceTest {
+
+    @TempDir
+    Path indexDir;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private ProductSearchService searchService;
+    private ProductService productService;
+
+    @BeforeEach
+    void openIndex() {
+        productRepository.deleteAll();
+        searchService = new ProductSearchService(productRepository);
+        ReflectionTestUtils.setField(searchService, "indexDir", indexDir.toString());
+        // Smaller than the number of hits, so every search needs several batches
+        ReflectionTestUtils.setField(searchService, "batchSize", 2);
+        searchService.openIndex();
+
+        productService = new ProductService(productRepository, null, null, null, searchService, null, null,
+                new InMemoryInvalidationBus(), null);
+        ReflectionTestUtils.setField(productService, "defaultPageSize", 24);
+        ReflectionTestUtils.setField(productService, "maxPageSize", 100);
+    }
+
+    @AfterEach
+    void closeIndex() throws IOException {
+        searchService.closeIndex();
+    }
+
+    @Test
+    void rebuildIndexesEveryProductAndRanksNameMatchesFirst() {
+        Product descriptionOnly = save("Plain Dupatta", "Dupattas", "500", "Goes with any silk saree");
+        Product nameMatch = save("Red Silk Saree", "Sarees", "999", "Festive wear");
+
+        assertThat(searchService.rebuildIndex()).isEqualTo(2);
+
+        assertThat(searchService.search("silk")).containsExactly(nameMatch.getId(), descriptionOnly.getId());
+        assertThat(searchService.search("dupatta")).containsExactly(descriptionOnly.getId());
+        assertThat(searchService.search("velvet")).isEmpty();
+        assertThat(searchService.search("  ")).isEmpty();
+    }
+
+    @Test
+    void savedAndDeletedProductsAreReindexed() {
+        Product product = save("Green Kurti", "Kurtis", "800", "Cotton");
+        searchService.rebuildIndex();
+
+        product.setName("Emerald Kurti");
+        productRepository.save(product);
+        searchService.onProductChanged(ProductChangedEvent.saved(product));
+
+        assertThat(searchService.search("emerald")).containsExactly(product.getId());
+        assertThat(searchService.search("green")).isEmpty();
+
+        Product added = save("Emerald Saree", "Sarees", "1500", "Silk");
+        searchService.onProductChanged(ProductChangedEvent.saved(added));
+        assertThat(searchService.search("emerald")).containsExactlyInAnyOrder(product.getId(), added.getId());
+
+        productRepository.deleteById(product.getId());
+        searchService.onProductChanged(ProductChangedEvent.deleted(product.getId()));
+        assertThat(searchService.search("emerald")).containsExactly(added.getId());
+    }
+
+    @Test
+    void singularAndPluralFormsMatchEachOther() {
+        Product saree = save("Red Silk Saree", "Sarees", "999", "Handwoven");
+        Product kurtis = save("Festive Kurtis", "Kurtis", "1200", "Set of two dresses");
+        searchService.rebuildIndex();
+
+        assertThat(searchService.search("sarees")).containsExactly(saree.getId());
+        assertThat(searchService.search("Kurti")).containsExactly(kurtis.getId());
+        assertThat(searchService.search("dress")).containsExactly(kurtis.getId());
+        // Prefixes of a term still match while the shopper is typing
+        assertThat(searchService.search("kur")).containsExactly(kurtis.getId());
+    }
+
+    @Test
+    void filteredKeywordPagesSeeEveryHit() {
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            Product product = save("Silk Saree " + i, i % 2 == 0 ? "Sarees" : "Handlooms", String.valueOf(500 + i * 200), "Silk");
+            // Only the four most expensive sarees pass the price filter
+            if (product.getPrice().compareTo(new BigDecimal("1500")) >= 0) {
+                expected.add(product.getId());
+            }
+        }
+        save("Silk Dupatta", "Dupattas", "300", "Silk");
+        searchService.rebuildIndex();
+
+        List<Long> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            ProductPage page = productService.getFilteredProductsPage(
+                    null, "priceAsc", 1500.0, null, null, null, "silk saree", cursor, 2);
+            paged.addAll(ids(page.getItems()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(paged).isEqualTo(expected);
+        assertThat(ids(productService.getFilteredProducts(null, "priceAsc", 1500.0, null, null, null, "silk saree")))
+                .isEqualTo(expected);
+    }
+
+    private Product save(String name, String category, String price, String description) {
+        Product product = new Product();
+        product.setName(name);
+        product.setDescription(description);
+        product.setCategory(category);
+        product.setPrice(new BigDecimal(price));
+        product.setStockQuantity(5);
+        product.setDateCreated(new Date());
+        return productRepository.save(product);
+    }
+
+    private static List<Long> ids(List<ProductSummaryDTO> products) {
+        return products.stream().map(ProductSummaryDTO::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,157 @@
+package com.anvistudio.boutique.service;
+
+import com.anvistudio.boutique.event.InMemoryInvalidationBus;
+import com.anvistudio.boutique.model.Product;
+import com.anvistudio.boutique.model.Review;
+import com.anvistudio.boutique.model.User;
+import com.anvistudio.boutique.repository.ProductRepository;
+import com.anvistudio.boutique.repository.ReviewRepository;
+import com.anvistudio.boutique.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * The denormalized rating aggregates on Product: admin saves never write them, moderation counts each
+ * review once however often it is repeated, and reconciliation recomputes drifted rows from the approved reviews.
+ */
+@DataJpaTest
+class RatingAggregatesTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private ProductService productService;
+    private ReviewService reviewService;
+    private User reviewer;
+
+    @BeforeEach
+    void createServices() {
+        productService = new ProductService(productRepository, null, null, null, null,
+                mock(ApplicationEventPublisher.class), null, new InMemoryInvalidationBus(), mock(CatalogVersionService.class));
+        reviewService = new ReviewService(reviewRepository, userRepository, productRepository, mock(CatalogCache.class),
+                mock(CatalogVersionService.class), new InMemoryInvalidationBus());
+
+        reviewer = new User();
+        reviewer.setUsername("reviewer@example.com");
+        reviewer.setPassword("not-a-real-hash");
+        reviewer.setRole("CUSTOMER");
+        userRepository.save(reviewer);
+    }
+
+    @Test
+    void adminSaveDoesNotOverwriteTheAggregates() {
+        Product stored = product("Red Silk Saree");
+        productRepository.adjustRatingAggregates(stored.getId(), 5, 1);
+        productRepository.adjustRatingAggregates(stored.getId(), 4, 1);
+        entityManager.clear();
+
+        // The admin form carries no aggregates, so they arrive as zeros
+        Product form = new Product();
+        form.setId(stored.getId());
+        form.setName("Red Banarasi Saree");
+        form.setDescription(stored.getDescription());
+        form.setCategory(stored.getCategory());
+        form.setPrice(new BigDecimal("1299"));
+        form.setStockQuantity(3);
+        productService.saveProduct(form);
+        entityManager.flush();
+        entityManager.clear();
+
+        Product reloaded = productRepository.findById(stored.getId()).orElseThrow();
+        assertThat(reloaded.getName()).isEqualTo("Red Banarasi Saree");
+        assertThat(reloaded.getRatingSum()).isEqualTo(9L);
+        assertThat(reloaded.getRatingCount()).isEqualTo(2);
+        assertThat(reloaded.getFourStarCount()).isEqualTo(1);
+        assertThat(reloaded.getFiveStarCount()).isEqualTo(1);
+    }
+
+    @Test
+    void repeatedModerationAdjustsTheAggregatesOnce() {
+        Product product = product("Silk Blouse");
+        Long reviewId = review(product, 4, false);
+        entityManager.flush();
+        entityManager.clear();
+
+        // A second approval (e.g. a double click, or two admins) finds nothing pending
+        reviewService.approveReview(reviewId);
+        reviewService.approveReview(reviewId);
+        entityManager.clear();
+        Product approved = productRepository.findById(product.getId()).orElseThrow();
+        assertThat(approved.getRatingCount()).isEqualTo(1);
+        assertThat(approved.getRatingSum()).isEqualTo(4L);
+        assertThat(approved.getFourStarCount()).isEqualTo(1);
+
+        reviewService.deleteReview(reviewId);
+        reviewService.deleteReview(reviewId);
+        entityManager.clear();
+        Product deleted = productRepository.findById(product.getId()).orElseThrow();
+        assertThat(deleted.getRatingCount()).isZero();
+        assertThat(deleted.getRatingSum()).isZero();
+        assertThat(deleted.getFourStarCount()).isZero();
+        assertThat(reviewRepository.existsById(reviewId)).isFalse();
+    }
+
+    @Test
+    void reconcileCorrectsOnlyDriftedProducts() {
+        Product drifted = product("Green Kurti");
+        Product inSync = product("Ivory Dupatta");
+        review(drifted, 4, true);
+        review(drifted, 5, true);
+        review(drifted, 1, false);
+        review(inSync, 3, true);
+        productRepository.adjustRatingAggregates(inSync.getId(), 3, 1);
+        entityManager.flush();
+
+        assertThat(reviewService.reconcileRatingAggregates()).isEqualTo(1);
+        entityManager.clear();
+
+        Product corrected = productRepository.findById(drifted.getId()).orElseThrow();
+        assertThat(corrected.getRatingSum()).isEqualTo(9L);
+        assertThat(corrected.getRatingCount()).isEqualTo(2);
+        assertThat(corrected.getOneStarCount()).isZero();
+        assertThat(corrected.getFourStarCount()).isEqualTo(1);
+        assertThat(corrected.getFiveStarCount()).isEqualTo(1);
+        assertThat(productRepository.findById(inSync.getId()).orElseThrow().getThreeStarCount()).isEqualTo(1);
+
+        assertThat(reviewService.reconcileRatingAggregates()).isZero();
+    }
+
+    private Product product(String name) {
+        Product product = new Product();
+        product.setName(name);
+        product.setDescription("Handwoven");
+        product.setCategory("Sarees");
+        product.setPrice(new BigDecimal("999"));
+        product.setStockQuantity(5);
+        product.setDateCreated(new Date());
+        return productRepository.saveAndFlush(product);
+    }
+
+    private Long review(Product product, int rating, boolean approved) {
+        Review review = new Review();
+        review.setUser(reviewer);
+        review.setProduct(product);
+        review.setRating(rating);
+        review.setIsApproved(approved);
+        return reviewRepository.save(review).getId();
+    }
+}
@@ -0,0 +1,211 @@
+package com.anvistudio.boutique.service;
+
+import com.anvistudio.boutique.controller.ProductRestController;
+import com.anvistudio.boutique.dto.ReviewCursor;
+import com.anvistudio.boutique.dto.ReviewDTO;
+import com.anvistudio.boutique.dto.ReviewPage;
+import com.anvistudio.boutique.event.InMemoryInvalidationBus;
+import com.anvistudio.boutique.model.Product;
+import com.anvistudio.boutique.model.Review;
+import com.anvistudio.boutique.model.User;
+import com.anvistudio.boutique.repository.ProductRepository;
+import com.anvistudio.boutique.repository.ReviewRepository;
+import com.anvistudio.boutique.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Keyset pagination of a product's approved reviews (GET /api/products/{id}/reviews): cursor encoding,
+ * rejection of bad or mismatched cursors, the id tie-breaker for reviews sharing a rating or date, and
+ * exclusion of unapproved reviews and other products' reviews.
+ */
+@DataJpaTest
+class ReviewPageTest {
+
+    private static final long BASE_TIME = 1_700_000_000_000L;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private ReviewService reviewService;
+    private Product product;
+    private final List<Review> approved = new ArrayList<>();
+
+    @BeforeEach
+    void seedReviews() {
+        User reviewer = new User();
+        reviewer.setUsername("reviewer@example.com");
+        reviewer.setPassword("not-a-real-hash");
+        reviewer.setRole("CUSTOMER");
+        userRepository.save(reviewer);
+        product = product("Red Silk Saree");
+        Product other = product("Green Kurti");
+
+        // Three pairs share a rating and a posting time, so every sort order has ties to break
+        for (int i = 0; i < 7; i++) {
+            approved.add(review(reviewer, product, 1 + i / 2, BASE_TIME + (i / 2) * 1000L, true));
+        }
+        // Newest and best rated, but not approved or not this product's: never listed
+        review(reviewer, product, 5, BASE_TIME + 60_000, false);
+        review(reviewer, product, 5, BASE_TIME + 60_000, false);
+        review(reviewer, other, 5, BASE_TIME + 60_000, true);
+
+        reviewService = new ReviewService(reviewRepository, userRepository, productRepository, mock(CatalogCache.class),
+                mock(CatalogVersionService.class), new InMemoryInvalidationBus());
+        ReflectionTestUtils.setField(reviewService, "defaultPageSize", 10);
+        ReflectionTestUtils.setField(reviewService, "maxPageSize", 50);
+    }
+
+    @Test
+    void cursorSurvivesEncodeDecodeRoundTrip() {
+        ReviewDTO last = page(ReviewCursor.HIGHEST, null, 3).getItems().get(2);
+
+        ReviewCursor byRating = ReviewCursor.decode(ReviewCursor.after(ReviewCursor.HIGHEST, last).encode());
+        assertThat(byRating.getSort()).isEqualTo(ReviewCursor.HIGHEST);
+        assertThat(byRating.getKey()).isEqualTo(last.getRating());
+        assertThat(byRating.getId()).isEqualTo(last.getId());
+
+        ReviewCursor byDate = ReviewCursor.decode(ReviewCursor.after("unknown", last).encode());
+        assertThat(byDate.getSort()).isEqualTo(ReviewCursor.NEWEST);
+        assertThat(byDate.getKey()).isEqualTo(last.getDatePosted().getTime());
+        assertThat(byDate.getId()).isEqualTo(last.getId());
+    }
+
+    @Test
+    void pagingWalksEveryApprovedReviewOnceWithTiesByDescendingId() {
+        Map<String, Comparator<Review>> orders = Map.of(
+                ReviewCursor.NEWEST, Comparator.comparing((Review r) -> r.getDatePosted().getTime()).reversed(),
+                ReviewCursor.HIGHEST, Comparator.comparing(Review::getRating).reversed(),
+                ReviewCursor.LOWEST, Comparator.comparing(Review::getRating));
+
+        orders.forEach((sort, order) -> {
+            List<Long> expected = approved.stream()
+                    .sorted(order.thenComparing(Review::getId, Comparator.reverseOrder()))
+                    .map(Review::getId).collect(Collectors.toList());
+
+            List<Long> paged = new ArrayList<>();
+            String cursor = null;
+            do {
+                // A page size of 1 puts a cursor between every pair of tied reviews
+                ReviewPage page = page(sort, cursor, 1);
+                paged.addAll(ids(page.getItems()));
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+
+            assertThat(paged).as(sort).hasSize(7).doesNotHaveDuplicates().isEqualTo(expected);
+        });
+    }
+
+    @Test
+    void unapprovedReviewsAreNeverListed() {
+        List<Long> approvedIds = ids(page(ReviewCursor.NEWEST, null, 50).getItems());
+
+        assertThat(approvedIds).containsExactlyInAnyOrderElementsOf(approved.stream().map(Review::getId).toList());
+        assertThat(reviewRepository.countByProductIdAndIsApprovedTrue(product.getId())).isEqualTo(7);
+    }
+
+    @Test
+    void lastPageHasNoNextCursor() {
+        ReviewPage first = page(ReviewCursor.LOWEST, null, 4);
+        assertThat(first.isHasMore()).isTrue();
+        assertThat(first.getNextCursor()).isNotNull();
+
+        ReviewPage last = page(ReviewCursor.LOWEST, first.getNextCursor(), 4);
+        assertThat(last.getItems()).hasSize(3);
+        assertThat(last.isHasMore()).isFalse();
+        assertThat(last.getNextCursor()).isNull();
+
+        // A page that ends exactly on the last review must not promise another one
+        ReviewPage exact = page(ReviewCursor.LOWEST, null, 7);
+        assertThat(exact.isHasMore()).isFalse();
+        assertThat(exact.getNextCursor()).isNull();
+    }
+
+    @Test
+    void malformedOrMismatchedCursorIsRejected() {
+        String ratingCursor = page(ReviewCursor.HIGHEST, null, 1).getNextCursor();
+        String tampered = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("newest|not-a-date|1".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> ReviewCursor.decode("%%%")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ReviewCursor.decode(tampered)).isInstanceOf(IllegalArgumentException.class);
+        // A 'highest' cursor cannot continue the 'lowest' or 'newest' order
+        assertThatThrownBy(() -> page(ReviewCursor.LOWEST, ratingCursor, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> page(null, ratingCursor, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void invalidCursorIsABadRequest() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(
+                new ProductRestController(null, reviewService, null, null, null, mock(CatalogVersionService.class))).build();
+        String ratingCursor = page(ReviewCursor.HIGHEST, null, 1).getNextCursor();
+
+        mockMvc.perform(get("/api/products/{id}/reviews", product.getId()).param("cursor", "bm90LWEtY3Vyc29y"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid review cursor."));
+        mockMvc.perform(get("/api/products/{id}/reviews", product.getId()).param("sort", "lowest").param("cursor", ratingCursor))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/products/{id}/reviews", product.getId()).param("sort", "highest").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].rating").value(4))
+                .andExpect(jsonPath("$.hasMore").value(true));
+    }
+
+    private ReviewPage page(String sort, String cursor, int size) {
+        return reviewService.getApprovedReviewsPage(product.getId(), sort, cursor, size);
+    }
+
+    private Product product(String name) {
+        Product product = new Product();
+        product.setName(name);
+        product.setDescription("Handwoven");
+        product.setCategory("Sarees");
+        product.setPrice(new BigDecimal("999"));
+        product.setStockQuantity(5);
+        product.setDateCreated(new Date());
+        return productRepository.save(product);
+    }
+
+    private Review review(User user, Product product, int rating, long postedAt, boolean isApproved) {
+        Review review = new Review();
+        review.setUser(user);
+        review.setProduct(product);
+        review.setRating(rating);
+        review.setDatePosted(new Date(postedAt));
+        review.setIsApproved(isApproved);
+        return reviewRepository.save(review);
+    }
+
+    private static List<Long> ids(List<ReviewDTO> reviews) {
+        return reviews.stream().map(ReviewDTO::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,152 @@
+package com.anvistudio.boutique.service;
+
+import com.anvistudio.boutique.dto.SuggestionDTO;
+import com.anvistudio.boutique.event.ProductChangedEvent;
+import com.anvistudio.boutique.model.Product;
+import com.anvistudio.boutique.repository.ProductRepository;
+import com.anvistudio.boutique.repository.WishlistRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The typeahead prefix trie, and how ProductSuggestService keeps it in step with product changes
+ * and wishlist popularity.
+ */
+class SuggestionTrieTest {
+
+    @Test
+    void lookupReturnsEntriesUnderThePrefixOnly() {
+        SuggestionTrie trie = new SuggestionTrie(5);
+        trie.add(entry("Red Silk Saree", 1), List.of("red silk saree", "silk saree", "saree"));
+        trie.add(entry("Sarees", 1), List.of("sarees"));
+        trie.add(entry("Kurtis", 1), List.of("kurtis"));
+
+        assertThat(texts(trie.lookup("sar", 5))).containsExactlyInAnyOrder("Red Silk Saree", "Sarees");
+        assertThat(texts(trie.lookup("silk", 5))).containsExactly("Red Silk Saree");
+        assertThat(texts(trie.lookup("kurtis", 5))).containsExactly("Kurtis");
+        assertThat(trie.lookup("kurtis ", 5)).isEmpty();
+        assertThat(trie.lookup("lehenga", 5)).isEmpty();
+    }
+
+    @Test
+    void entriesAreRankedByWeightAndTiesAlphabetically() {
+        SuggestionTrie trie = new SuggestionTrie(3);
+        trie.add(entry("Silk Dupatta", 2), List.of("silk dupatta"));
+        trie.add(entry("Silk Blouse", 5), List.of("silk blouse"));
+        trie.add(entry("Silk Saree", 2), List.of("silk saree"));
+        trie.add(entry("Silk Stole", 1), List.of("silk stole"));
+
+        // Only the top K are kept per node; equal weights fall back to the text
+        assertThat(texts(trie.lookup("silk", 10))).containsExactly("Silk Blouse", "Silk Dupatta", "Silk Saree");
+        assertThat(texts(trie.lookup("s", 2))).containsExactly("Silk Blouse", "Silk Dupatta");
+    }
+
+    @Test
+    void reweighAndRemoveUpdateTheCachedRanking() {
+        SuggestionTrie trie = new SuggestionTrie(3);
+        SuggestionTrie.Entry blouse = entry("Silk Blouse", 5);
+        SuggestionTrie.Entry saree = entry("Silk Saree", 2);
+        trie.add(blouse, List.of("silk blouse"));
+        trie.add(saree, List.of("silk saree"));
+
+        saree.weight = 9;
+        trie.reweigh(List.of("silk saree"));
+        assertThat(texts(trie.lookup("silk", 3))).containsExactly("Silk Saree", "Silk Blouse");
+
+        trie.remove(saree, List.of("silk saree"));
+        assertThat(texts(trie.lookup("silk", 3))).containsExactly("Silk Blouse");
+        assertThat(trie.lookup("silk s", 3)).isEmpty();
+    }
+
+    @Test
+    void productSavesAndDeletesPatchTheSuggestions() {
+        WishlistRepository wishlists = mock(WishlistRepository.class);
+        ProductRepository products = mock(ProductRepository.class);
+        Product saree = product(1L, "Banarasi Silk Saree", "Sarees", "wedding, banarasi");
+        when(products.findAll()).thenReturn(new ArrayList<>(List.of(saree)));
+        when(wishlists.countGroupedByProduct()).thenReturn(List.of());
+        ProductSuggestService service = service(products, wishlists);
+
+        assertThat(suggest(service, "bana")).containsExactly("Banarasi Silk Saree", "banarasi");
+
+        // Renamed and re-tagged: the old name and tag are gone, the new ones are suggested
+        saree.setName("Kanjivaram Silk Saree");
+        saree.setProductTags("wedding");
+        service.onProductChanged(ProductChangedEvent.saved(saree));
+        assertThat(suggest(service, "bana")).isEmpty();
+        assertThat(suggest(service, "kanji")).containsExactly("Kanjivaram Silk Saree");
+
+        Product lehenga = product(2L, "Bridal Lehenga", "Lehengas", "wedding");
+        service.onProductChanged(ProductChangedEvent.saved(lehenga));
+        assertThat(suggest(service, "bridal")).containsExactly("Bridal Lehenga");
+
+        service.onProductChanged(ProductChangedEvent.deleted(2L));
+        assertThat(suggest(service, "bridal")).isEmpty();
+        // Still carried by the saree
+        assertThat(suggest(service, "wed")).containsExactly("wedding");
+        // Categories stay suggestible without products
+        assertThat(suggest(service, "leh")).containsExactly("Lehengas");
+    }
+
+    @Test
+    void wishlistCountsAreRefreshedIntoTheRanking() {
+        WishlistRepository wishlists = mock(WishlistRepository.class);
+        ProductRepository products = mock(ProductRepository.class);
+        when(products.findAll()).thenReturn(new ArrayList<>(List.of(
+                product(1L, "Silk Blouse", "Blouses", null),
+                product(2L, "Silk Saree", "Sarees", null))));
+        when(wishlists.countGroupedByProduct()).thenReturn(List.<Object[]>of(new Object[]{1L, 3L}));
+        ProductSuggestService service = service(products, wishlists);
+        assertThat(suggest(service, "silk")).containsExactly("Silk Blouse", "Silk Saree");
+
+        when(wishlists.countGroupedByProduct()).thenReturn(List.<Object[]>of(new Object[]{1L, 3L}, new Object[]{2L, 10L}));
+        assertThat(service.refreshPopularity()).isEqualTo(1);
+        assertThat(suggest(service, "silk")).containsExactly("Silk Saree", "Silk Blouse");
+        assertThat(service.refreshPopularity()).isZero();
+
+        // A product save re-reads its own count immediately
+        when(wishlists.countByProductId(anyLong())).thenReturn(20L);
+        service.onProductChanged(ProductChangedEvent.saved(product(1L, "Silk Blouse", "Blouses", null)));
+        assertThat(suggest(service, "silk")).containsExactly("Silk Blouse", "Silk Saree");
+    }
+
+    private static ProductSuggestService service(ProductRepository products, WishlistRepository wishlists) {
+        ProductSuggestService service = new ProductSuggestService(products, wishlists);
+        ReflectionTestUtils.setField(service, "maxResults", 10);
+        service.rebuild();
+        return service;
+    }
+
+    private static List<String> suggest(ProductSuggestService service, String query) {
+        return service.suggest(query, 10).stream().map(SuggestionDTO::getText).collect(Collectors.toList());
+    }
+
+    private static Product product(Long id, String name, String category, String tags) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setCategory(category);
+        product.setProductTags(tags);
+        return product;
+    }
+
+    private static SuggestionTrie.Entry entry(String text, long weight) {
+        SuggestionTrie.Entry entry = new SuggestionTrie.Entry(text, ProductSuggestService.TYPE_PRODUCT);
+        entry.weight = weight;
+        entry.references = 1;
+        return entry;
+    }
+
+    private static List<String> texts(List<SuggestionTrie.Entry> entries) {
+        return entries.stream().map(e -> e.text).collect(Collectors.toList());
+    }
+}
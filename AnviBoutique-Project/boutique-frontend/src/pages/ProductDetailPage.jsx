@@ -32,6 +32,7 @@ const ProductDetailPage = () => {
     comment: ''
   });
   const [submittingReview, setSubmittingReview] = useState(false);
+  const [loadingReviews, setLoadingReviews] = useState(false);
 
   useEffect(() => {
     fetchProductDetail();
@@ -57,6 +58,23 @@ const ProductDetailPage = () => {
     }
   };
 
+  // Appends the next page of reviews (the detail response only embeds the first page)
+  const loadMoreReviews = async () => {
+    setLoadingReviews(true);
+    try {
+      const page = await productService.getProductReviews(id, { cursor: productData.reviewsNextCursor });
+      setProductData(prev => ({
+        ...prev,
+        reviews: [...prev.reviews, ...page.items],
+        reviewsNextCursor: page.nextCursor
+      }));
+    } catch (error) {
+      console.error('Failed to load more reviews:', error);
+    } finally {
+      setLoadingReviews(false);
+    }
+  };
+
   const handleAddToCart = async () => {
     if (!authService.isAuthenticated()) {
       navigate('/login');
@@ -424,6 +442,11 @@ const ProductDetailPage = () => {
                   ) : (
                     <p className="no-reviews">No reviews yet. Be the first to review this product!</p>
                   )}
+                  {productData.reviewsNextCursor && (
+                    <button className="btn btn-outline-dark" onClick={loadMoreReviews} disabled={loadingReviews}>
+                      {loadingReviews ? 'Loading...' : 'Load more reviews'}
+                    </button>
+                  )}
                 </div>
 
                 {/* Write Review Form */}
@@ -43,7 +43,7 @@ const productService = {
 
   /**
    * Get single product detail with reviews
-   * Returns: { product, reviews, averageRating, reviewCount, relatedProducts }
+   * Returns: { product, reviews (first page), reviewsNextCursor, averageRating, reviewCount, relatedProducts }
    */
   getProductDetail: async (id) => {
     try {
@@ -54,6 +54,20 @@ const productService = {
     }
   },
 
+  /**
+   * Get one page of a product's approved reviews
+   * @param {Object} params - { sort: 'newest' | 'highest' | 'lowest', cursor, size }
+   * Returns: { items, nextCursor, hasMore }
+   */
+  getProductReviews: async (id, params = {}) => {
+    try {
+      const response = await api.get(`/products/${id}/reviews`, { params });
+      return response.data;
+    } catch (error) {
+      throw error.response?.data || { error: 'Failed to fetch reviews' };
+    }
+  },
+
   /**
    * Get available product categories
    */